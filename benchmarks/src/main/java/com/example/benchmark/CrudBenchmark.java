@@ -0,0 +1,98 @@
+package com.example.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.Student;
+
+/**
+ * Operaciones individuales de {@code Main} (Crear, Leer, Actualizar,
+ * Eliminar), cada una en su propia sesión y transacción como en la
+ * aplicación. {@code SampleTime} da los percentiles de latencia.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrudBenchmark {
+
+    /** Fila recién creada para que {@link #remove} no agote la tabla sembrada. */
+    @State(Scope.Thread)
+    public static class Victim {
+        long id;
+
+        @Setup(Level.Invocation)
+        public void insert(StudentDatabase db) {
+            try (StatelessSession session = db.sessionFactory.openStatelessSession()) {
+                Transaction tx = session.beginTransaction();
+                Student student = StudentDatabase.newStudent(ThreadLocalRandom.current().nextInt(1000));
+                session.insert(student);
+                tx.commit();
+                id = student.getId();
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void restoreTableSize(StudentDatabase db) {
+        db.removeExtraRows();
+    }
+
+    @Benchmark
+    public Long persist(StudentDatabase db) {
+        try (Session session = db.sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Student student = StudentDatabase.newStudent(ThreadLocalRandom.current().nextInt(1000));
+            session.persist(student);
+            tx.commit();
+            return student.getId();
+        }
+    }
+
+    @Benchmark
+    public Student get(StudentDatabase db) {
+        try (Session session = db.sessionFactory.openSession()) {
+            return session.get(Student.class, db.randomId());
+        }
+    }
+
+    @Benchmark
+    public Student merge(StudentDatabase db) {
+        // Como updateStudent(): entidad separada con los valores del formulario
+        Student detached = StudentDatabase.newStudent(ThreadLocalRandom.current().nextInt(1000));
+        detached.setId(db.randomId());
+        try (Session session = db.sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Student merged = session.merge(detached);
+            tx.commit();
+            return merged;
+        }
+    }
+
+    @Benchmark
+    public void remove(StudentDatabase db, Victim victim) {
+        try (Session session = db.sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.remove(session.get(Student.class, victim.id));
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.Student;
+
+/**
+ * Coste del flush en una sesión con {@code managed} estudiantes cargados.
+ * Sin mejora de bytecode, Hibernate compara cada entidad con su instantánea
+ * campo a campo; con ella, solo visita las que han anotado cambios. Para
+ * comparar, se instala el proyecto con y sin mejora y se ejecuta cada vez:
+ * <pre>
+ * mvn install -DskipTests                 (con mejora, por defecto)
+ * mvn install -DskipTests -Denhance=false (sin mejora)
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar FlushBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlushBenchmark {
+    /** Entidades modificadas antes de cada flush en {@link #flushDirty}. */
+    static final int DIRTY = 10;
+
+    @Param({"10000", "100000"})
+    public int managed;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private Transaction tx;
+    private List<Student> students;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.out.println("Student con bytecode mejorado: " + ManagedEntity.class.isAssignableFrom(Student.class));
+        sessionFactory = StudentDatabase.open(false);
+        StudentDatabase.seed(sessionFactory, managed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    // Una sesión larga por iteración, con todas las filas gestionadas; los cambios se deshacen al final
+    @Setup(Level.Iteration)
+    public void loadSession() {
+        session = sessionFactory.openSession();
+        tx = session.beginTransaction();
+        students = session.createQuery("FROM Student", Student.class).list();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSession() {
+        tx.rollback();
+        session.close();
+    }
+
+    /** Como en {@code updateStudent()} dentro de una sesión grande: pocos cambios entre muchas entidades. */
+    @Benchmark
+    public void flushDirty() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < DIRTY; i++) {
+            Student student = students.get(random.nextInt(students.size()));
+            student.setAge(StudentDatabase.MIN_AGE + random.nextInt(StudentDatabase.AGE_SPAN));
+        }
+        session.flush();
+    }
+
+    /** Sin cambios: solo el recorrido de comprobación. */
+    @Benchmark
+    public void flushClean() {
+        session.flush();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.Student;
+import com.example.StudentQuery;
+import com.example.StudentRow;
+import com.example.StudentTableModel;
+
+/**
+ * Consultas HQL de {@code Main}: la primera página de cada vista (lo que
+ * pide la tabla al mostrarla), el conteo y las operaciones masivas.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+    // Edad que no existe en la tabla sembrada: filas que bulkDelete puede borrar
+    private static final int DOOMED_AGE = 999;
+
+    /** Inserta antes de cada invocación de {@link #bulkDelete} el 1% de la tabla a borrar. */
+    @State(Scope.Thread)
+    public static class DoomedRows {
+        @Setup(Level.Invocation)
+        public void insert(StudentDatabase db) {
+            try (StatelessSession session = db.sessionFactory.openStatelessSession()) {
+                session.setJdbcBatchSize(Student.ID_ALLOCATION_SIZE);
+                Transaction tx = session.beginTransaction();
+                for (int i = 0; i < Math.max(1, db.tableSize / 100); i++) {
+                    session.insert(new Student("Temporal " + i, DOOMED_AGE));
+                }
+                tx.commit();
+            }
+        }
+    }
+
+    @Benchmark
+    public List<StudentRow> searchByName(StudentDatabase db) {
+        return firstPage(db, StudentQuery.nameContains("ari"));
+    }
+
+    @Benchmark
+    public List<StudentRow> searchByAgeRange(StudentDatabase db) {
+        return firstPage(db, StudentQuery.ageBetween(30, 35));
+    }
+
+    @Benchmark
+    public List<StudentRow> sortByName(StudentDatabase db) {
+        return firstPage(db, StudentQuery.sorted(StudentQuery.Order.NAME_ASC));
+    }
+
+    @Benchmark
+    public List<StudentRow> sortByAgeDesc(StudentDatabase db) {
+        return firstPage(db, StudentQuery.sorted(StudentQuery.Order.AGE_DESC));
+    }
+
+    @Benchmark
+    public long count(StudentDatabase db) {
+        try (Session session = db.sessionFactory.openSession()) {
+            return StudentQuery.all().count(session);
+        }
+    }
+
+    @Benchmark
+    public int bulkUpdateAges(StudentDatabase db) {
+        // Como updateAllAges(), alternando el signo para que las edades no se desborden
+        try (Session session = db.sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            int updated = session.createMutationQuery("UPDATE Student SET age = age + :increment")
+                .setParameter("increment", 1)
+                .executeUpdate();
+            session.createMutationQuery("UPDATE Student SET age = age + :increment")
+                .setParameter("increment", -1)
+                .executeUpdate();
+            tx.commit();
+            return updated;
+        }
+    }
+
+    @Benchmark
+    public int bulkDelete(StudentDatabase db, DoomedRows rows) {
+        try (Session session = db.sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            int deleted = session.createMutationQuery("DELETE FROM Student WHERE age = :age")
+                .setParameter("age", DOOMED_AGE)
+                .executeUpdate();
+            tx.commit();
+            return deleted;
+        }
+    }
+
+    private static List<StudentRow> firstPage(StudentDatabase db, StudentQuery query) {
+        try (Session session = db.sessionFactory.openSession()) {
+            return query.fetch(session, null, 0, StudentTableModel.PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.example.DatabaseProfile;
+import com.example.QueryProfiler;
+import com.example.Student;
+
+/**
+ * Base de datos HSQLDB en memoria (perfil {@link DatabaseProfile#HSQLDB_MEM})
+ * con la configuración de la aplicación (pool, lotes JDBC, ids pooled-lo) y una tabla
+ * sembrada con {@code tableSize} estudiantes.
+ *
+ * <p>Las cachés de segundo nivel y de consultas se desactivan por defecto
+ * para medir la base de datos; {@code -p cache=true} las activa.</p>
+ */
+@State(Scope.Benchmark)
+public class StudentDatabase {
+    static final String[] FIRST_NAMES = {"María", "José", "Ana", "Luis", "Ángel", "Lucía", "Mario", "Íñigo"};
+    static final int MIN_AGE = 18;
+    static final int AGE_SPAN = 60;
+
+    @Param({"1000", "100000"})
+    public int tableSize;
+
+    @Param({"false"})
+    public boolean cache;
+
+    SessionFactory sessionFactory;
+    long firstId;
+    long lastId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sessionFactory = open(cache);
+        long[] range = seed(sessionFactory, tableSize);
+        firstId = range[0];
+        lastId = range[1];
+    }
+
+    /** {@code SessionFactory} sobre una base de datos vacía, sin registro de consultas lentas. */
+    static SessionFactory open(boolean cache) {
+        return DatabaseProfile.HSQLDB_MEM.configuration()
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.cache.use_second_level_cache", String.valueOf(cache))
+            .setProperty("hibernate.cache.use_query_cache", String.valueOf(cache))
+            .setProperty(QueryProfiler.SLOW_MS, "-1")
+            .buildSessionFactory();
+    }
+
+    /** Inserta {@code count} estudiantes y devuelve el primer y el último id. */
+    static long[] seed(SessionFactory sessionFactory, int count) {
+        long[] range = new long[2];
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(Student.ID_ALLOCATION_SIZE);
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < count; i++) {
+                Student student = newStudent(i);
+                session.insert(student);
+                if (i == 0) {
+                    range[0] = student.getId();
+                }
+                range[1] = student.getId();
+            }
+            tx.commit();
+        }
+        return range;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    /** Borra lo que hayan añadido los benchmarks para que la tabla conserve su tamaño. */
+    void removeExtraRows() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student WHERE id > :lastId")
+                .setParameter("lastId", lastId)
+                .executeUpdate();
+            tx.commit();
+        }
+    }
+
+    /** Un id de la tabla sembrada (los ids pooled-lo son consecutivos dentro de un mismo arranque). */
+    long randomId() {
+        return ThreadLocalRandom.current().nextLong(firstId, lastId + 1);
+    }
+
+    static Student newStudent(int i) {
+        return new Student(FIRST_NAMES[i % FIRST_NAMES.length] + " " + Integer.toString(i * 7919, 36),
+            MIN_AGE + i % AGE_SPAN);
+    }
+}
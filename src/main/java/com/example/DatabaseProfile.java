@@ -0,0 +1,128 @@
+package com.example;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.cfg.Configuration;
+
+/**
+ * Base de datos sobre la que se ejecuta la aplicación.
+ *
+ * <p>{@code hibernate.cfg.xml} describe la conexión a MySQL; los perfiles
+ * HSQLDB sustituyen solo las propiedades de conexión y dialecto, de modo que
+ * el resto de la configuración (pool, lotes, caché) es la misma. El perfil se
+ * elige con la propiedad de sistema {@value #PROPERTY} o la variable de
+ * entorno {@value #ENV}; por defecto, MySQL:</p>
+ * <pre>
+ * mvn exec:java -Dapp.db.profile=hsqldb-file
+ * APP_DB_PROFILE=hsqldb-mem mvn exec:java
+ * </pre>
+ */
+public enum DatabaseProfile {
+    /** El servidor MySQL de {@code hibernate.cfg.xml}. */
+    MYSQL("mysql"),
+
+    /** HSQLDB embebido en memoria: arranque inmediato, los datos se pierden al salir. */
+    HSQLDB_MEM("hsqldb-mem"),
+
+    /**
+     * HSQLDB embebido en disco ({@value #PATH_PROPERTY}, por defecto
+     * {@code data/students}), con tablas CACHED: solo las filas más usadas
+     * viven en memoria, así que admite tablas mayores que el heap.
+     */
+    HSQLDB_FILE("hsqldb-file");
+
+    public static final String PROPERTY = "app.db.profile";
+    public static final String ENV = "APP_DB_PROFILE";
+    public static final String PATH_PROPERTY = "app.db.path";
+    static final String DEFAULT_PATH = "data/students";
+
+    // Concurrencia MVCC: las lecturas de la tabla no esperan a las escrituras masivas
+    private static final String HSQLDB_OPTIONS = ";hsqldb.tx=mvcc";
+
+    // Caché de filas (número y KB), ficheros de datos con NIO, un log grande que
+    // reduce los checkpoints durante importaciones masivas, y cierre ordenado de
+    // la base de datos al cerrar el pool (evita recuperar el log al arrancar)
+    private static final String HSQLDB_FILE_OPTIONS = HSQLDB_OPTIONS
+        + ";hsqldb.default_table_type=cached"
+        + ";hsqldb.cache_rows=200000"
+        + ";hsqldb.cache_size=131072"
+        + ";hsqldb.nio_data_file=true"
+        + ";hsqldb.log_size=256"
+        + ";hsqldb.write_delay_millis=200"
+        + ";shutdown=true";
+
+    private final String profileName;
+
+    DatabaseProfile(String profileName) {
+        this.profileName = profileName;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    /** Perfil indicado por la propiedad de sistema o la variable de entorno, o {@link #MYSQL}. */
+    public static DatabaseProfile current() {
+        String name = System.getProperty(PROPERTY);
+        if (name == null || name.isBlank()) {
+            name = System.getenv(ENV);
+        }
+        return name == null || name.isBlank() ? MYSQL : fromName(name);
+    }
+
+    public static DatabaseProfile fromName(String name) {
+        String normalized = name.strip().toLowerCase(Locale.ROOT).replace('_', '-');
+        for (DatabaseProfile profile : values()) {
+            if (profile.profileName.equals(normalized)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Perfil de base de datos desconocido: " + name + " (válidos: "
+            + Arrays.stream(values()).map(DatabaseProfile::getProfileName).toList() + ")");
+    }
+
+    /**
+     * {@code hibernate.cfg.xml} con las propiedades de este perfil aplicadas.
+     * La {@code SessionFactory} que se construya con ella registra al crearse
+     * las consultas con nombre de {@link StudentQuery}.
+     */
+    public Configuration configuration() {
+        Configuration configuration = apply(new Configuration().configure());
+        configuration.setSessionFactoryObserver(new SessionFactoryObserver() {
+            @Override
+            public void sessionFactoryCreated(SessionFactory factory) {
+                StudentQuery.registerNamedQueries(factory);
+            }
+        });
+        return configuration;
+    }
+
+    public Configuration apply(Configuration configuration) {
+        properties().forEach(configuration::setProperty);
+        return configuration;
+    }
+
+    Map<String, String> properties() {
+        return switch (this) {
+            case MYSQL -> Map.of();
+            case HSQLDB_MEM -> hsqldb("jdbc:hsqldb:mem:students" + HSQLDB_OPTIONS);
+            case HSQLDB_FILE -> hsqldb("jdbc:hsqldb:file:"
+                + Path.of(System.getProperty(PATH_PROPERTY, DEFAULT_PATH)).toAbsolutePath()
+                + HSQLDB_FILE_OPTIONS);
+        };
+    }
+
+    private static Map<String, String> hsqldb(String url) {
+        return Map.of(
+            "hibernate.connection.driver_class", "org.hsqldb.jdbc.JDBCDriver",
+            "hibernate.connection.url", url,
+            "hibernate.connection.username", "sa",
+            "hibernate.connection.password", "",
+            "hibernate.dialect", "org.hibernate.dialect.HSQLDialect");
+    }
+}
@@ -0,0 +1,175 @@
+package com.example;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Ejecuta el trabajo de base de datos de la interfaz en hilos virtuales, fuera
+ * del Event Dispatch Thread, y publica los resultados de vuelta en el EDT.
+ * Cada operación se mide en {@link OperationMetrics} con su nombre.
+ *
+ * <p>Las operaciones se ejecutan de una en una y en orden de llegada: si se
+ * envía una operación mientras otra está en curso, queda en cola. Una
+ * operación cancelada sigue ocupando su turno hasta que su hilo termina de
+ * verdad (interrumpir no aborta una sentencia JDBC en curso), así que nunca
+ * hay dos a la vez. Todos los métodos públicos deben invocarse desde el
+ * EDT.</p>
+ */
+public class DbTaskRunner {
+
+    /** Recibe los cambios de estado para habilitar/deshabilitar la interfaz. */
+    public interface BusyListener {
+        void busyChanged(boolean busy, String operation, int queued);
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Deque<Operation<?>> queue = new ArrayDeque<>();
+    private final BusyListener listener;
+    private final Consumer<String> errorHandler;
+    private Operation<?> current;
+
+    /**
+     * @param listener     notificado en el EDT cada vez que cambia el estado
+     * @param errorHandler muestra en el EDT el mensaje de una operación fallida
+     */
+    public DbTaskRunner(BusyListener listener, Consumer<String> errorHandler) {
+        this.listener = listener;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Encola una operación. {@code work} se ejecuta en un hilo virtual y
+     * {@code onSuccess} en el EDT con su resultado. Si falla, se informa con
+     * el texto "Error al {@code operation}: ...".
+     */
+    public <T> void submit(String operation, Callable<T> work, Consumer<T> onSuccess) {
+        queue.addLast(new Operation<>(operation, work, onSuccess));
+        if (current == null) {
+            startNext();
+        } else {
+            notifyListener();
+        }
+    }
+
+    /**
+     * Cancela la operación en curso y descarta las que estaban en cola. El
+     * resultado de la operación cancelada nunca llega a la interfaz; el
+     * ejecutor sigue ocupado hasta que su hilo termina.
+     */
+    public void cancel() {
+        queue.clear();
+        if (current != null && !current.cancelled) {
+            current.cancel();
+        }
+        notifyListener();
+    }
+
+    public boolean isBusy() {
+        return current != null;
+    }
+
+    /** Detiene el ejecutor interrumpiendo el trabajo pendiente. */
+    public void shutdown() {
+        queue.clear();
+        executor.shutdownNow();
+    }
+
+    private void startNext() {
+        current = queue.pollFirst();
+        notifyListener();
+        if (current == null) {
+            return;
+        }
+        Operation<?> op = current;
+        executor.execute(op::run);
+    }
+
+    private void finish(Operation<?> op) {
+        if (op != current) {
+            return;
+        }
+        current = null;
+        startNext();
+    }
+
+    private void notifyListener() {
+        String operation = current == null ? null : current.cancelled ? current.name + " (cancelando)" : current.name;
+        listener.busyChanged(current != null, operation, queue.size());
+    }
+
+    private final class Operation<T> {
+        private final String name;
+        private final Callable<T> work;
+        private final Consumer<T> onSuccess;
+        private volatile boolean cancelled;
+        private volatile Thread thread;
+
+        private Operation(String name, Callable<T> work, Consumer<T> onSuccess) {
+            this.name = name;
+            this.work = work;
+            this.onSuccess = onSuccess;
+        }
+
+        // Se anota el hilo antes de mirar cancelled y cancel() hace lo contrario: una de las dos partes ve a la otra
+        private void cancel() {
+            cancelled = true;
+            Thread running = thread;
+            if (running != null) {
+                running.interrupt();
+            }
+        }
+
+        // Pase lo que pase (también un Error), al terminar libera el turno en el EDT
+        private void run() {
+            thread = Thread.currentThread();
+            T result = null;
+            Throwable failure = null;
+            try {
+                if (!cancelled) {
+                    try (OperationMetrics.Scope scope = OperationMetrics.get().begin(name)) {
+                        result = call(scope);
+                    }
+                }
+            } catch (Throwable ex) {
+                failure = ex;
+            } finally {
+                thread = null;
+                T value = result;
+                Throwable error = failure;
+                SwingUtilities.invokeLater(() -> complete(value, error));
+            }
+        }
+
+        private void complete(T result, Throwable failure) {
+            try {
+                if (cancelled) {
+                    return;
+                }
+                if (failure == null) {
+                    onSuccess.accept(result);
+                } else {
+                    // Un Error (StackOverflowError...) suele venir sin mensaje
+                    String message = failure instanceof Exception ? failure.getMessage() : failure.toString();
+                    errorHandler.accept("Error al " + name + ": " + message);
+                }
+            } finally {
+                finish(this);
+            }
+        }
+
+        private T call(OperationMetrics.Scope scope) throws Exception {
+            try {
+                return work.call();
+            } catch (Exception | Error ex) {
+                scope.failed();
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.example;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.SessionFactoryBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+/**
+ * Construye la {@code SessionFactory} fase a fase para saber en qué se va el
+ * tiempo de arranque: conexión (pool y metadatos JDBC), metadatos (lectura
+ * de las entidades y modelo de Hibernate) y esquema ({@code hbm2ddl.auto}).
+ * Las fases posteriores (migraciones, primera consulta) se miden con
+ * {@link #time}.
+ *
+ * <p>En despliegues cuyo esquema ya se sabe correcto, {@value #SKIP_SCHEMA}
+ * ({@code true} en {@code hibernate.cfg.xml} o como propiedad de sistema)
+ * se salta la comprobación del esquema, que con {@code update} recorre los
+ * metadatos de todas las tablas.</p>
+ *
+ * <p>Con la propiedad de sistema {@value #LOG_TIMINGS} a {@code true} el
+ * desglose del arranque se escribe también en la salida de error.</p>
+ */
+public class HibernateBootstrap {
+    public static final String SKIP_SCHEMA = "app.bootstrap.skip_schema";
+    public static final String LOG_TIMINGS = "app.bootstrap.log_timings";
+
+    /** Fases del arranque, en orden. */
+    public enum Phase {
+        CONNECTION("conexión"),
+        METADATA("metadatos"),
+        SCHEMA("esquema"),
+        MIGRATIONS("migraciones"),
+        FIRST_QUERY("primera consulta");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /** Duración de cada fase completada, en milisegundos. */
+    public record Timings(Map<Phase, Long> millis) {
+        public long totalMillis() {
+            return millis.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner phases = new StringJoiner(", ", " (", ")");
+            millis.forEach((phase, ms) -> phases.add(phase.getLabel() + " " + ms));
+            return "Hibernate listo en " + totalMillis() + " ms" + phases;
+        }
+
+        // Milisegundos por fase, para el volcado JSON de las métricas
+        String toJson() {
+            StringJoiner json = new StringJoiner(",", "{", "}");
+            millis.forEach((phase, ms) -> json.add("\"" + phase.name().toLowerCase(Locale.ROOT) + "\":" + ms));
+            return json.toString();
+        }
+    }
+
+    private final Map<Phase, Long> nanos = new EnumMap<>(Phase.class);
+
+    /**
+     * Escribe una línea del arranque en la salida de error si se ha pedido con
+     * {@value #LOG_TIMINGS}. Es propiedad de sistema y no de
+     * {@code hibernate.cfg.xml} porque la ventana aparece antes de leerlo.
+     */
+    public static void logTiming(String line) {
+        if (Boolean.getBoolean(LOG_TIMINGS)) {
+            System.err.println(line);
+        }
+    }
+
+    /** Conexión, metadatos y esquema; el resultado se construye sin {@code hbm2ddl.auto}. */
+    public SessionFactory build(Configuration configuration) {
+        String schemaAction = configuration.getProperties().getProperty(AvailableSettings.HBM2DDL_AUTO, "none");
+        StandardServiceRegistry registry = configuration.getStandardServiceRegistryBuilder()
+            .applySettings(configuration.getProperties())
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, "none")
+            .build();
+        try {
+            // El pool se crea y Hibernate lee los metadatos JDBC al pedir JdbcServices
+            time(Phase.CONNECTION, () -> registry.requireService(JdbcServices.class));
+
+            DelayedDropAction[] dropOnClose = new DelayedDropAction[1];
+            long start = System.nanoTime();
+            Metadata metadata = new MetadataSources(registry).buildMetadata();
+            SessionFactoryBuilder builder = metadata.getSessionFactoryBuilder();
+            if (configuration.getSessionFactoryObserver() != null) {
+                builder.addSessionFactoryObservers(configuration.getSessionFactoryObserver());
+            }
+            builder.addSessionFactoryObservers(new SessionFactoryObserver() {
+                // create-drop: el borrado del esquema sigue ocurriendo al cerrar
+                @Override
+                public void sessionFactoryClosing(SessionFactory factory) {
+                    if (dropOnClose[0] != null) {
+                        dropOnClose[0].perform(registry);
+                    }
+                }
+            });
+            SessionFactory factory = builder.build();
+            nanos.put(Phase.METADATA, System.nanoTime() - start);
+
+            Map<String, Object> settings = new HashMap<>(registry.requireService(ConfigurationService.class).getSettings());
+            if (!Boolean.parseBoolean(String.valueOf(settings.get(SKIP_SCHEMA)))) {
+                settings.put(AvailableSettings.HBM2DDL_AUTO, schemaAction);
+                try {
+                    time(Phase.SCHEMA, () -> SchemaManagementToolCoordinator.process(metadata, registry, settings,
+                        action -> dropOnClose[0] = action));
+                } catch (RuntimeException ex) {
+                    factory.close();
+                    throw ex;
+                }
+            }
+            return factory;
+        } catch (RuntimeException ex) {
+            StandardServiceRegistryBuilder.destroy(registry);
+            throw ex;
+        }
+    }
+
+    /** Ejecuta {@code work} y anota su duración como {@code phase}. */
+    public void time(Phase phase, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            nanos.merge(phase, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    public Timings timings() {
+        Map<Phase, Long> millis = new EnumMap<>(Phase.class);
+        nanos.forEach((phase, value) -> millis.put(phase, TimeUnit.NANOSECONDS.toMillis(value)));
+        return new Timings(millis);
+    }
+}
@@ -1,18 +1,140 @@
 package com.example;
 
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 
 public class HibernateUtil {
-    private static final SessionFactory sessionFactory = new Configuration().configure().buildSessionFactory();
+    private static final DatabaseProfile profile = DatabaseProfile.current();
+    private static CompletableFuture<SessionFactory> bootstrap;
+    private static volatile HibernateBootstrap.Timings startupTimings;
+
+    /**
+     * Empieza a construir la {@code SessionFactory} en segundo plano, si no se
+     * ha empezado ya. {@code Main} lo llama nada más arrancar para que la
+     * ventana aparezca sin esperar a Hibernate; cualquier otro acceso espera
+     * a que termine.
+     */
+    public static synchronized CompletableFuture<SessionFactory> startAsync() {
+        if (bootstrap == null) {
+            CompletableFuture<SessionFactory> future = new CompletableFuture<>();
+            bootstrap = future;
+            Thread.ofPlatform().name("hibernate-bootstrap").daemon().start(() -> {
+                try {
+                    future.complete(buildSessionFactory());
+                } catch (RuntimeException | Error ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        }
+        return bootstrap;
+    }
+
+    private static SessionFactory buildSessionFactory() {
+        HibernateBootstrap phases = new HibernateBootstrap();
+        SessionFactory factory = phases.build(profile.configuration());
+        phases.time(HibernateBootstrap.Phase.MIGRATIONS, () -> {
+            StudentIdMigration.alignSequence(factory);
+            if (StudentNameMigration.backfillNormalizedNames(factory) > 0) {
+                StudentCache.evictAll(factory);
+            }
+            StudentSync.pruneDeletions(factory);
+        });
+        // Calienta el pool y la caché de planes con la consulta de la vista inicial
+        phases.time(HibernateBootstrap.Phase.FIRST_QUERY, () -> {
+            try (Session session = openReadOnlySession(factory)) {
+                StudentQuery.all().count(session);
+            }
+        });
+        startupTimings = phases.timings();
+        HibernateBootstrap.logTiming(startupTimings.toString());
+        Object snapshotFile = factory.getProperties().get(OperationMetrics.SNAPSHOT_FILE);
+        if (snapshotFile != null && !snapshotFile.toString().isBlank()) {
+            long interval = Long.parseLong(factory.getProperties()
+                .getOrDefault(OperationMetrics.SNAPSHOT_INTERVAL, "60").toString());
+            OperationMetrics.get().startSnapshots(Path.of(snapshotFile.toString()), interval, factory);
+        }
+        return factory;
+    }
 
     public static SessionFactory getSessionFactory() {
-        return sessionFactory;
+        try {
+            return startAsync().join();
+        } catch (CompletionException ex) {
+            // El mismo error que si se hubiera construido en este hilo
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /** Duración de cada fase del arranque, o {@code null} si aún no ha terminado. */
+    public static HibernateBootstrap.Timings getStartupTimings() {
+        return startupTimings;
+    }
+
+    /** Abre una sesión midiendo el tiempo como fase de la operación en curso ({@link OperationMetrics}). */
+    public static Session openSession() {
+        return openSession(getSessionFactory());
+    }
+
+    public static Session openSession(SessionFactory factory) {
+        long start = System.nanoTime();
+        try {
+            return factory.openSession();
+        } finally {
+            OperationMetrics.get().recordPhase(OperationMetrics.Phase.SESSION_OPEN, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sesión para lecturas: de solo lectura y sin flush automático antes de
+     * cada consulta. Se usa en lugar de una {@code StatelessSession} porque
+     * esta ignora siempre la caché de consultas.
+     */
+    public static Session openReadOnlySession() {
+        return openReadOnlySession(getSessionFactory());
+    }
+
+    public static Session openReadOnlySession(SessionFactory factory) {
+        Session session = openSession(factory);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return session;
+    }
+
+    /** Perfil de base de datos elegido al arrancar (ver {@link DatabaseProfile}). */
+    public static DatabaseProfile getProfile() {
+        return profile;
+    }
+
+    /** Indicadores del pool de conexiones, o {@code null} si no se usa {@link PooledConnectionProvider}. */
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics(getSessionFactory());
+    }
+
+    public static PoolMetrics poolMetrics(SessionFactory factory) {
+        ConnectionProvider provider = factory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(ConnectionProvider.class);
+        return provider instanceof PooledConnectionProvider pooled ? pooled.getMetrics() : null;
     }
     
     public static void shutdown() {
-        if (sessionFactory != null) {
-            sessionFactory.close();
+        OperationMetrics.get().stopSnapshots();
+        CompletableFuture<SessionFactory> started;
+        synchronized (HibernateUtil.class) {
+            started = bootstrap;
+        }
+        if (started != null) {
+            // Si aún está arrancando, se cierra al terminar
+            started.thenAccept(SessionFactory::close);
         }
     }
 }
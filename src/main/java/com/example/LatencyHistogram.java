@@ -0,0 +1,107 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias sin bloqueos con cubetas logarítmicas: cada
+ * potencia de dos se divide en 16 cubetas, así que los percentiles tienen
+ * un error relativo por debajo del 6% desde nanosegundos hasta horas, con
+ * memoria fija (unos 8 KB).
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = 4;
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Lectura puntual. Los tiempos están en milisegundos. */
+    public record Snapshot(long count, double meanMillis, double p50Millis, double p95Millis,
+                           double p99Millis, double p999Millis, double maxMillis) {
+        static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /** Suma a este histograma los valores registrados en {@code other}. */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long value = other.buckets.get(i);
+            if (value != 0) {
+                buckets.addAndGet(i, value);
+            }
+        }
+        count.add(other.count.sum());
+        totalNanos.add(other.totalNanos.sum());
+        maxNanos.accumulate(other.maxNanos.get());
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = buckets.get(i);
+            total += copy[i];
+        }
+        if (total == 0) {
+            return Snapshot.EMPTY;
+        }
+        double max = maxNanos.get() / NANOS_PER_MILLI;
+        return new Snapshot(total,
+            totalNanos.sum() / (double) count.sum() / NANOS_PER_MILLI,
+            Math.min(max, percentile(copy, total, 0.50)),
+            Math.min(max, percentile(copy, total, 0.95)),
+            Math.min(max, percentile(copy, total, 0.99)),
+            Math.min(max, percentile(copy, total, 0.999)),
+            max);
+    }
+
+    private static double percentile(long[] counts, long total, double quantile) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return midpointOf(i) / NANOS_PER_MILLI;
+            }
+        }
+        return midpointOf(counts.length - 1) / NANOS_PER_MILLI;
+    }
+
+    // Valores < 16 van en su propia cubeta; el resto, por exponente y los 4 bits siguientes
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static double midpointOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        double width = Math.pow(2, exponent - SUB_BITS);
+        return (SUB_BUCKETS + sub) * width + width / 2;
+    }
+}
@@ -1,34 +1,62 @@
 package com.example;
 
 import java.awt.BorderLayout;
+import java.awt.Cursor;
 import java.awt.FlowLayout;
 import java.awt.GridLayout;
-import java.awt.HeadlessException;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.LongConsumer;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.Timer;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
-import org.hibernate.HibernateException;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
-import org.hibernate.query.Query;
 
 public class Main extends JFrame {
+    private static final int SYNC_INTERVAL_MS = 5000;
+
     private JTextField txtId, txtName, txtAge;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private StudentTableModel tableModel;
     private final JButton btnCreate, btnRead, btnUpdate, btnDelete, btnRefresh;
-    private final JButton btnSearchName, btnSearchAge, btnSort, btnCount, btnDeleteAll, btnUpdateAll, btnFilterAge;
+    private final JButton btnSearchName, btnSearchAge, btnSort, btnCount, btnStatistics, btnDeleteAll, btnUpdateAll,
+        btnFilterAge;
+    private final JButton btnImport, btnExport, btnCancel, btnMetrics;
+    private final JProgressBar progressBar;
+    private final JLabel lblStatus, lblPool, lblCache;
+    private final Timer poolMonitor;
+    private final OperationMetricsPanel metricsPanel = new OperationMetricsPanel();
+    private JDialog metricsDialog;
+    private final StudentStatisticsPanel statisticsPanel = new StudentStatisticsPanel();
+    private JDialog statisticsDialog;
+    private final DbTaskRunner dbRunner;
+    private final NameSearchIndex nameIndex = new NameSearchIndex();
+    private final StudentService service = new StudentService(HibernateUtil::getSessionFactory, nameIndex);
+    private final StudentSync sync = new StudentSync();
+    private final Timer syncTimer;
+    private boolean syncing;
+    // Fila mostrada en el formulario: su versión detecta ediciones concurrentes al actualizar
+    private StudentRow formRow;
 
     public Main() {
         setTitle("CRUD de Estudiantes con Hibernate");
@@ -37,6 +65,10 @@ public class Main extends JFrame {
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
 
+        // Las operaciones de base de datos se ejecutan fuera del EDT
+        dbRunner = new DbTaskRunner(this::onBusyChanged, message ->
+            JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE));
+
         // Panel de formulario
         JPanel formPanel = new JPanel(new GridLayout(4, 2, 10, 10));
         formPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -55,30 +87,23 @@ public class Main extends JFrame {
 
         add(formPanel, BorderLayout.NORTH);
 
-        // Tabla para mostrar estudiantes
-        String[] columns = {"ID", "Nombre", "Edad"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Tabla para mostrar estudiantes (modelo paginado bajo demanda)
+        tableModel = new StudentTableModel();
         table = new JTable(tableModel);
         table.getSelectionModel().addListSelectionListener(e -> {
-            if (!e.getValueIsAdjusting() && table.getSelectedRow() != -1) {
-                int row = table.getSelectedRow();
-                txtId.setText(tableModel.getValueAt(row, 0).toString());
-                txtName.setText(tableModel.getValueAt(row, 1).toString());
-                txtAge.setText(tableModel.getValueAt(row, 2).toString());
+            if (!e.getValueIsAdjusting() && table.getSelectedRow() != -1
+                    && tableModel.getIdAt(table.getSelectedRow()) != null) {
+                showInForm(tableModel.getLoadedRow(tableModel.getIdAt(table.getSelectedRow())));
             }
         });
         JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.getViewport().addChangeListener(e -> updateVisibleRows());
         add(scrollPane, BorderLayout.CENTER);
 
         // Panel de botones - Operaciones básicas
-        JPanel buttonPanel = new JPanel(new GridLayout(3, 1, 5, 5));
+        JPanel buttonPanel = new JPanel(new GridLayout(4, 1, 5, 5));
         buttonPanel.setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
-        
+
         JPanel basicPanel = new JPanel(new FlowLayout());
         basicPanel.setBorder(BorderFactory.createTitledBorder("Operaciones Básicas"));
         btnCreate = new JButton("Crear");
@@ -98,7 +123,7 @@ public class Main extends JFrame {
         basicPanel.add(btnUpdate);
         basicPanel.add(btnDelete);
         basicPanel.add(btnRefresh);
-        
+
         // Panel de búsquedas
         JPanel searchPanel = new JPanel(new FlowLayout());
         searchPanel.setBorder(BorderFactory.createTitledBorder("Búsquedas"));
@@ -106,40 +131,278 @@ public class Main extends JFrame {
         btnSearchAge = new JButton("Buscar por Rango Edad");
         btnFilterAge = new JButton("Filtrar por Edad");
         btnSort = new JButton("Ordenar");
-        
+
         btnSearchName.addActionListener(e -> searchByName());
         btnSearchAge.addActionListener(e -> searchByAgeRange());
         btnFilterAge.addActionListener(e -> filterByAge());
         btnSort.addActionListener(e -> sortStudents());
-        
+
         searchPanel.add(btnSearchName);
         searchPanel.add(btnSearchAge);
         searchPanel.add(btnFilterAge);
         searchPanel.add(btnSort);
-        
+
         // Panel de operaciones masivas
         JPanel massPanel = new JPanel(new FlowLayout());
         massPanel.setBorder(BorderFactory.createTitledBorder("Operaciones Masivas"));
         btnCount = new JButton("Contar Total");
+        btnStatistics = new JButton("Estadísticas");
         btnDeleteAll = new JButton("Eliminar Todos");
         btnUpdateAll = new JButton("Incrementar Edades");
-        
+        btnImport = new JButton("Importar CSV");
+        btnExport = new JButton("Exportar");
+
         btnCount.addActionListener(e -> countStudents());
+        btnStatistics.addActionListener(e -> showStatistics());
         btnDeleteAll.addActionListener(e -> deleteAllStudents());
         btnUpdateAll.addActionListener(e -> updateAllAges());
-        
+        btnImport.addActionListener(e -> importCsv());
+        btnExport.addActionListener(e -> exportStudents());
+
         massPanel.add(btnCount);
+        massPanel.add(btnStatistics);
         massPanel.add(btnDeleteAll);
         massPanel.add(btnUpdateAll);
-        
+        massPanel.add(btnImport);
+        massPanel.add(btnExport);
+
+        // Panel de estado - operación en curso y cancelación
+        JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        lblStatus = new JLabel("Listo");
+        btnCancel = new JButton("Cancelar");
+        btnCancel.setEnabled(false);
+        btnCancel.addActionListener(e -> dbRunner.cancel());
+        btnMetrics = new JButton("Métricas");
+        btnMetrics.addActionListener(e -> showMetrics());
+
+        lblPool = new JLabel(" ");
+        lblCache = new JLabel(" ");
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        poolMonitor = new Timer(1000, e -> updatePoolStatus());
+        syncTimer = new Timer(SYNC_INTERVAL_MS, e -> syncChanges());
+
+        statusPanel.add(btnCancel);
+        statusPanel.add(lblStatus);
+        statusPanel.add(progressBar);
+        statusPanel.add(lblPool);
+        statusPanel.add(lblCache);
+        statusPanel.add(btnMetrics);
+
         buttonPanel.add(basicPanel);
         buttonPanel.add(searchPanel);
         buttonPanel.add(massPanel);
+        buttonPanel.add(statusPanel);
 
         add(buttonPanel, BorderLayout.SOUTH);
 
-        // Cargar datos iniciales
-        refreshTable();
+        // Hibernate arranca en segundo plano desde main(): la ventana aparece enseguida y las
+        // acciones se habilitan cuando termina
+        for (JComponent control : actionControls()) {
+            control.setEnabled(false);
+        }
+        lblStatus.setText("Iniciando Hibernate...");
+        progressBar.setIndeterminate(true);
+        progressBar.setString("");
+        progressBar.setVisible(true);
+        HibernateUtil.startAsync().whenComplete((factory, error) ->
+            SwingUtilities.invokeLater(() -> onHibernateStarted(error)));
+    }
+
+    private void onHibernateStarted(Throwable error) {
+        progressBar.setIndeterminate(false);
+        progressBar.setVisible(false);
+        if (error != null) {
+            lblStatus.setText("Hibernate no pudo iniciarse");
+            JOptionPane.showMessageDialog(this, "No se pudo iniciar Hibernate: " + error.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        for (JComponent control : actionControls()) {
+            control.setEnabled(true);
+        }
+        lblStatus.setText("Listo");
+        lblStatus.setToolTipText(String.valueOf(HibernateUtil.getStartupTimings()));
+
+        // Cargar datos iniciales; el monitor del pool, la sincronización y el índice de nombres arrancan
+        // cuando Hibernate ya está inicializado. Las marcas de agua se toman antes de contar: ningún
+        // cambio posterior a la carga se pierde.
+        dbRunner.submit("iniciar sincronización", () -> {
+            resetSync();
+            return null;
+        }, ignored -> { });
+        showQuery("cargar estudiantes", StudentQuery.all(), count -> {
+            poolMonitor.start();
+            syncTimer.start();
+            rebuildNameIndex();
+        });
+    }
+
+    // Tras una recarga completa de la tabla: lo anterior no hace falta recibirlo como cambios
+    private void resetSync() {
+        try (Session session = HibernateUtil.openReadOnlySession()) {
+            sync.reset(session);
+        }
+    }
+
+    // Pide a StudentSync los cambios de otros clientes, en segundo plano y sin bloquear la interfaz
+    private void syncChanges() {
+        if (syncing) {
+            return;
+        }
+        syncing = true;
+        Thread.ofVirtual().name("student-sync").start(() -> {
+            StudentSync.Delta delta = null;
+            try (OperationMetrics.Scope scope = OperationMetrics.get().begin("sincronizar cambios");
+                 Session session = HibernateUtil.openReadOnlySession()) {
+                delta = sync.fetch(session);
+            } catch (RuntimeException ex) {
+                System.err.println("No se pudieron sincronizar los cambios: " + ex.getMessage());
+            }
+            StudentSync.Delta result = delta;
+            SwingUtilities.invokeLater(() -> {
+                syncing = false;
+                if (result != null && !result.isEmpty()) {
+                    applyDelta(result);
+                }
+            });
+        });
+    }
+
+    private void applyDelta(StudentSync.Delta delta) {
+        if (delta.reloadAll()) {
+            StudentCache.evictAll(HibernateUtil.getSessionFactory());
+            service.statistics().invalidate();
+            reloadView();
+            rebuildNameIndex();
+            return;
+        }
+        List<Long> changed = new ArrayList<>();
+        boolean recount = false;
+        for (StudentRow row : delta.changed()) {
+            if (sync.accept(row)) {
+                changed.add(row.id());
+                recount |= !applyChanged(row);
+            }
+        }
+        for (StudentDeletion deletion : delta.deleted()) {
+            long id = deletion.getStudentId();
+            if (sync.acceptDeletion(id)) {
+                changed.add(id);
+                nameIndex.remove(id);
+                StudentRow loaded = tableModel.getLoadedRow(id);
+                tableModel.rowRemoved(loaded != null ? loaded : deletion.toRow());
+            }
+        }
+        // Lo cambiado por otro proceso puede estar obsoleto en la caché de segundo nivel
+        if (!changed.isEmpty()) {
+            StudentCache.evict(HibernateUtil.getSessionFactory(), changed);
+            // Sin las edades anteriores no se pueden ajustar
+            service.statistics().invalidate();
+        }
+        if (recount) {
+            reloadView();
+        }
+    }
+
+    // Coloca en el modelo una fila ya aceptada por StudentSync. Sin sus valores anteriores solo
+    // se puede si está cargada o es nueva; si no, devuelve false y hay que recontar la vista.
+    private boolean applyChanged(StudentRow row) {
+        nameIndex.put(row.id(), row.name());
+        StudentRow loaded = tableModel.getLoadedRow(row.id());
+        if (loaded != null) {
+            tableModel.rowUpdated(loaded, row);
+        } else if (row.version() == 0) {
+            tableModel.rowInserted(row);
+        } else {
+            return false;
+        }
+        if (formRow != null && formRow.id() == row.id() && formRow.version() < row.version()) {
+            // El formulario conserva lo escrito; al actualizar se detectará el conflicto
+            lblStatus.setText("El estudiante " + row.id() + " ha sido modificado por otro usuario");
+        }
+        return true;
+    }
+
+    // Vuelve a contar la vista actual (mismo filtro y orden) sin pasar por la cola de operaciones
+    private void reloadView() {
+        StudentQuery query = tableModel.getQuery();
+        Thread.ofVirtual().name("student-sync").start(() -> {
+            try (Session session = HibernateUtil.openReadOnlySession()) {
+                long count = query.count(session);
+                SwingUtilities.invokeLater(() -> {
+                    if (tableModel.getQuery() == query) {
+                        tableModel.setQuery(query, count);
+                        updateVisibleRows();
+                    }
+                });
+            } catch (RuntimeException ex) {
+                System.err.println("No se pudo recargar la vista: " + ex.getMessage());
+            }
+        });
+    }
+
+    // Carga el índice de nombres en segundo plano; hasta entonces la búsqueda usa LIKE
+    private void rebuildNameIndex() {
+        Thread.ofVirtual().name("name-index").start(() -> {
+            try {
+                nameIndex.rebuild(HibernateUtil.getSessionFactory());
+            } catch (RuntimeException ex) {
+                System.err.println("No se pudo construir el índice de nombres: " + ex.getMessage());
+            }
+        });
+    }
+
+    private void updatePoolStatus() {
+        PoolMetrics metrics = HibernateUtil.getPoolMetrics();
+        if (metrics != null) {
+            lblPool.setText(metrics.snapshot().toString());
+        }
+        lblCache.setText(StudentCache.stats(HibernateUtil.getSessionFactory()).toString());
+        if (metricsDialog != null && metricsDialog.isVisible()) {
+            metricsPanel.refresh(HibernateUtil.getSessionFactory());
+        }
+    }
+
+    // Ventana no modal con las latencias por operación; se refresca con el monitor del pool
+    private void showMetrics() {
+        if (metricsDialog == null) {
+            metricsDialog = new JDialog(this, "Métricas por operación", false);
+            metricsDialog.add(metricsPanel);
+            metricsDialog.setSize(1100, 400);
+            metricsDialog.setLocationRelativeTo(this);
+        }
+        if (poolMonitor.isRunning()) {
+            metricsPanel.refresh(HibernateUtil.getSessionFactory());
+        }
+        metricsDialog.setVisible(true);
+    }
+
+    // Deshabilita las acciones mientras hay una operación de base de datos en curso
+    private void onBusyChanged(boolean busy, String operation, int queued) {
+        for (JComponent control : actionControls()) {
+            control.setEnabled(!busy);
+        }
+        btnCancel.setEnabled(busy);
+        if (!busy) {
+            progressBar.setVisible(false);
+        }
+        setCursor(Cursor.getPredefinedCursor(busy ? Cursor.WAIT_CURSOR : Cursor.DEFAULT_CURSOR));
+
+        if (!busy) {
+            lblStatus.setText("Listo");
+        } else if (queued > 0) {
+            lblStatus.setText("Ejecutando: " + operation + " (" + queued + " en cola)");
+        } else {
+            lblStatus.setText("Ejecutando: " + operation);
+        }
+    }
+
+    private JComponent[] actionControls() {
+        return new JComponent[]{btnCreate, btnRead, btnUpdate, btnDelete, btnRefresh,
+            btnSearchName, btnSearchAge, btnSort, btnCount, btnStatistics, btnDeleteAll, btnUpdateAll, btnFilterAge,
+            btnImport, btnExport};
     }
 
     private void createStudent() {
@@ -151,24 +414,21 @@ public class Main extends JFrame {
             return;
         }
 
+        int age;
         try {
-            int age = Integer.parseInt(ageStr);
-            Student student;
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                Transaction tx = session.beginTransaction();
-                student = new Student(name, age);
-                session.persist(student);
-                tx.commit();
-            }
-
-            JOptionPane.showMessageDialog(this, "Estudiante creado con ID: " + student.getId(), "Éxito", JOptionPane.INFORMATION_MESSAGE);
-            clearFields();
-            refreshTable();
+            age = Integer.parseInt(ageStr);
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "La edad debe ser un número válido.", "Error", JOptionPane.ERROR_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, "Error al crear estudiante: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+
+        dbRunner.submit("crear estudiante", () -> service.create(name, age), row -> {
+            if (sync.accept(row)) {
+                tableModel.rowInserted(row);
+            }
+            JOptionPane.showMessageDialog(this, "Estudiante creado con ID: " + row.id(), "Éxito", JOptionPane.INFORMATION_MESSAGE);
+            clearFields();
+        });
     }
 
     private void readStudent() {
@@ -179,25 +439,22 @@ public class Main extends JFrame {
             return;
         }
 
+        Long id;
         try {
-            Long id = Long.valueOf(idStr);
-            Student student;
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                student = session.get(Student.class, id);
-            }
+            id = Long.valueOf(idStr);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "El ID debe ser un número válido.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
+        dbRunner.submit("leer estudiante", () -> service.read(id), student -> {
             if (student != null) {
-                txtName.setText(student.getName());
-                txtAge.setText(String.valueOf(student.getAge()));
+                showInForm(student);
                 JOptionPane.showMessageDialog(this, "Estudiante encontrado.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(this, "No se encontró estudiante con ID: " + id, "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "El ID debe ser un número válido.", "Error", JOptionPane.ERROR_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, "Error al leer estudiante: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     private void updateStudent() {
@@ -210,31 +467,46 @@ public class Main extends JFrame {
             return;
         }
 
+        Long id;
+        int age;
         try {
-            Long id = Long.valueOf(idStr);
-            int age = Integer.parseInt(ageStr);
-
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                Transaction tx = session.beginTransaction();
-                
-                Student student = session.get(Student.class, id);
-                if (student != null) {
-                    student.setName(name);
-                    student.setAge(age);
-                    session.merge(student);
-                    tx.commit();
-                    JOptionPane.showMessageDialog(this, "Estudiante actualizado.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                    clearFields();
-                    refreshTable();
-                } else {
-                    JOptionPane.showMessageDialog(this, "No se encontró estudiante con ID: " + id, "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            }
+            id = Long.valueOf(idStr);
+            age = Integer.parseInt(ageStr);
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "ID y edad deben ser números válidos.", "Error", JOptionPane.ERROR_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, "Error al actualizar estudiante: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+
+        // Versión leída en el formulario; si se escribió el id a mano no hay lectura previa que proteger
+        Long expectedVersion = formRow != null && formRow.id() == id ? formRow.version() : null;
+
+        dbRunner.submit("actualizar estudiante", () -> service.update(id, name, age, expectedVersion), edit -> {
+            if (edit == null) {
+                JOptionPane.showMessageDialog(this, "No se encontró estudiante con ID: " + id, "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (edit.isConflict()) {
+                showConflict(edit.before(), name, age);
+            } else {
+                if (sync.accept(edit.after())) {
+                    tableModel.rowUpdated(edit.before(), edit.after());
+                }
+                JOptionPane.showMessageDialog(this, "Estudiante actualizado.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                clearFields();
+            }
+        });
+    }
+
+    // Otro usuario guardó antes: no se sobrescribe; se muestran sus valores para revisar y reintentar
+    private void showConflict(StudentRow current, String name, int age) {
+        if (sync.accept(current) && !applyChanged(current)) {
+            reloadView();
+        }
+        showInForm(current);
+        JOptionPane.showMessageDialog(this,
+            "Otro usuario modificó el estudiante " + current.id() + " mientras lo editaba.\n"
+                + "Sus cambios (nombre: " + name + ", edad: " + age + ") no se guardaron.\n"
+                + "Se muestran los datos actuales; revíselos y vuelva a actualizar.",
+            "Conflicto de edición",
+            JOptionPane.WARNING_MESSAGE);
     }
 
     private void deleteStudent() {
@@ -245,146 +517,137 @@ public class Main extends JFrame {
             return;
         }
 
+        Long id;
         try {
-            Long id = Long.valueOf(idStr);
-
-            int confirm = JOptionPane.showConfirmDialog(this, 
-                "¿Está seguro de eliminar el estudiante con ID " + id + "?", 
-                "Confirmar eliminación", 
-                JOptionPane.YES_NO_OPTION);
-
-            if (confirm == JOptionPane.YES_OPTION) {
-                try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                    Transaction tx = session.beginTransaction();
-                    
-                    Student student = session.get(Student.class, id);
-                    if (student != null) {
-                        session.remove(student);
-                        tx.commit();
-                        JOptionPane.showMessageDialog(this, "Estudiante eliminado.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
-                        clearFields();
-                        refreshTable();
-                    } else {
-                        JOptionPane.showMessageDialog(this, "No se encontró estudiante con ID: " + id, "Error", JOptionPane.ERROR_MESSAGE);
-                    }
-                }
-            }
+            id = Long.valueOf(idStr);
         } catch (NumberFormatException ex) {
             JOptionPane.showMessageDialog(this, "El ID debe ser un número válido.", "Error", JOptionPane.ERROR_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, "Error al eliminar estudiante: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
-    }
 
-    private void refreshTable() {
-        tableModel.setRowCount(0);
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "¿Está seguro de eliminar el estudiante con ID " + id + "?",
+            "Confirmar eliminación",
+            JOptionPane.YES_NO_OPTION);
 
-        try {
-            List<Student> students;
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                Query<Student> query = session.createQuery("FROM Student", Student.class);
-                students = query.list();
+        if (confirm != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        dbRunner.submit("eliminar estudiante", () -> service.delete(id), removed -> {
+            if (removed != null) {
+                if (sync.acceptDeletion(removed.id())) {
+                    tableModel.rowRemoved(removed);
+                }
+                JOptionPane.showMessageDialog(this, "Estudiante eliminado.", "Éxito", JOptionPane.INFORMATION_MESSAGE);
+                clearFields();
+            } else {
+                JOptionPane.showMessageDialog(this, "No se encontró estudiante con ID: " + id, "Error", JOptionPane.ERROR_MESSAGE);
             }
+        });
+    }
 
-            for (Student student : students) {
-                tableModel.addRow(new Object[]{student.getId(), student.getName(), student.getAge()});
+    private void refreshTable() {
+        showQuery("refrescar estudiantes", StudentQuery.all(), count -> {
+            // Otro proceso pudo modificar la tabla: si el índice no cuadra, se recarga
+            if (nameIndex.isReady() && nameIndex.size() != count) {
+                rebuildNameIndex();
             }
-        } catch (HibernateException ex) {
-            JOptionPane.showMessageDialog(this, "Error al cargar estudiantes: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    // Cuenta las filas de la vista y deja que el modelo lea solo las páginas visibles
+    private void showQuery(String operation, StudentQuery query, LongConsumer onLoaded) {
+        dbRunner.submit(operation, () -> service.count(query), count -> {
+            tableModel.setQuery(query, count);
+            updateVisibleRows();
+            onLoaded.accept(count);
+        });
+    }
+
+    private void updateVisibleRows() {
+        Rectangle visible = table.getVisibleRect();
+        int first = table.rowAtPoint(visible.getLocation());
+        int last = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (first == -1) {
+            first = 0;
         }
+        if (last == -1) {
+            last = first + Math.max(1, visible.height / Math.max(1, table.getRowHeight()));
+        }
+        tableModel.setVisibleRows(first, last);
+    }
+
+    private void showInForm(StudentRow row) {
+        formRow = row;
+        txtId.setText(String.valueOf(row.id()));
+        txtName.setText(row.name());
+        txtAge.setText(String.valueOf(row.age()));
     }
 
     private void clearFields() {
+        formRow = null;
         txtId.setText("");
         txtName.setText("");
         txtAge.setText("");
     }
-    
-    // 1. Búsqueda por nombre (búsqueda parcial con LIKE)
+
+    // 1. Búsqueda por nombre (parte del nombre, sin distinguir mayúsculas ni acentos, con el índice de trigramas)
     private void searchByName() {
-        String searchName = JOptionPane.showInputDialog(this, "Ingrese el nombre (o parte del nombre) a buscar:");
-        
+        String searchName = JOptionPane.showInputDialog(this,
+            "Ingrese el nombre (o parte del nombre) a buscar.\nTermine en * para buscar los nombres que empiezan así:");
+
         if (searchName == null || searchName.trim().isEmpty()) {
             return;
         }
-        
-        try {
-            List<Student> students;
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                Query<Student> query = session.createQuery(
-                        "FROM Student WHERE LOWER(name) LIKE LOWER(:name)", Student.class);
-                query.setParameter("name", "%" + searchName + "%");
-                students = query.list();
-            }
-            
-            tableModel.setRowCount(0);
-            for (Student student : students) {
-                tableModel.addRow(new Object[]{student.getId(), student.getName(), student.getAge()});
-            }
-            
-            JOptionPane.showMessageDialog(this, 
-                "Se encontraron " + students.size() + " estudiante(s).", 
-                "Resultado", 
+
+        StudentQuery query = service.nameSearch(searchName.strip());
+        showQuery("buscar por nombre", query, count -> {
+            JOptionPane.showMessageDialog(this,
+                "Se encontraron " + count + " estudiante(s).",
+                "Resultado",
                 JOptionPane.INFORMATION_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error al buscar estudiantes: " + ex.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
-    
+
     // 2. Búsqueda por rango de edad
     private void searchByAgeRange() {
         JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
         JTextField txtMinAge = new JTextField();
         JTextField txtMaxAge = new JTextField();
-        
+
         panel.add(new JLabel("Edad mínima:"));
         panel.add(txtMinAge);
         panel.add(new JLabel("Edad máxima:"));
         panel.add(txtMaxAge);
-        
-        int result = JOptionPane.showConfirmDialog(this, panel, 
+
+        int result = JOptionPane.showConfirmDialog(this, panel,
             "Buscar por Rango de Edad", JOptionPane.OK_CANCEL_OPTION);
-        
-        if (result == JOptionPane.OK_OPTION) {
-            try {
-                int minAge = Integer.parseInt(txtMinAge.getText().trim());
-                int maxAge = Integer.parseInt(txtMaxAge.getText().trim());
-                
-                List<Student> students;
-                try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                    Query<Student> query = session.createQuery(
-                            "FROM Student WHERE age BETWEEN :minAge AND :maxAge", Student.class);
-                    query.setParameter("minAge", minAge);
-                    query.setParameter("maxAge", maxAge);
-                    students = query.list();
-                }
-                
-                tableModel.setRowCount(0);
-                for (Student student : students) {
-                    tableModel.addRow(new Object[]{student.getId(), student.getName(), student.getAge()});
-                }
-                
-                JOptionPane.showMessageDialog(this, 
-                    "Se encontraron " + students.size() + " estudiante(s) entre " + minAge + " y " + maxAge + " años.", 
-                    "Resultado", 
-                    JOptionPane.INFORMATION_MESSAGE);
-            } catch (NumberFormatException ex) {
-                JOptionPane.showMessageDialog(this, 
-                    "Las edades deben ser números válidos.", 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            } catch (HeadlessException | HibernateException ex) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error al buscar estudiantes: " + ex.getMessage(), 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+
+        if (result != JOptionPane.OK_OPTION) {
+            return;
         }
+
+        int minAge, maxAge;
+        try {
+            minAge = Integer.parseInt(txtMinAge.getText().trim());
+            maxAge = Integer.parseInt(txtMaxAge.getText().trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this,
+                "Las edades deben ser números válidos.",
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        showQuery("buscar por rango de edad", StudentQuery.ageBetween(minAge, maxAge), count -> {
+            JOptionPane.showMessageDialog(this,
+                "Se encontraron " + count + " estudiante(s) entre " + minAge + " y " + maxAge + " años.",
+                "Resultado",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
     }
-    
+
     // 3. Listar ordenado
     private void sortStudents() {
         String[] options = {"Nombre (A-Z)", "Nombre (Z-A)", "Edad (Ascendente)", "Edad (Descendente)"};
@@ -395,135 +658,170 @@ public class Main extends JFrame {
             null,
             options,
             options[0]);
-        
+
         if (choice == null) {
             return;
         }
-        
-        try {
-            List<Student> students;
-            try (var session = HibernateUtil.getSessionFactory().openSession()) {
-                String hql = "FROM Student ";
-                 switch (choice) {
-                    case "Nombre (A-Z)" -> hql += "ORDER BY name ASC";
-                    case "Nombre (Z-A)" -> hql += "ORDER BY name DESC";
-                    case "Edad (Ascendente)" -> hql += "ORDER BY age ASC";
-                    case "Edad (Descendente)" -> hql += "ORDER BY age DESC";
-                }
-            Query<Student> query = session.createQuery(hql, Student.class);
-            students = query.list();
-            }
-            
-            tableModel.setRowCount(0);
-            for (Student student : students) {
-                tableModel.addRow(new Object[]{student.getId(), student.getName(), student.getAge()});
-            }
-            
-            JOptionPane.showMessageDialog(this, 
-                "Estudiantes ordenados por: " + choice, 
-                "Éxito", 
+
+        StudentQuery.Order order = switch (choice) {
+            case "Nombre (A-Z)" -> StudentQuery.Order.NAME_ASC;
+            case "Nombre (Z-A)" -> StudentQuery.Order.NAME_DESC;
+            case "Edad (Ascendente)" -> StudentQuery.Order.AGE_ASC;
+            default -> StudentQuery.Order.AGE_DESC;
+        };
+
+        showQuery("ordenar estudiantes", StudentQuery.sorted(order), count -> {
+            JOptionPane.showMessageDialog(this,
+                "Estudiantes ordenados por: " + choice,
+                "Éxito",
                 JOptionPane.INFORMATION_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error al ordenar estudiantes: " + ex.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
-    
+
     // 4. Contar total de estudiantes
     private void countStudents() {
-        try {
-            Long count;
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                Query<Long> query = session.createQuery("SELECT COUNT(s) FROM Student s", Long.class);
-                count = query.uniqueResult();
+        dbRunner.submit("contar estudiantes", () -> service.count(StudentQuery.all()), count -> JOptionPane.showMessageDialog(this,
+                "Total de estudiantes en la base de datos: " + count,
+                "Conteo Total",
+                JOptionPane.INFORMATION_MESSAGE));
+    }
+
+    // Número, mínima, máxima, media e histograma de edades; en memoria salvo la primera vez
+    private void showStatistics() {
+        dbRunner.submit("calcular estadísticas", () -> service.statistics().snapshot(), snapshot -> {
+            if (statisticsDialog == null) {
+                statisticsDialog = new JDialog(this, "Estadísticas de edad", false);
+                statisticsDialog.add(statisticsPanel);
+                statisticsDialog.setSize(500, 500);
+                statisticsDialog.setLocationRelativeTo(this);
             }
-            
-            JOptionPane.showMessageDialog(this, 
-                "Total de estudiantes en la base de datos: " + count, 
-                "Conteo Total", 
-                JOptionPane.INFORMATION_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error al contar estudiantes: " + ex.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+            statisticsPanel.refresh(snapshot);
+            statisticsDialog.setVisible(true);
+        });
     }
-    
-    // 5. Eliminar todos los estudiantes
+
+    // 5. Eliminar todos los estudiantes (por bloques, reanudable)
     private void deleteAllStudents() {
-        int confirm = JOptionPane.showConfirmDialog(this,
-            "¿Está seguro de eliminar TODOS los estudiantes?\nEsta acción no se puede deshacer.",
-            "Confirmar Eliminación Masiva",
-            JOptionPane.YES_NO_OPTION,
-            JOptionPane.WARNING_MESSAGE);
-        
-        if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                int deletedCount;
-                try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                    Transaction tx = session.beginTransaction();
-                    deletedCount = session.createMutationQuery("DELETE FROM Student").executeUpdate();
-                    tx.commit();
+        dbRunner.submit("comprobar operaciones pendientes",
+            () -> service.pendingBulk(StudentBulkOperation.Kind.DELETE_ALL), pending -> {
+            Boolean resume = askResume(pending);
+            if (resume == null) {
+                return;
+            }
+            if (!resume) {
+                int confirm = JOptionPane.showConfirmDialog(this,
+                    "¿Está seguro de eliminar TODOS los estudiantes?\nEsta acción no se puede deshacer.",
+                    "Confirmar Eliminación Masiva",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.WARNING_MESSAGE);
+                if (confirm != JOptionPane.YES_OPTION) {
+                    return;
                 }
-                
-                JOptionPane.showMessageDialog(this, 
-                    "Se eliminaron " + deletedCount + " estudiante(s).", 
-                    "Éxito", 
+            }
+            showBulkProgress();
+            dbRunner.submit("eliminar todos los estudiantes", () -> {
+                StudentBulkOperation.Result result = service.deleteAll(resume, this::onBulkProgress);
+                resetSync();
+                return result;
+            }, result -> {
+                JOptionPane.showMessageDialog(this,
+                    String.format("Se eliminaron %,d estudiante(s) en %.1f s.", result.rows(), result.seconds()),
+                    "Éxito",
                     JOptionPane.INFORMATION_MESSAGE);
                 clearFields();
                 refreshTable();
-            } catch (HeadlessException | HibernateException ex) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error al eliminar todos los estudiantes: " + ex.getMessage(), 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
-        }
+            });
+        });
     }
-    
-    // 6. Actualización masiva (incrementar edad de todos)
+
+    // 6. Actualización masiva (incrementar edad de todos, por bloques, reanudable)
     private void updateAllAges() {
-        String input = JOptionPane.showInputDialog(this, 
-            "Ingrese la cantidad de años a incrementar (puede ser negativo):");
-        
-        if (input == null || input.trim().isEmpty()) {
-            return;
+        dbRunner.submit("comprobar operaciones pendientes",
+            () -> service.pendingBulk(StudentBulkOperation.Kind.INCREMENT_AGES), pending -> {
+            Boolean resume = askResume(pending);
+            if (resume == null) {
+                return;
+            }
+            int increment;
+            if (resume) {
+                increment = pending.getIncrement();
+            } else {
+                if (pending != null) {
+                    int confirm = JOptionPane.showConfirmDialog(this,
+                        String.format("Las %,d fila(s) que ya se incrementaron en %d año(s) se incrementarán otra vez."
+                            + "%n¿Desea empezar de nuevo?", pending.getRowsDone(), pending.getIncrement()),
+                        "Confirmar Nuevo Incremento",
+                        JOptionPane.YES_NO_OPTION,
+                        JOptionPane.WARNING_MESSAGE);
+                    if (confirm != JOptionPane.YES_OPTION) {
+                        return;
+                    }
+                }
+                String input = JOptionPane.showInputDialog(this,
+                    "Ingrese la cantidad de años a incrementar (puede ser negativo):");
+
+                if (input == null || input.trim().isEmpty()) {
+                    return;
+                }
+                try {
+                    increment = Integer.parseInt(input.trim());
+                } catch (NumberFormatException ex) {
+                    JOptionPane.showMessageDialog(this,
+                        "Debe ingresar un número válido.",
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+            }
+
+            showBulkProgress();
+            dbRunner.submit("actualizar edades", () -> {
+                if (!resume && pending != null) {
+                    service.discardPendingBulk(StudentBulkOperation.Kind.INCREMENT_AGES);
+                }
+                StudentBulkOperation.Result result = service.incrementAges(increment, resume, this::onBulkProgress);
+                resetSync();
+                return result;
+            }, result -> {
+                JOptionPane.showMessageDialog(this,
+                    String.format("Se actualizaron %,d estudiante(s) en %.1f s.%nEdad incrementada en %d año(s).",
+                        result.rows(), result.seconds(), increment),
+                    "Éxito",
+                    JOptionPane.INFORMATION_MESSAGE);
+                refreshTable();
+            });
+        });
+    }
+
+    // Sí/No a reanudar la operación interrumpida; null si se cancela el diálogo
+    private Boolean askResume(StudentBulkCheckpoint pending) {
+        if (pending == null) {
+            return false;
         }
+        int answer = JOptionPane.showConfirmDialog(this,
+            String.format("Una operación anterior se interrumpió al %d%% (%,d fila(s)).%n"
+                + "¿Desea reanudarla? Si responde No, se empezará de nuevo.", pending.percent(), pending.getRowsDone()),
+            "Reanudar Operación",
+            JOptionPane.YES_NO_CANCEL_OPTION);
+        return answer == JOptionPane.YES_OPTION ? Boolean.TRUE
+            : answer == JOptionPane.NO_OPTION ? Boolean.FALSE : null;
+    }
+
+    private void showBulkProgress() {
+        progressBar.setValue(0);
+        progressBar.setString("0%");
+        progressBar.setVisible(true);
+    }
+
+    // Desde el hilo de la operación, tras cada bloque
+    private void onBulkProgress(StudentBulkOperation.Progress progress) {
+        SwingUtilities.invokeLater(() -> {
+            progressBar.setValue(progress.percent());
+            progressBar.setString(String.format("%d%% - %,d filas, %,.0f filas/s",
+                progress.percent(), progress.rowsDone(), progress.rowsPerSecond()));
+        });
+    }
 
-        int increment = Integer.parseInt(input.trim());
-
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-        Transaction tx = session.beginTransaction();
-        
-        int updatedCount = session.createMutationQuery(
-            "UPDATE Student SET age = age + :increment")
-            .setParameter("increment", increment)
-            .executeUpdate();
-        
-        tx.commit();
-        session.close();
-        
-        JOptionPane.showMessageDialog(this, 
-            "Se actualizaron " + updatedCount + " estudiante(s).\nEdad incrementada en " + increment + " año(s).", 
-            "Éxito", 
-            JOptionPane.INFORMATION_MESSAGE);
-        refreshTable();
-    } catch (NumberFormatException ex) {
-        JOptionPane.showMessageDialog(this, 
-            "Debe ingresar un número válido.", 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
-    } catch (Exception ex) {
-        JOptionPane.showMessageDialog(this, 
-            "Error al actualizar edades: " + ex.getMessage(), 
-            "Error", 
-            JOptionPane.ERROR_MESSAGE);
-    }
-    }
-    
     // 7. Búsqueda de mayores/menores que cierta edad
     private void filterByAge() {
         String[] options = {"Mayores que", "Menores que", "Igual a"};
@@ -534,65 +832,151 @@ public class Main extends JFrame {
             null,
             options,
             options[0]);
-        
+
         if (choice == null) {
             return;
         }
-        
+
         String ageInput = JOptionPane.showInputDialog(this, "Ingrese la edad:");
-        
+
         if (ageInput == null || ageInput.trim().isEmpty()) {
             return;
         }
-        
+
+        int age;
         try {
-            int age = Integer.parseInt(ageInput.trim());
-            String hql = "FROM Student WHERE ";
-            
-            switch (choice) {
-                case "Mayores que" -> hql += "age > :age";
-                case "Menores que" -> hql += "age < :age";
-                case "Igual a" -> hql += "age = :age";
-            }
-            
-            List<Student> students;
-            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-                Query<Student> query = session.createQuery(hql, Student.class);
-                query.setParameter("age", age);
-                students = query.list();
+            age = Integer.parseInt(ageInput.trim());
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this,
+                "La edad debe ser un número válido.",
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        StudentQuery query = switch (choice) {
+            case "Mayores que" -> StudentQuery.ageGreaterThan(age);
+            case "Menores que" -> StudentQuery.ageLessThan(age);
+            default -> StudentQuery.ageEquals(age);
+        };
+
+        showQuery("filtrar por edad", query, count -> {
+            JOptionPane.showMessageDialog(this,
+                "Se encontraron " + count + " estudiante(s) " + choice.toLowerCase() + " " + age + " año(s).",
+                "Resultado",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    // 8. Importación masiva desde CSV
+    private void importCsv() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Ficheros CSV", "csv", "txt"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path csv = chooser.getSelectedFile().toPath();
+
+        // El punto de control está en la base de datos
+        dbRunner.submit("comprobar importación",
+            () -> new StudentCsvImporter(HibernateUtil.getSessionFactory()).readCheckpoint(csv),
+            done -> {
+                boolean resume = done > 0 && JOptionPane.showConfirmDialog(this,
+                    "Una importación anterior de este fichero se interrumpió tras " + done + " fila(s).\n¿Desea reanudarla?",
+                    "Reanudar Importación",
+                    JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+                runImport(csv, resume);
+            });
+    }
+
+    private void runImport(Path csv, boolean resumeImport) {
+        progressBar.setValue(0);
+        progressBar.setString("0%");
+        progressBar.setVisible(true);
+
+        dbRunner.submit("importar estudiantes", () -> {
+            StudentCsvImporter importer = new StudentCsvImporter(HibernateUtil.getSessionFactory());
+            StudentCsvImporter.Result imported;
+            try {
+                imported = importer.importFile(csv, resumeImport,
+                    progress -> SwingUtilities.invokeLater(() -> {
+                        progressBar.setValue(progress.percent());
+                        progressBar.setString(String.format("%d%% - %,d filas, %,.0f filas/s",
+                            progress.percent(), progress.rowsImported(), progress.rowsPerSecond()));
+                    }));
+            } finally {
+                // Aunque se cancele, los lotes ya confirmados cuentan
+                service.statistics().invalidate();
             }
-            
-            tableModel.setRowCount(0);
-            for (Student student : students) {
-                tableModel.addRow(new Object[]{student.getId(), student.getName(), student.getAge()});
+            resetSync();
+            return imported;
+        }, result -> {
+            StringBuilder message = new StringBuilder(String.format(
+                "Se importaron %,d estudiante(s) en %.1f s (%,.0f filas/s).", result.rowsImported(),
+                result.seconds(), result.rowsPerSecond()));
+            if (result.rowsRejected() > 0) {
+                message.append(String.format("%nFilas rechazadas: %,d", result.rowsRejected()));
+                result.errors().forEach(error -> message.append('\n').append(error));
             }
-            
-            JOptionPane.showMessageDialog(this, 
-                "Se encontraron " + students.size() + " estudiante(s) " + choice.toLowerCase() + " " + age + " año(s).", 
-                "Resultado", 
+            JOptionPane.showMessageDialog(this,
+                message.toString(),
+                "Importación Completada",
                 JOptionPane.INFORMATION_MESSAGE);
-        } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, 
-                "La edad debe ser un número válido.", 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        } catch (HeadlessException | HibernateException ex) {
-            JOptionPane.showMessageDialog(this, 
-                "Error al filtrar estudiantes: " + ex.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
+            rebuildNameIndex();
+            refreshTable();
+        });
+    }
+
+    // 9. Exportación de la vista actual a CSV o JSON (NDJSON), opcionalmente comprimida
+    private void exportStudents() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Exportar estudiantes (.csv, .json, añada .gz para comprimir)");
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV", "csv"));
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON por líneas", "json", "ndjson"));
+        chooser.addChoosableFileFilter(new FileNameExtensionFilter("Comprimido gzip", "gz"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        Path target = chooser.getSelectedFile().toPath();
+        String fileName = target.getFileName().toString();
+        StudentExporter.Format format = StudentExporter.Format.fromFileName(fileName);
+        boolean gzip = fileName.toLowerCase(Locale.ROOT).endsWith(".gz");
+
+        StudentQuery query = tableModel.getQuery();
+        int total = tableModel.getRowCount();
+        progressBar.setValue(0);
+        progressBar.setString("0%");
+        progressBar.setVisible(true);
+
+        dbRunner.submit("exportar estudiantes", () ->
+            new StudentExporter(HibernateUtil.getSessionFactory()).export(query, target, format, gzip,
+                written -> SwingUtilities.invokeLater(() -> {
+                    int percent = total == 0 ? 100 : (int) Math.min(100, written * 100 / total);
+                    progressBar.setValue(percent);
+                    progressBar.setString(String.format("%d%% - %,d filas", percent, written));
+                })),
+            rows -> JOptionPane.showMessageDialog(this,
+                "Se exportaron " + rows + " estudiante(s) a " + target,
+                "Exportación Completada",
+                JOptionPane.INFORMATION_MESSAGE));
     }
 
     public static void main(String[] args) {
+        // Antes que nada: Hibernate arranca mientras se construye la ventana
+        HibernateUtil.startAsync();
         SwingUtilities.invokeLater(() -> {
             Main app = new Main();
             app.setVisible(true);
-            
+            HibernateBootstrap.logTiming("Ventana visible a los " + ManagementFactory.getRuntimeMXBean().getUptime()
+                + " ms de arrancar la JVM");
+
             // Cerrar Hibernate al cerrar la ventana
             app.addWindowListener(new java.awt.event.WindowAdapter() {
                 @Override
                 public void windowClosing(java.awt.event.WindowEvent windowEvent) {
+                    app.poolMonitor.stop();
+                    app.dbRunner.shutdown();
+                    app.tableModel.shutdown();
                     HibernateUtil.shutdown();
                 }
             });
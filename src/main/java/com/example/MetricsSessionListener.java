@@ -0,0 +1,43 @@
+package com.example;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Mide las fases de cada sesión (obtención de conexión y flush) y las
+ * atribuye a la operación en curso de {@link OperationMetrics}. Hibernate
+ * crea una instancia por sesión ({@code hibernate.session.events.auto}), y
+ * una sesión se usa desde un solo hilo, así que no necesita sincronización.
+ *
+ * <p>También delimita la sesión para el detector de N+1 de
+ * {@link QueryProfiler}.</p>
+ */
+public class MetricsSessionListener implements SessionEventListener {
+    private long connectionStart;
+    private long flushStart;
+    private final QueryProfiler.SessionTrace trace = QueryProfiler.sessionOpened();
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        connectionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        OperationMetrics.get().recordPhase(OperationMetrics.Phase.CONNECTION, System.nanoTime() - connectionStart);
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        OperationMetrics.get().recordPhase(OperationMetrics.Phase.FLUSH, System.nanoTime() - flushStart);
+    }
+
+    @Override
+    public void end() {
+        QueryProfiler.sessionClosed(trace);
+    }
+}
@@ -0,0 +1,283 @@
+package com.example;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * Índice invertido de trigramas en memoria para buscar estudiantes por
+ * cualquier parte del nombre sin recorrer la tabla ({@code LIKE '%x%'} no
+ * puede usar índices).
+ *
+ * <p>Los nombres se normalizan (minúsculas y sin acentos) y cada trigrama
+ * apunta a la lista ordenada de ids que lo contienen. Una búsqueda intersecta
+ * las listas de los trigramas del término y verifica los candidatos contra el
+ * nombre normalizado. Los términos de menos de tres letras se resuelven
+ * recorriendo los nombres en memoria.</p>
+ *
+ * <p>Es seguro para varios hilos. Quien modifica estudiantes debe llamar a
+ * {@link #put}, {@link #remove} o {@link #clear} tras el commit.</p>
+ */
+public class NameSearchIndex {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int FETCH_SIZE = 5000;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // Cambios recibidos durante una reconstrucción; null si no hay ninguna en curso
+    private List<Runnable> journal;
+    private volatile boolean ready;
+
+    /** Minúsculas y sin diacríticos: "José Ángel" → "jose angel". */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /** Indica si el índice ya se ha cargado y puede responder búsquedas. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el índice leyendo todos los nombres con un cursor. Mientras
+     * tanto el índice anterior sigue respondiendo, y los cambios que lleguen
+     * durante la carga se vuelven a aplicar sobre el índice nuevo.
+     */
+    public synchronized void rebuild(SessionFactory factory) {
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, String> loadedNames = new HashMap<>();
+        Map<Long, Postings> loadedPostings = new HashMap<>();
+        try {
+            try (StatelessSession session = factory.openStatelessSession();
+                 ScrollableResults<Object[]> rows = StudentQuery.all().scroll(session, FETCH_SIZE)) {
+                while (rows.next()) {
+                    Object[] row = rows.get();
+                    long id = (Long) row[0];
+                    String normalized = normalize((String) row[1]);
+                    loadedNames.put(id, normalized);
+                    // Las filas llegan ordenadas por id: cada lista crece solo por el final
+                    for (long trigram : trigrams(normalized)) {
+                        loadedPostings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+                    }
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                names.clear();
+                names.putAll(loadedNames);
+                postings.clear();
+                postings.putAll(loadedPostings);
+                journal.forEach(Runnable::run);
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /** Añade o actualiza el nombre de un estudiante. */
+    public void put(long id, String name) {
+        String normalized = normalize(name);
+        write(() -> putNormalized(id, normalized));
+    }
+
+    public void remove(long id) {
+        write(() -> removeId(id));
+    }
+
+    public void clear() {
+        write(() -> {
+            names.clear();
+            postings.clear();
+        });
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (journal != null) {
+                journal.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putNormalized(long id, String normalized) {
+        removeId(id);
+        names.put(id, normalized);
+        for (long trigram : trigrams(normalized)) {
+            postings.computeIfAbsent(trigram, t -> new Postings()).add(id);
+        }
+    }
+
+    private void removeId(long id) {
+        String previous = names.remove(id);
+        if (previous != null) {
+            for (long trigram : trigrams(previous)) {
+                Postings list = postings.get(trigram);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /** Ids (ordenados) de los estudiantes cuyo nombre contiene {@code term}, sin distinguir mayúsculas ni acentos. */
+    public long[] search(String term) {
+        String normalized = normalize(term).strip();
+        lock.readLock().lock();
+        try {
+            if (normalized.length() < 3) {
+                return scan(normalized);
+            }
+
+            List<Postings> lists = new ArrayList<>();
+            for (long trigram : trigrams(normalized)) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+
+            long[] candidates = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = intersect(candidates, count, lists.get(i));
+            }
+
+            // Los trigramas pueden coincidir sin que el término aparezca seguido
+            int matches = 0;
+            for (int i = 0; i < count; i++) {
+                if (names.get(candidates[i]).contains(normalized)) {
+                    candidates[matches++] = candidates[i];
+                }
+            }
+            return Arrays.copyOf(candidates, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] scan(String normalized) {
+        long[] result = new long[names.size()];
+        int count = 0;
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            if (entry.getValue().contains(normalized)) {
+                result[count++] = entry.getKey();
+            }
+        }
+        long[] matches = Arrays.copyOf(result, count);
+        Arrays.sort(matches);
+        return matches;
+    }
+
+    // Deja en candidates[0..n) los ids presentes también en list; ambas entradas están ordenadas
+    private static int intersect(long[] candidates, int count, Postings list) {
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            long id = candidates[i];
+            while (j < list.size && list.ids[j] < id) {
+                j++;
+            }
+            if (j < list.size && list.ids[j] == id) {
+                candidates[n++] = id;
+            }
+        }
+        return n;
+    }
+
+    /** Trigramas distintos de un texto ya normalizado, empaquetados en un long (3 × 16 bits). */
+    static Set<Long> trigrams(String normalized) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            long packed = ((long) normalized.charAt(i) << 32)
+                | ((long) normalized.charAt(i + 1) << 16)
+                | normalized.charAt(i + 2);
+            result.add(packed);
+        }
+        return result;
+    }
+
+    /** Lista de ids ordenada y sin repetidos sobre un array que crece según se necesita. */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int pos, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Latencias y contadores por operación lógica de la interfaz ("crear
+ * estudiante", "buscar por nombre", ...), con el desglose de las fases de
+ * Hibernate que ocurren dentro de cada una: apertura de sesión, obtención de
+ * conexión, flush y commit.
+ *
+ * <p>{@link DbTaskRunner} abre un {@link Scope} por operación; las fases se
+ * atribuyen a la operación en curso en el mismo hilo. Cada operación se
+ * publica por JMX como {@code com.example:type=Operation,name=...} y el
+ * conjunto puede volcarse periódicamente a un fichero JSON
+ * ({@code app.metrics.snapshot_file}).</p>
+ */
+public final class OperationMetrics {
+    public static final String SNAPSHOT_FILE = "app.metrics.snapshot_file";
+    public static final String SNAPSHOT_INTERVAL = "app.metrics.snapshot_interval_s";
+    static final String NO_OPERATION = "(sin operación)";
+
+    private static final OperationMetrics INSTANCE = new OperationMetrics();
+
+    /** Fases de Hibernate medidas dentro de una operación. */
+    public enum Phase {
+        SESSION_OPEN("apertura de sesión"),
+        CONNECTION("conexión"),
+        FLUSH("flush"),
+        COMMIT("commit");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /** Estado de una operación: se cierra al terminar (try-with-resources). */
+    public final class Scope implements AutoCloseable {
+        private final String previous;
+        private final Stats stats;
+        private final long start = System.nanoTime();
+        private boolean failed;
+
+        private Scope(String operation, String previous) {
+            this.previous = previous;
+            this.stats = stats(operation);
+        }
+
+        public void failed() {
+            failed = true;
+        }
+
+        @Override
+        public void close() {
+            stats.latency.record(System.nanoTime() - start);
+            if (failed) {
+                stats.errors.increment();
+            }
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    /** Lectura puntual de una operación. */
+    public record OperationSnapshot(String operation, long errors, double perSecond,
+                                    LatencyHistogram.Snapshot latency,
+                                    Map<Phase, LatencyHistogram.Snapshot> phases) {
+    }
+
+    /** Vista JMX de una operación. Los tiempos están en milisegundos. */
+    public interface OperationMXBean {
+        long getCount();
+        long getErrors();
+        double getPerSecond();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP95Millis();
+        double getP99Millis();
+        double getMaxMillis();
+        double getSessionOpenP95Millis();
+        double getConnectionP95Millis();
+        double getFlushP95Millis();
+        double getCommitP95Millis();
+    }
+
+    private final class Stats implements OperationMXBean {
+        private final String operation;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+        private final long createdNanos = System.nanoTime();
+
+        private Stats(String operation) {
+            this.operation = operation;
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new LatencyHistogram());
+            }
+        }
+
+        private OperationSnapshot snapshot() {
+            Map<Phase, LatencyHistogram.Snapshot> phaseSnapshots = new EnumMap<>(Phase.class);
+            phases.forEach((phase, histogram) -> phaseSnapshots.put(phase, histogram.snapshot()));
+            double seconds = Math.max(1e-3, (System.nanoTime() - createdNanos) / 1e9);
+            return new OperationSnapshot(operation, errors.sum(), latency.count() / seconds,
+                latency.snapshot(), phaseSnapshots);
+        }
+
+        @Override
+        public long getCount() {
+            return latency.count();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getPerSecond() {
+            return snapshot().perSecond();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return latency.snapshot().meanMillis();
+        }
+
+        @Override
+        public double getP50Millis() {
+            return latency.snapshot().p50Millis();
+        }
+
+        @Override
+        public double getP95Millis() {
+            return latency.snapshot().p95Millis();
+        }
+
+        @Override
+        public double getP99Millis() {
+            return latency.snapshot().p99Millis();
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return latency.snapshot().maxMillis();
+        }
+
+        @Override
+        public double getSessionOpenP95Millis() {
+            return phases.get(Phase.SESSION_OPEN).snapshot().p95Millis();
+        }
+
+        @Override
+        public double getConnectionP95Millis() {
+            return phases.get(Phase.CONNECTION).snapshot().p95Millis();
+        }
+
+        @Override
+        public double getFlushP95Millis() {
+            return phases.get(Phase.FLUSH).snapshot().p95Millis();
+        }
+
+        @Override
+        public double getCommitP95Millis() {
+            return phases.get(Phase.COMMIT).snapshot().p95Millis();
+        }
+    }
+
+    private final Map<String, Stats> operations = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+    private ScheduledExecutorService snapshots;
+    private Path snapshotFile;
+    private SessionFactory snapshotFactory;
+
+    private OperationMetrics() {
+    }
+
+    public static OperationMetrics get() {
+        return INSTANCE;
+    }
+
+    /** Empieza a medir {@code operation} en el hilo actual. */
+    public Scope begin(String operation) {
+        String previous = current.get();
+        current.set(operation);
+        return new Scope(operation, previous);
+    }
+
+    /** Operación en curso en el hilo actual, o {@code null}. */
+    public String currentOperation() {
+        return current.get();
+    }
+
+    /** Atribuye una fase a la operación en curso en el hilo actual. */
+    public void recordPhase(Phase phase, long nanos) {
+        String operation = current.get();
+        stats(operation == null ? NO_OPERATION : operation).phases.get(phase).record(nanos);
+    }
+
+    /** {@code tx.commit()} midiendo su duración (incluye el flush final). */
+    public static void commit(Transaction tx) {
+        long start = System.nanoTime();
+        try {
+            tx.commit();
+        } finally {
+            INSTANCE.recordPhase(Phase.COMMIT, System.nanoTime() - start);
+        }
+    }
+
+    public List<OperationSnapshot> snapshot() {
+        List<OperationSnapshot> result = new ArrayList<>();
+        operations.values().forEach(stats -> result.add(stats.snapshot()));
+        result.sort((a, b) -> a.operation().compareTo(b.operation()));
+        return result;
+    }
+
+    private Stats stats(String operation) {
+        return operations.computeIfAbsent(operation, name -> {
+            Stats stats = new Stats(name);
+            register(stats);
+            return stats;
+        });
+    }
+
+    private static void register(Stats stats) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.example:type=Operation,name=" + ObjectName.quote(stats.operation));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(stats, name);
+        } catch (JMException ex) {
+            // Sin JMX las métricas siguen disponibles en la interfaz y en el fichero
+        }
+    }
+
+    /**
+     * Vuelca {@link #snapshotJson} en {@code file} cada {@code intervalSeconds}
+     * segundos, reemplazándolo de forma atómica.
+     */
+    public synchronized void startSnapshots(Path file, long intervalSeconds, SessionFactory factory) {
+        stopSnapshots();
+        snapshotFile = file;
+        snapshotFactory = factory;
+        snapshots = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("metrics-snapshot").daemon().factory());
+        snapshots.scheduleAtFixedRate(() -> {
+            try {
+                writeSnapshot(file, factory);
+            } catch (IOException ex) {
+                System.err.println("No se pudo escribir " + file + ": " + ex.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Detiene el volcado periódico escribiendo antes una última instantánea. */
+    public synchronized void stopSnapshots() {
+        if (snapshots != null) {
+            snapshots.shutdownNow();
+            snapshots = null;
+            try {
+                writeSnapshot(snapshotFile, snapshotFactory);
+            } catch (IOException ex) {
+                System.err.println("No se pudo escribir " + snapshotFile + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    public void writeSnapshot(Path file, SessionFactory factory) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        Files.writeString(tmp, snapshotJson(factory), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Todas las operaciones y las estadísticas globales de Hibernate en JSON. */
+    public String snapshotJson(SessionFactory factory) {
+        try {
+            StringWriter out = new StringWriter();
+            out.write("{\"timestamp\":\"" + Instant.now() + "\",\"operations\":[");
+            List<OperationSnapshot> snapshot = snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                OperationSnapshot op = snapshot.get(i);
+                out.write(i == 0 ? "\n" : ",\n");
+                out.write("{\"operation\":");
+                StudentExporter.writeJsonString(out, op.operation());
+                out.write(String.format(Locale.ROOT, ",\"errors\":%d,\"perSecond\":%.3f,\"latency\":",
+                    op.errors(), op.perSecond()));
+                writeHistogram(out, op.latency());
+                out.write(",\"phases\":{");
+                boolean first = true;
+                for (Map.Entry<Phase, LatencyHistogram.Snapshot> phase : op.phases().entrySet()) {
+                    if (phase.getValue().count() == 0) {
+                        continue;
+                    }
+                    out.write(first ? "" : ",");
+                    first = false;
+                    out.write("\"" + phase.getKey().name().toLowerCase(Locale.ROOT) + "\":");
+                    writeHistogram(out, phase.getValue());
+                }
+                out.write("}}");
+            }
+            out.write("\n]");
+            HibernateBootstrap.Timings startup = HibernateUtil.getStartupTimings();
+            if (startup != null) {
+                out.write(",\"startupMs\":" + startup.toJson());
+            }
+            StudentReads.Stats reads = StudentReads.stats();
+            out.write(String.format(Locale.ROOT, ",\"sharedReads\":{\"requests\":%d,\"executions\":%d,\"shared\":%d}",
+                reads.requests(), reads.executions(), reads.shared()));
+            if (factory != null) {
+                Statistics stats = factory.getStatistics();
+                out.write(String.format(Locale.ROOT,
+                    ",\"hibernate\":{\"sessionsOpened\":%d,\"transactions\":%d,\"flushes\":%d,\"connectionsObtained\":%d,"
+                        + "\"prepareStatements\":%d,\"queries\":%d,\"queryMaxMillis\":%d,\"entityLoads\":%d,"
+                        + "\"entityInserts\":%d,\"entityUpdates\":%d,\"entityDeletes\":%d,"
+                        + "\"queryPlanCacheHits\":%d,\"queryPlanCacheMisses\":%d}",
+                    stats.getSessionOpenCount(), stats.getTransactionCount(), stats.getFlushCount(),
+                    stats.getConnectCount(), stats.getPrepareStatementCount(), stats.getQueryExecutionCount(),
+                    stats.getQueryExecutionMaxTime(), stats.getEntityLoadCount(), stats.getEntityInsertCount(),
+                    stats.getEntityUpdateCount(), stats.getEntityDeleteCount(), stats.getQueryPlanCacheHitCount(),
+                    stats.getQueryPlanCacheMissCount()));
+            }
+            out.write("}\n");
+            return out.toString();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    static void writeHistogram(Writer out, LatencyHistogram.Snapshot h) throws IOException {
+        out.write(String.format(Locale.ROOT,
+            "{\"count\":%d,\"meanMs\":%.3f,\"p50Ms\":%.3f,\"p95Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+            h.count(), h.meanMillis(), h.p50Millis(), h.p95Millis(), h.p99Millis(), h.p999Millis(), h.maxMillis()));
+    }
+
+    /** Vacía todas las métricas (pruebas y mediciones desde cero). */
+    public void reset() {
+        operations.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example;
+
+import java.awt.BorderLayout;
+import java.util.List;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Tabla en vivo de {@link OperationMetrics}: una fila por operación con sus
+ * percentiles de latencia y el p95 de cada fase, más un resumen de las
+ * estadísticas globales de Hibernate. Se actualiza con {@link #refresh}
+ * desde el EDT.
+ */
+public class OperationMetricsPanel extends JPanel {
+    private static final String[] COLUMNS = {"Operación", "Nº", "Errores", "op/s", "p50 ms", "p95 ms", "p99 ms",
+        "máx ms", "sesión p95", "conexión p95", "flush p95", "commit p95"};
+
+    private final MetricsTableModel model = new MetricsTableModel();
+    private final JLabel lblHibernate = new JLabel(" ");
+    private final JLabel lblStartup = new JLabel(" ");
+
+    public OperationMetricsPanel() {
+        super(new BorderLayout());
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        add(lblStartup, BorderLayout.NORTH);
+        add(lblHibernate, BorderLayout.SOUTH);
+    }
+
+    public void refresh(SessionFactory factory) {
+        model.rows = OperationMetrics.get().snapshot();
+        model.fireTableDataChanged();
+        HibernateBootstrap.Timings startup = HibernateUtil.getStartupTimings();
+        if (startup != null) {
+            lblStartup.setText("Arranque: " + startup);
+        }
+        Statistics stats = factory.getStatistics();
+        lblHibernate.setText(String.format(
+            "Hibernate: %d sesiones, %d transacciones, %d flushes, %d consultas (máx %d ms), %d sentencias preparadas, "
+                + "planes de consulta %.0f%% aciertos. %s",
+            stats.getSessionOpenCount(), stats.getTransactionCount(), stats.getFlushCount(),
+            stats.getQueryExecutionCount(), stats.getQueryExecutionMaxTime(), stats.getPrepareStatementCount(),
+            planCacheHitRatio(stats) * 100, StudentReads.stats()));
+    }
+
+    private static double planCacheHitRatio(Statistics stats) {
+        long hits = stats.getQueryPlanCacheHitCount();
+        long total = hits + stats.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    private static final class MetricsTableModel extends AbstractTableModel {
+        private List<OperationMetrics.OperationSnapshot> rows = List.of();
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 0 -> String.class;
+                case 1, 2 -> Long.class;
+                default -> Double.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            OperationMetrics.OperationSnapshot op = rows.get(row);
+            return switch (column) {
+                case 0 -> op.operation();
+                case 1 -> op.latency().count();
+                case 2 -> op.errors();
+                case 3 -> round(op.perSecond());
+                case 4 -> round(op.latency().p50Millis());
+                case 5 -> round(op.latency().p95Millis());
+                case 6 -> round(op.latency().p99Millis());
+                case 7 -> round(op.latency().maxMillis());
+                case 8 -> round(op.phases().get(OperationMetrics.Phase.SESSION_OPEN).p95Millis());
+                case 9 -> round(op.phases().get(OperationMetrics.Phase.CONNECTION).p95Millis());
+                case 10 -> round(op.phases().get(OperationMetrics.Phase.FLUSH).p95Millis());
+                default -> round(op.phases().get(OperationMetrics.Phase.COMMIT).p95Millis());
+            };
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100) / 100.0;
+        }
+    }
+}
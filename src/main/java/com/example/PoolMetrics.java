@@ -0,0 +1,68 @@
+package com.example;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Indicadores en vivo del pool de conexiones: conexiones activas, inactivas y
+ * peticiones en espera (leídas del MXBean de HikariCP) y tiempo de espera para
+ * obtener una conexión (registrado por este mismo objeto como tracker).
+ */
+public class PoolMetrics implements MetricsTrackerFactory, IMetricsTracker {
+
+    /** Lectura puntual de los indicadores. Los tiempos están en milisegundos. */
+    public record Snapshot(int active, int idle, int total, int pending,
+                           long acquisitions, double avgAcquireMillis, double maxAcquireMillis,
+                           long timeouts) {
+        @Override
+        public String toString() {
+            return String.format("Pool: %d activas, %d inactivas, %d en espera | espera media %.2f ms, máx %.2f ms",
+                active, idle, pending, avgAcquireMillis, maxAcquireMillis);
+        }
+    }
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private volatile HikariPoolMXBean pool;
+
+    void bind(HikariPoolMXBean pool) {
+        this.pool = pool;
+    }
+
+    public Snapshot snapshot() {
+        HikariPoolMXBean p = pool;
+        long count = acquisitions.sum();
+        double avg = count == 0 ? 0 : acquireNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+        double max = maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        if (p == null) {
+            return new Snapshot(0, 0, 0, 0, count, avg, max, timeouts.sum());
+        }
+        return new Snapshot(p.getActiveConnections(), p.getIdleConnections(), p.getTotalConnections(),
+            p.getThreadsAwaitingConnection(), count, avg, max, timeouts.sum());
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return this;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquisitions.increment();
+        acquireNanos.add(elapsedAcquiredNanos);
+        maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+}
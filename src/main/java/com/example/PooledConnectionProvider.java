@@ -0,0 +1,172 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.HibernateException;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * {@link ConnectionProvider} respaldado por un pool HikariCP. Sustituye al
+ * proveedor por defecto de Hibernate (DriverManager), que no reutiliza
+ * conexiones.
+ *
+ * <p>Además de las propiedades {@code hibernate.connection.*}, admite:</p>
+ * <ul>
+ *   <li>{@code app.pool.min_idle} / {@code app.pool.max_size}: tamaño del pool</li>
+ *   <li>{@code app.pool.connection_timeout_ms}: espera máxima para obtener una conexión</li>
+ *   <li>{@code app.pool.validation_timeout_ms}: tiempo máximo de la validación
+ *       ({@link Connection#isValid}) antes de entregar una conexión</li>
+ *   <li>{@code app.pool.keepalive_ms} / {@code app.pool.max_lifetime_ms}: renovación de conexiones</li>
+ *   <li>{@code app.pool.leak_detection_ms}: avisa si una conexión no se devuelve a tiempo (0 = desactivado)</li>
+ *   <li>{@code app.pool.statement_cache_size} / {@code app.pool.statement_cache_sql_limit}:
+ *       caché de sentencias preparadas en servidor (solo MySQL)</li>
+ *   <li>{@code app.query_log.*}: registro de consultas lentas y N+1 (ver {@link QueryProfiler})</li>
+ * </ul>
+ */
+public class PooledConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    public static final String MIN_IDLE = "app.pool.min_idle";
+    public static final String MAX_SIZE = "app.pool.max_size";
+    public static final String CONNECTION_TIMEOUT = "app.pool.connection_timeout_ms";
+    public static final String VALIDATION_TIMEOUT = "app.pool.validation_timeout_ms";
+    public static final String KEEPALIVE = "app.pool.keepalive_ms";
+    public static final String MAX_LIFETIME = "app.pool.max_lifetime_ms";
+    public static final String LEAK_DETECTION = "app.pool.leak_detection_ms";
+    public static final String STATEMENT_CACHE_SIZE = "app.pool.statement_cache_size";
+    public static final String STATEMENT_CACHE_SQL_LIMIT = "app.pool.statement_cache_sql_limit";
+
+    private final PoolMetrics metrics = new PoolMetrics();
+    private HikariDataSource dataSource;
+    private QueryProfiler queryProfiler;
+
+    @Override
+    public void configure(Map<String, Object> settings) {
+        String url = jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_URL);
+        if (url == null) {
+            throw new HibernateException("No se ha configurado la URL de conexión (" + AvailableSettings.JAKARTA_JDBC_URL
+                + " o hibernate.connection.url)");
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("students-pool");
+        config.setJdbcUrl(url);
+        config.setUsername(jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_USER));
+        config.setPassword(jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_PASSWORD));
+        String driver = jdbcSetting(settings, AvailableSettings.JAKARTA_JDBC_DRIVER);
+        if (driver != null) {
+            config.setDriverClassName(driver);
+        }
+
+        config.setMinimumIdle(intSetting(settings, MIN_IDLE, 2));
+        config.setMaximumPoolSize(intSetting(settings, MAX_SIZE, 10));
+        config.setConnectionTimeout(longSetting(settings, CONNECTION_TIMEOUT, 30_000));
+        config.setValidationTimeout(longSetting(settings, VALIDATION_TIMEOUT, 5_000));
+        config.setKeepaliveTime(longSetting(settings, KEEPALIVE, 120_000));
+        config.setMaxLifetime(longSetting(settings, MAX_LIFETIME, 1_800_000));
+        config.setLeakDetectionThreshold(longSetting(settings, LEAK_DETECTION, 0));
+
+        if (url.startsWith("jdbc:mysql:")) {
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", intSetting(settings, STATEMENT_CACHE_SIZE, 250));
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", intSetting(settings, STATEMENT_CACHE_SQL_LIMIT, 2048));
+        }
+
+        // Visibles también desde JConsole/VisualVM bajo com.zaxxer.hikari
+        config.setRegisterMbeans(true);
+        config.setMetricsTrackerFactory(metrics);
+
+        dataSource = new HikariDataSource(config);
+        metrics.bind(dataSource.getHikariPoolMXBean());
+        queryProfiler = QueryProfiler.fromSettings(settings);
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    public QueryProfiler getQueryProfiler() {
+        return queryProfiler;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        return queryProfiler == null ? connection : queryProfiler.wrap(connection);
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this) || unwrapType.isInstance(dataSource);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        if (DataSource.class.isAssignableFrom(unwrapType) && unwrapType.isInstance(dataSource)) {
+            return (T) dataSource;
+        }
+        throw new UnknownUnwrapTypeException(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+        if (queryProfiler != null) {
+            queryProfiler.stop();
+        }
+    }
+
+    // hibernate.cfg.xml y DatabaseProfile usan los nombres hibernate.connection.*, obsoletos en Hibernate 6
+    // pero aún admitidos; Hibernate no los traduce a jakarta.persistence.jdbc.* para un ConnectionProvider propio
+    @SuppressWarnings("deprecation")
+    private static String jdbcSetting(Map<String, Object> settings, String name) {
+        String legacyName = switch (name) {
+            case AvailableSettings.JAKARTA_JDBC_URL -> AvailableSettings.URL;
+            case AvailableSettings.JAKARTA_JDBC_USER -> AvailableSettings.USER;
+            case AvailableSettings.JAKARTA_JDBC_PASSWORD -> AvailableSettings.PASS;
+            case AvailableSettings.JAKARTA_JDBC_DRIVER -> AvailableSettings.DRIVER;
+            default -> throw new IllegalArgumentException(name);
+        };
+        Object value = settings.get(name);
+        if (value == null) {
+            value = settings.get(legacyName);
+        }
+        return value == null ? null : value.toString();
+    }
+
+    private static int intSetting(Map<String, Object> settings, String name, int defaultValue) {
+        Object value = settings.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString().trim());
+    }
+
+    private static long longSetting(Map<String, Object> settings, String name, long defaultValue) {
+        Object value = settings.get(name);
+        return value == null ? defaultValue : Long.parseLong(value.toString().trim());
+    }
+}
@@ -0,0 +1,309 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registro de consultas lentas y detector de N+1 a nivel JDBC, en lugar de
+ * imprimir cada sentencia con {@code show_sql}.
+ *
+ * <p>{@link PooledConnectionProvider} envuelve cada conexión con
+ * {@link #wrap}: se cronometra cada ejecución y solo se registran las que
+ * superan {@value #SLOW_MS} milisegundos, con sus parámetros y la operación
+ * de la interfaz en curso ({@link OperationMetrics}). Además, si una misma
+ * consulta SELECT se ejecuta {@value #N_PLUS_ONE} veces o más dentro de una
+ * sesión, se avisa una vez como posible N+1.</p>
+ *
+ * <p>La escritura es asíncrona: las entradas se encolan sin bloquear (si la
+ * cola está llena se descartan y se cuentan) y un hilo las vuelca al fichero
+ * {@value #FILE}, o a la salida de error si no se indica. Un umbral
+ * negativo desactiva el registro (y el envoltorio de las conexiones).</p>
+ */
+public class QueryProfiler {
+    public static final String SLOW_MS = "app.query_log.slow_ms";
+    public static final String N_PLUS_ONE = "app.query_log.n_plus_one_threshold";
+    public static final String FILE = "app.query_log.file";
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final long POLL_MILLIS = 100;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    // Sesiones abiertas en cada hilo (una sesión se usa desde un solo hilo)
+    private static final ThreadLocal<Deque<SessionTrace>> SESSIONS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /** Consultas ejecutadas dentro de una sesión, para detectar repeticiones. */
+    public static final class SessionTrace {
+        private final Map<String, Integer> selects = new HashMap<>();
+
+        private SessionTrace() {
+        }
+    }
+
+    private final long slowNanos;
+    private final int nPlusOneThreshold;
+    private final Path file;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder slowQueries = new LongAdder();
+    private final LongAdder nPlusOne = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean stopped;
+
+    public QueryProfiler(long slowMillis, int nPlusOneThreshold, Path file) {
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.file = file;
+        this.writer = Thread.ofPlatform().name("query-log").daemon().start(this::drain);
+    }
+
+    /**
+     * Crea el registro a partir de las propiedades {@code app.query_log.*}, o
+     * devuelve {@code null} si está desactivado.
+     */
+    public static QueryProfiler fromSettings(Map<String, Object> settings) {
+        Object slow = settings.get(SLOW_MS);
+        Object threshold = settings.get(N_PLUS_ONE);
+        Object file = settings.get(FILE);
+        long slowMillis = slow == null ? 200 : Long.parseLong(slow.toString().trim());
+        if (slowMillis < 0) {
+            return null;
+        }
+        return new QueryProfiler(slowMillis,
+            threshold == null ? 10 : Integer.parseInt(threshold.toString().trim()),
+            file == null || file.toString().isBlank() ? null : Path.of(file.toString().trim()));
+    }
+
+    /** Llamado al abrir una sesión en el hilo actual. */
+    public static SessionTrace sessionOpened() {
+        SessionTrace trace = new SessionTrace();
+        SESSIONS.get().push(trace);
+        return trace;
+    }
+
+    public static void sessionClosed(SessionTrace trace) {
+        SESSIONS.get().remove(trace);
+    }
+
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+
+    public long getNPlusOneWarnings() {
+        return nPlusOne.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** Conexión que cronometra todas las sentencias que se preparen con ella. */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryProfiler.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /** Detiene el hilo de escritura tras volcar lo pendiente. */
+    public void stop() {
+        // Sin interrupt: el canal del fichero se cerraría a mitad de escritura
+        stopped = true;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void executed(String sql, Map<Integer, Object> parameters, long nanos, int batchSize) {
+        String operation = OperationMetrics.get().currentOperation();
+        if (nanos >= slowNanos) {
+            slowQueries.increment();
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "LENTA %.1f ms [%s] %s",
+                nanos / 1e6, operation == null ? OperationMetrics.NO_OPERATION : operation, oneLine(sql)));
+            if (batchSize > 0) {
+                line.append(" | lote de ").append(batchSize);
+            } else if (!parameters.isEmpty()) {
+                line.append(" | parámetros: ").append(format(parameters));
+            }
+            enqueue(line.toString());
+        }
+
+        Deque<SessionTrace> sessions = SESSIONS.get();
+        if (batchSize == 0 && !sessions.isEmpty() && sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            int count = sessions.peek().selects.merge(sql, 1, Integer::sum);
+            if (count == nPlusOneThreshold) {
+                nPlusOne.increment();
+                enqueue(String.format("N+1 %dx en una sesión [%s] %s",
+                    count, operation == null ? OperationMetrics.NO_OPERATION : operation, oneLine(sql)));
+            }
+        }
+    }
+
+    private void enqueue(String line) {
+        if (!queue.offer(LocalDateTime.now().format(TIMESTAMP) + " " + line)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        try (Writer out = openWriter()) {
+            List<String> batch = new ArrayList<>();
+            while (!stopped || !queue.isEmpty()) {
+                String first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (String line : batch) {
+                    out.write(line);
+                    out.write(System.lineSeparator());
+                }
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException ex) {
+            System.err.println("Registro de consultas desactivado: " + ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Writer openWriter() throws IOException {
+        if (file == null) {
+            // Sin cerrar System.err al terminar
+            return new BufferedWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8)) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        return Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+    }
+
+    private static String oneLine(String sql) {
+        return sql.replaceAll("\\s+", " ").strip();
+    }
+
+    private static String format(Map<Integer, Object> parameters) {
+        StringBuilder out = new StringBuilder("[");
+        parameters.forEach((index, value) -> {
+            if (out.length() > 1) {
+                out.append(", ");
+            }
+            out.append(index).append('=');
+            if (value instanceof String text) {
+                String shown = text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "…" : text;
+                out.append('\'').append(shown).append('\'');
+            } else {
+                out.append(value);
+            }
+        });
+        return out.append(']').toString();
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryProfiler.invoke(connection, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement || result instanceof PreparedStatement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class : PreparedStatement.class;
+                return Proxy.newProxyInstance(QueryProfiler.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, (String) args[0]));
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return Proxy.newProxyInstance(QueryProfiler.class.getClassLoader(), new Class<?>[]{Statement.class},
+                    new StatementHandler(statement, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private int batched;
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batched++;
+            } else if (name.equals("clearBatch")) {
+                batched = 0;
+            }
+            if (!name.startsWith("execute")) {
+                return QueryProfiler.invoke(statement, method, args);
+            }
+
+            String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+            long start = System.nanoTime();
+            try {
+                return QueryProfiler.invoke(statement, method, args);
+            } finally {
+                executed(executed, parameters, System.nanoTime() - start, batch ? Math.max(1, batched) : 0);
+                if (batch) {
+                    batched = 0;
+                }
+            }
+        }
+    }
+}
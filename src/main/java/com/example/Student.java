@@ -1,26 +1,105 @@
 package com.example;
 
+import java.time.Instant;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CurrentTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SourceType;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+// Índices con el id como desempate: sirven tanto a los filtros como al
+// ORDER BY columna, id de la paginación por clave sin ordenar en memoria.
+// @DynamicUpdate: el UPDATE de una edición solo lleva las columnas que cambian.
+// Las consultas fijas se compilan y validan al crear la SessionFactory; las de
+// las vistas de la tabla las registra StudentQuery.
 @Entity
+@DynamicUpdate
+@NamedQuery(name = Student.LATEST_UPDATE, query = "SELECT MAX(s.updatedAt) FROM Student s")
+@NamedQuery(name = Student.CHANGED_SINCE, query = "SELECT s.id, s.name, s.age, s.version, s.updatedAt FROM Student s "
+    + "WHERE s.updatedAt > :since ORDER BY s.updatedAt, s.id")
+@NamedQuery(name = Student.ID_RANGE, query = "SELECT MIN(s.id), MAX(s.id) FROM Student s")
+@NamedQuery(name = Student.IDS_BETWEEN, query = "SELECT s.id FROM Student s "
+    + "WHERE s.id > :lastId AND s.id <= :maxId ORDER BY s.id")
+@NamedQuery(name = Student.AGE_HISTOGRAM, query = "SELECT s.age, COUNT(s) FROM Student s GROUP BY s.age ORDER BY s.age")
+@NamedQuery(name = Student.AGES_BETWEEN, query = "SELECT s.age, COUNT(s) FROM Student s "
+    + "WHERE s.id > :from AND s.id <= :to GROUP BY s.age")
+@NamedQuery(name = Student.AGES_UPDATED_BETWEEN, query = "SELECT s.age, COUNT(s) FROM Student s "
+    + "WHERE s.id > :from AND s.id <= :to AND s.updatedAt = :now GROUP BY s.age")
+@NamedQuery(name = Student.DELETE_BETWEEN, query = "DELETE FROM Student s WHERE s.id > :from AND s.id <= :to")
+// UPDATE VERSIONED: invalida las ediciones abiertas sobre estas filas
+@NamedQuery(name = Student.INCREMENT_AGES_BETWEEN, query = "UPDATE VERSIONED Student s "
+    + "SET s.age = s.age + :increment, s.updatedAt = :now WHERE s.id > :from AND s.id <= :to")
+@Table(indexes = {
+    @Index(name = "idx_student_age", columnList = "age, id"),
+    @Index(name = "idx_student_name", columnList = "name, id"),
+    @Index(name = "idx_student_name_normalized", columnList = "name_normalized, id"),
+    @Index(name = "idx_student_updated_at", columnList = "updated_at, id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = StudentCache.ENTITY_REGION)
 public class Student {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    static final String LATEST_UPDATE = "Student.latestUpdate";
+    static final String CHANGED_SINCE = "Student.changedSince";
+    static final String ID_RANGE = "Student.idRange";
+    static final String IDS_BETWEEN = "Student.idsBetween";
+    static final String AGE_HISTOGRAM = "Student.ageHistogram";
+    static final String AGES_BETWEEN = "Student.agesBetween";
+    static final String AGES_UPDATED_BETWEEN = "Student.agesUpdatedBetween";
+    static final String DELETE_BETWEEN = "Student.deleteBetween";
+    static final String INCREMENT_AGES_BETWEEN = "Student.incrementAgesBetween";
+
+    // Secuencia con optimizador pooled-lo: reserva bloques de ids en memoria y
+    // permite agrupar los INSERT en lotes JDBC (IDENTITY obliga a insertar uno a uno).
+    // En MySQL, sin secuencias nativas, Hibernate la emula con la tabla student_seq.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = Student.ID_ALLOCATION_SIZE)
     private Long id;
 
     private String name;
     private int age;
 
+    // Nombre en minúsculas y sin acentos, derivado de name: permite buscar por
+    // prefijo y ordenar sin distinguir mayúsculas usando un índice
+    @Column(name = "name_normalized")
+    private String nameNormalized;
+
+    // Control de concurrencia optimista: cada UPDATE comprueba e incrementa la versión.
+    // El valor por defecto permite añadir la columna a una tabla con filas.
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
+    // Última modificación, para la sincronización incremental (StudentSync). Con
+    // la hora de la JVM los INSERT siguen yendo en lotes; el desfase entre
+    // relojes de distintos clientes lo cubre el solape de StudentSync.
+    @CurrentTimestamp(source = SourceType.VM)
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     // Admite sobrecarga del constructor
 
     public Student() {
     }
     
     public Student(String name, int age) {
-        this.name = name;
+        setName(name);
         this.age = age;
     }
 
@@ -39,6 +118,19 @@ public class Student {
 
     public void setName(String name) {
         this.name = name;
+        this.nameNormalized = name == null ? null : NameSearchIndex.normalize(name);
+    }
+
+    public String getNameNormalized() {
+        return nameNormalized;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
     }
 
     public int getAge() {
@@ -0,0 +1,246 @@
+package com.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.type.descriptor.ValueBinder;
+
+/**
+ * Aplica cambios de campos a muchos estudiantes sin cargarlos: ni
+ * {@code get()} previo ni {@code merge()}, solo un {@code UPDATE} por fila
+ * con las columnas que cambian, enviado en lotes JDBC.
+ *
+ * <p>Los cambios se leen por bloques de {@code chunkSize}, con un commit por
+ * bloque. Dentro de un bloque los cambios al mismo id se combinan (gana el
+ * último) y se agrupan por columnas modificadas, de modo que cada grupo es
+ * una única sentencia preparada. Cada fila incrementa su {@code version} (una
+ * edición abierta sobre ella dará conflicto) y actualiza
+ * {@code updated_at} (la verá {@link StudentSync}). Se detiene entre bloques
+ * si el hilo se interrumpe.</p>
+ *
+ * <p>Con {@link #admission} cada bloque, ya leído, espera turno antes de
+ * usar la base de datos y lo libera al confirmar: leer los cambios (por
+ * ejemplo de una conexión de red lenta) no ocupa una conexión.</p>
+ */
+public class StudentBatchUpdater {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+
+    /** Cambios de un estudiante; los campos nulos no se modifican. */
+    public record Patch(long id, String name, Integer age) {
+        public static Patch name(long id, String name) {
+            return new Patch(id, name, null);
+        }
+
+        public static Patch age(long id, int age) {
+            return new Patch(id, null, age);
+        }
+
+        public boolean isEmpty() {
+            return name == null && age == null;
+        }
+
+        // Combina con un cambio posterior al mismo id
+        private Patch then(Patch later) {
+            return new Patch(id, later.name != null ? later.name : name, later.age != null ? later.age : age);
+        }
+    }
+
+    /** Bloque confirmado: cambios leídos y filas realmente actualizadas (los ids inexistentes no cuentan). */
+    public record ChunkResult(int chunk, int patches, int rowsAffected) {
+    }
+
+    public interface ChunkListener {
+        void chunkCommitted(ChunkResult result);
+    }
+
+    /** Turno para escribir un bloque; {@code acquire} puede esperar o lanzar, y devuelve cómo liberarlo. */
+    public interface Admission {
+        Admission NONE = () -> () -> { };
+
+        Runnable acquire();
+    }
+
+    public record Result(long patches, long rowsAffected, List<ChunkResult> chunks, double seconds) {
+        public double rowsPerSecond() {
+            return seconds == 0 ? 0 : rowsAffected / seconds;
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final ValueBinder<Instant> updatedAtBinder;
+    private NameSearchIndex nameIndex;
+    private Admission admission = Admission.NONE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    public StudentBatchUpdater(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.updatedAtBinder = updatedAtBinder(sessionFactory);
+    }
+
+    // updated_at se enlaza como lo haría Hibernate (Instant en UTC, según el dialecto).
+    // JdbcMapping devuelve el binder sin tipo; el del atributo updatedAt es de Instant.
+    @SuppressWarnings("unchecked")
+    private static ValueBinder<Instant> updatedAtBinder(SessionFactory sessionFactory) {
+        JdbcMapping mapping = sessionFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+            .getEntityDescriptor(Student.class).findAttributeMapping("updatedAt").getSingleJdbcMapping();
+        return (ValueBinder<Instant>) mapping.getJdbcValueBinder();
+    }
+
+    public StudentBatchUpdater batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public StudentBatchUpdater chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /** Índice de nombres que mantener tras cada bloque, si lo hay. */
+    public StudentBatchUpdater nameIndex(NameSearchIndex nameIndex) {
+        this.nameIndex = nameIndex;
+        return this;
+    }
+
+    public StudentBatchUpdater admission(Admission admission) {
+        this.admission = admission;
+        return this;
+    }
+
+    public Result update(Iterator<Patch> patches, ChunkListener listener) {
+        List<ChunkResult> chunks = new ArrayList<>();
+        long read = 0;
+        long affected = 0;
+        long start = System.nanoTime();
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            SharedSessionContractImplementor options = (SharedSessionContractImplementor) session;
+            while (patches.hasNext() && !Thread.currentThread().isInterrupted()) {
+                Map<Long, Patch> chunk = new LinkedHashMap<>();
+                int chunkPatches = 0;
+                while (chunkPatches < chunkSize && patches.hasNext()) {
+                    Patch patch = patches.next();
+                    chunk.merge(patch.id(), patch, Patch::then);
+                    chunkPatches++;
+                }
+
+                int[] rows = new int[1];
+                Runnable release = admission.acquire();
+                try {
+                    Instant now = Instant.now();
+                    Transaction tx = session.beginTransaction();
+                    try {
+                        session.doWork(connection -> rows[0] = execute(connection, chunk.values(), now, options));
+                        OperationMetrics.commit(tx);
+                    } catch (RuntimeException | Error ex) {
+                        if (tx.isActive()) {
+                            tx.rollback();
+                        }
+                        throw ex;
+                    }
+                } finally {
+                    release.run();
+                }
+                afterCommit(chunk.values());
+
+                ChunkResult result = new ChunkResult(chunks.size() + 1, chunkPatches, rows[0]);
+                chunks.add(result);
+                read += chunkPatches;
+                affected += rows[0];
+                listener.chunkCommitted(result);
+            }
+        }
+        return new Result(read, affected, chunks, (System.nanoTime() - start) / 1e9);
+    }
+
+    private int execute(Connection connection, Collection<Patch> patches, Instant now,
+                        SharedSessionContractImplementor options) throws SQLException {
+        // Una sentencia por combinación de columnas modificadas
+        Map<String, List<Patch>> byColumns = new LinkedHashMap<>();
+        for (Patch patch : patches) {
+            if (!patch.isEmpty()) {
+                byColumns.computeIfAbsent(sql(patch), sql -> new ArrayList<>()).add(patch);
+            }
+        }
+        int affected = 0;
+        for (Map.Entry<String, List<Patch>> group : byColumns.entrySet()) {
+            try (PreparedStatement statement = connection.prepareStatement(group.getKey())) {
+                int pending = 0;
+                for (Patch patch : group.getValue()) {
+                    bind(statement, patch, now, options);
+                    statement.addBatch();
+                    if (++pending == batchSize) {
+                        affected += rowCount(statement.executeBatch());
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    affected += rowCount(statement.executeBatch());
+                }
+            }
+        }
+        return affected;
+    }
+
+    static String sql(Patch patch) {
+        StringBuilder sql = new StringBuilder("UPDATE Student SET ");
+        if (patch.name() != null) {
+            sql.append("name = ?, name_normalized = ?, ");
+        }
+        if (patch.age() != null) {
+            sql.append("age = ?, ");
+        }
+        return sql.append("version = version + 1, updated_at = ? WHERE id = ?").toString();
+    }
+
+    private void bind(PreparedStatement statement, Patch patch, Instant now, SharedSessionContractImplementor options)
+            throws SQLException {
+        int index = 1;
+        if (patch.name() != null) {
+            statement.setString(index++, patch.name());
+            statement.setString(index++, NameSearchIndex.normalize(patch.name()));
+        }
+        if (patch.age() != null) {
+            statement.setInt(index++, patch.age());
+        }
+        updatedAtBinder.bind(statement, now, index++, options);
+        statement.setLong(index, patch.id());
+    }
+
+    // Con rewriteBatchedStatements algunos drivers no informan de cada fila: se cuenta como actualizada
+    private static int rowCount(int[] counts) {
+        int rows = 0;
+        for (int count : counts) {
+            rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+        }
+        return rows;
+    }
+
+    private void afterCommit(Collection<Patch> patches) {
+        List<Long> ids = new ArrayList<>(patches.size());
+        for (Patch patch : patches) {
+            ids.add(patch.id());
+            if (nameIndex != null && patch.name() != null) {
+                nameIndex.put(patch.id(), patch.name());
+            }
+        }
+        StudentCache.evict(sessionFactory, ids);
+    }
+}
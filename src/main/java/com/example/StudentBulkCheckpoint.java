@@ -0,0 +1,95 @@
+package com.example;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Avance de una {@link StudentBulkOperation} sin terminar: se actualiza en la
+ * misma transacción que cada bloque, así que al reanudar nunca se repite ni
+ * se salta un bloque. Hay como mucho una por tipo de operación y se borra al
+ * terminar.
+ */
+@Entity
+@Table(name = "student_bulk_checkpoint")
+public class StudentBulkCheckpoint {
+
+    @Id
+    private String operation;
+
+    // Rango de ids (firstId, maxId] fijado al empezar; lastId es el último procesado
+    @Column(name = "first_id", nullable = false)
+    private long firstId;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "max_id", nullable = false)
+    private long maxId;
+
+    private int increment;
+
+    @Column(name = "rows_done", nullable = false)
+    private long rowsDone;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    // Dos ejecuciones a la vez de la misma operación: la segunda falla al confirmar su bloque
+    @Version
+    private long version;
+
+    protected StudentBulkCheckpoint() {
+    }
+
+    StudentBulkCheckpoint(String operation, long firstId, long maxId, int increment) {
+        this.operation = operation;
+        this.firstId = firstId;
+        this.lastId = firstId;
+        this.maxId = maxId;
+        this.increment = increment;
+        this.startedAt = Instant.now();
+    }
+
+    void advance(long lastId, int rows) {
+        this.lastId = lastId;
+        this.rowsDone += rows;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getFirstId() {
+        return firstId;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public int getIncrement() {
+        return increment;
+    }
+
+    public long getRowsDone() {
+        return rowsDone;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /** Porcentaje del rango de ids ya recorrido. */
+    public int percent() {
+        return maxId <= firstId ? 100 : (int) ((lastId - firstId) * 100 / (maxId - firstId));
+    }
+}
@@ -0,0 +1,317 @@
+package com.example;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.LockMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+
+/**
+ * "Eliminar todos" e "incrementar edades" por bloques de ids en lugar de un
+ * único {@code DELETE}/{@code UPDATE} sobre toda la tabla: cada bloque de
+ * {@code chunkSize} ids consecutivos es una transacción corta, así que los
+ * bloqueos de fila y el registro de deshacer se limitan a ese bloque y los
+ * demás clientes siguen leyendo y escribiendo mientras dura. Entre bloques se
+ * espera {@code pauseMillis} para no acaparar la base de datos.
+ *
+ * <p>El rango de ids se fija al empezar y las altas con ids mayores no se
+ * tocan. Los ids se reservan por bloques ({@link Student#ID_ALLOCATION_SIZE},
+ * pooled-lo), así que otro cliente puede dar de alta después una fila con un
+ * id dentro del rango: si cae en un bloque aún no procesado, la operación
+ * también la incluye. El avance se guarda en {@link StudentBulkCheckpoint} en
+ * la misma transacción que cada bloque. La operación se detiene entre bloques
+ * si el hilo se interrumpe y puede reanudarse después, también tras cerrar la
+ * aplicación, sin aplicar dos veces ningún bloque.</p>
+ */
+public class StudentBulkOperation {
+    public static final String CHUNK_SIZE = "app.bulk.chunk_size";
+    public static final String PAUSE_MS = "app.bulk.pause_ms";
+    public static final int DEFAULT_CHUNK_SIZE = 5_000;
+    public static final long DEFAULT_PAUSE_MS = 50;
+
+    public enum Kind {
+        DELETE_ALL("eliminar todos"),
+        INCREMENT_AGES("incrementar edades");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * Se pidió empezar de nuevo un incremento mientras otro sigue a medias:
+     * repetirlo volvería a sumar a las filas ya incrementadas. Hay que
+     * reanudarlo o descartarlo antes con {@link #discardPending}.
+     */
+    public static final class PendingOperationException extends IllegalStateException {
+        private final transient StudentBulkCheckpoint pending;
+
+        private PendingOperationException(StudentBulkCheckpoint pending) {
+            super(String.format("Hay un incremento de edades de %d sin terminar (%,d fila(s) ya incrementadas)",
+                pending.getIncrement(), pending.getRowsDone()));
+            this.pending = pending;
+        }
+
+        public StudentBulkCheckpoint getPending() {
+            return pending;
+        }
+    }
+
+    /** Avance; se notifica tras cada bloque confirmado. */
+    public interface ProgressListener {
+        void progress(Progress progress);
+    }
+
+    public record Progress(long rowsDone, int percent, double rowsPerSecond) {
+    }
+
+    /** {@code completed} es falso si se detuvo antes de terminar; {@code rows} incluye lo hecho antes de reanudar. */
+    public record Result(long rows, boolean completed, double seconds) {
+    }
+
+    private final SessionFactory sessionFactory;
+    private final Kind kind;
+    private final int increment;
+    private NameSearchIndex nameIndex;
+    private StudentStatistics statistics;
+    private int chunkSize;
+    private long pauseMillis;
+
+    private StudentBulkOperation(SessionFactory sessionFactory, Kind kind, int increment) {
+        this.sessionFactory = sessionFactory;
+        this.kind = kind;
+        this.increment = increment;
+        this.chunkSize = Integer.parseInt(String.valueOf(
+            sessionFactory.getProperties().getOrDefault(CHUNK_SIZE, DEFAULT_CHUNK_SIZE)));
+        this.pauseMillis = Long.parseLong(String.valueOf(
+            sessionFactory.getProperties().getOrDefault(PAUSE_MS, DEFAULT_PAUSE_MS)));
+    }
+
+    public static StudentBulkOperation deleteAll(SessionFactory sessionFactory) {
+        return new StudentBulkOperation(sessionFactory, Kind.DELETE_ALL, 0);
+    }
+
+    /** Al reanudar se usa el incremento con el que empezó la operación, no {@code increment}. */
+    public static StudentBulkOperation incrementAges(SessionFactory sessionFactory, int increment) {
+        return new StudentBulkOperation(sessionFactory, Kind.INCREMENT_AGES, increment);
+    }
+
+    public StudentBulkOperation chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public StudentBulkOperation pauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+        return this;
+    }
+
+    /** Índice de nombres del que quitar los eliminados tras cada bloque, si lo hay. */
+    public StudentBulkOperation nameIndex(NameSearchIndex nameIndex) {
+        this.nameIndex = nameIndex;
+        return this;
+    }
+
+    /** Estadísticas de edad que ajustar tras cada bloque, si las hay. */
+    public StudentBulkOperation statistics(StudentStatistics statistics) {
+        this.statistics = statistics;
+        return this;
+    }
+
+    /** La operación de este tipo que quedó sin terminar, o {@code null}. */
+    public static StudentBulkCheckpoint pending(SessionFactory sessionFactory, Kind kind) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.get(StudentBulkCheckpoint.class, kind.name());
+        }
+    }
+
+    /**
+     * Descarta la operación de este tipo que quedó sin terminar; lo ya
+     * confirmado se mantiene. Devuelve si había alguna.
+     */
+    public static boolean discardPending(SessionFactory sessionFactory, Kind kind) {
+        try (Session session = HibernateUtil.openSession(sessionFactory)) {
+            Transaction tx = session.beginTransaction();
+            StudentBulkCheckpoint checkpoint = session.get(StudentBulkCheckpoint.class, kind.name());
+            if (checkpoint != null) {
+                session.remove(checkpoint);
+            }
+            OperationMetrics.commit(tx);
+            return checkpoint != null;
+        }
+    }
+
+    /**
+     * Ejecuta la operación. Con {@code resume} continúa la pendiente si la
+     * hay; si no, empieza de nuevo sobre todos los estudiantes. Una
+     * eliminación pendiente se descarta sin más (repetirla no cambia el
+     * resultado), pero un incremento pendiente no: lanza
+     * {@link PendingOperationException}.
+     */
+    public Result run(boolean resume, ProgressListener listener) {
+        long start = System.nanoTime();
+        try (Session session = HibernateUtil.openSession(sessionFactory)) {
+            StudentBulkCheckpoint checkpoint = begin(session, resume);
+            long resumedRows = checkpoint.getRowsDone();
+            try {
+                while (checkpoint.getLastId() < checkpoint.getMaxId()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return new Result(checkpoint.getRowsDone(), false, seconds(start));
+                    }
+                    List<Long> ids = runChunk(session, checkpoint);
+                    if (kind == Kind.DELETE_ALL && nameIndex != null) {
+                        ids.forEach(nameIndex::remove);
+                    }
+                    double seconds = seconds(start);
+                    listener.progress(new Progress(checkpoint.getRowsDone(), checkpoint.percent(),
+                        seconds == 0 ? 0 : (checkpoint.getRowsDone() - resumedRows) / seconds));
+                    if (pauseMillis > 0 && checkpoint.getLastId() < checkpoint.getMaxId()) {
+                        Thread.sleep(pauseMillis);
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return new Result(checkpoint.getRowsDone(), false, seconds(start));
+            } finally {
+                // Los bloques confirmados cambiaron la tabla aunque la operación no termine
+                StudentCache.evictAll(sessionFactory);
+            }
+
+            Transaction tx = session.beginTransaction();
+            session.remove(checkpoint);
+            OperationMetrics.commit(tx);
+            return new Result(checkpoint.getRowsDone(), true, seconds(start));
+        }
+    }
+
+    private StudentBulkCheckpoint begin(Session session, boolean resume) {
+        Transaction tx = session.beginTransaction();
+        StudentBulkCheckpoint checkpoint = session.get(StudentBulkCheckpoint.class, kind.name());
+        if (checkpoint != null && resume) {
+            OperationMetrics.commit(tx);
+            return checkpoint;
+        }
+        if (checkpoint != null && kind == Kind.INCREMENT_AGES) {
+            tx.rollback();
+            throw new PendingOperationException(checkpoint);
+        }
+        if (checkpoint != null) {
+            session.remove(checkpoint);
+            session.flush();
+        }
+        Object[] range = session.createNamedSelectionQuery(Student.ID_RANGE, Object[].class)
+            .uniqueResult();
+        long firstId = range[0] == null ? 0 : (Long) range[0] - 1;
+        long maxId = range[1] == null ? 0 : (Long) range[1];
+        checkpoint = new StudentBulkCheckpoint(kind.name(), firstId, maxId, increment);
+        session.persist(checkpoint);
+        OperationMetrics.commit(tx);
+        return checkpoint;
+    }
+
+    // Un bloque: los siguientes chunkSize ids del rango, con el avance en la misma transacción
+    private List<Long> runChunk(Session session, StudentBulkCheckpoint checkpoint) {
+        Transaction tx = session.beginTransaction();
+        List<Long> ids = session.createNamedSelectionQuery(Student.IDS_BETWEEN, Long.class)
+            .setParameter("lastId", checkpoint.getLastId())
+            .setParameter("maxId", checkpoint.getMaxId())
+            .setMaxResults(chunkSize)
+            // Al eliminar, bloqueadas: sus edades no cambian entre contarlas y borrarlas
+            .setHibernateLockMode(kind == Kind.DELETE_ALL && statistics != null ? LockMode.PESSIMISTIC_WRITE : LockMode.NONE)
+            .list();
+        long upper = ids.isEmpty() ? checkpoint.getMaxId() : ids.get(ids.size() - 1);
+        if (statistics != null) {
+            statistics.beginChange();
+        }
+        try {
+            Map<Integer, Long> ages = new HashMap<>();
+            int rows = ids.isEmpty() ? 0 : apply(session, checkpoint, upper, ages);
+            checkpoint.advance(upper, rows);
+            OperationMetrics.commit(tx);
+            if (statistics != null) {
+                adjustStatistics(ages, rows, checkpoint.getIncrement());
+            }
+        } finally {
+            if (statistics != null) {
+                statistics.endChange();
+            }
+        }
+        return ids;
+    }
+
+    // Aplica el bloque; con estadísticas, deja en ages cuántas filas afectadas había de cada edad
+    private int apply(Session session, StudentBulkCheckpoint checkpoint, long upper, Map<Integer, Long> ages) {
+        if (kind == Kind.DELETE_ALL) {
+            if (statistics != null) {
+                countAges(session.createNamedSelectionQuery(Student.AGES_BETWEEN, Object[].class)
+                    .setParameter("from", checkpoint.getLastId())
+                    .setParameter("to", upper), ages);
+            }
+            int deleted = session.createNamedMutationQuery(Student.DELETE_BETWEEN)
+                .setParameter("from", checkpoint.getLastId())
+                .setParameter("to", upper)
+                .executeUpdate();
+            // Los demás clientes recargan la vista en su siguiente sincronización
+            session.persist(StudentDeletion.all());
+            return deleted;
+        }
+        // Con la precisión de la columna, para reconocer después las filas de este UPDATE
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = session.createNamedMutationQuery(Student.INCREMENT_AGES_BETWEEN)
+            .setParameter("increment", checkpoint.getIncrement())
+            .setParameter("now", now)
+            .setParameter("from", checkpoint.getLastId())
+            .setParameter("to", upper)
+            .executeUpdate();
+        if (statistics != null) {
+            // Las filas actualizadas siguen bloqueadas por el UPDATE: sus edades nuevas son exactas
+            countAges(session.createNamedSelectionQuery(Student.AGES_UPDATED_BETWEEN, Object[].class)
+                .setParameter("from", checkpoint.getLastId())
+                .setParameter("to", upper)
+                .setParameter("now", now), ages);
+        }
+        return updated;
+    }
+
+    private static void countAges(SelectionQuery<Object[]> query, Map<Integer, Long> ages) {
+        for (Object[] row : query.list()) {
+            ages.put((Integer) row[0], (Long) row[1]);
+        }
+    }
+
+    // Un GROUP BY por bloque en lugar de leer cada fila. Si el recuento no cuadra con las filas
+    // afectadas (una alta concurrente dentro del rango), se recalcula en la siguiente consulta.
+    private void adjustStatistics(Map<Integer, Long> ages, int rows, int increment) {
+        long counted = ages.values().stream().mapToLong(Long::longValue).sum();
+        if (counted != rows) {
+            statistics.invalidate();
+            return;
+        }
+        Map<Integer, Long> deltas = new HashMap<>();
+        ages.forEach((age, count) -> {
+            if (kind == Kind.DELETE_ALL) {
+                deltas.merge(age, -count, Long::sum);
+            } else {
+                deltas.merge(age - increment, -count, Long::sum);
+                deltas.merge(age, count, Long::sum);
+            }
+        });
+        statistics.adjusted(deltas);
+    }
+
+    private static double seconds(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
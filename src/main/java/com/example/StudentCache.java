@@ -0,0 +1,82 @@
+package com.example;
+
+import java.util.Collection;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Regiones de la caché de segundo nivel de {@link Student} (definidas en
+ * {@code ehcache.xml}) y sus estadísticas de aciertos/fallos.
+ *
+ * <p>Hibernate ya invalida las consultas cacheadas cuando una sentencia HQL
+ * masiva modifica la tabla, pero las escrituras que no pasan por el contexto
+ * de persistencia (SQL nativo, {@code StatelessSession}) o que se hacen desde
+ * otro proceso no lo hacen; tras una operación masiva se llama a
+ * {@link #evictAll} para no servir nunca edades obsoletas.</p>
+ */
+public final class StudentCache {
+    public static final String ENTITY_REGION = "student";
+    public static final String QUERY_REGION = "student-queries";
+
+    /** Aciertos y fallos acumulados desde el arranque. */
+    public record Stats(long entityHits, long entityMisses, long queryHits, long queryMisses) {
+        public double entityHitRatio() {
+            return ratio(entityHits, entityMisses);
+        }
+
+        public double queryHitRatio() {
+            return ratio(queryHits, queryMisses);
+        }
+
+        private static double ratio(long hits, long misses) {
+            return hits + misses == 0 ? 0 : hits / (double) (hits + misses);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Caché: entidades %.0f%% (%d/%d), consultas %.0f%% (%d/%d)",
+                entityHitRatio() * 100, entityHits, entityHits + entityMisses,
+                queryHitRatio() * 100, queryHits, queryHits + queryMisses);
+        }
+    }
+
+    private StudentCache() {
+    }
+
+    /** Vacía las entidades y las consultas de estudiantes cacheadas. */
+    public static void evictAll(SessionFactory factory) {
+        Cache cache = factory.getCache();
+        cache.evictEntityData(Student.class);
+        evictQueries(factory);
+    }
+
+    /** Vacía las entidades indicadas y las consultas: cambios de otro proceso vistos por {@link StudentSync}. */
+    public static void evict(SessionFactory factory, Collection<Long> ids) {
+        Cache cache = factory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(Student.class, id);
+        }
+        evictQueries(factory);
+    }
+
+    /** Vacía solo las consultas (basta tras inserciones: no hay entidades obsoletas). */
+    public static void evictQueries(SessionFactory factory) {
+        Cache cache = factory.getCache();
+        cache.evictQueryRegion(QUERY_REGION);
+        cache.evictDefaultQueryRegion();
+    }
+
+    public static Stats stats(SessionFactory factory) {
+        Statistics statistics = factory.getStatistics();
+        CacheRegionStatistics entity = statistics.getDomainDataRegionStatistics(ENTITY_REGION);
+        CacheRegionStatistics queries = statistics.getQueryRegionStatistics(QUERY_REGION);
+        return new Stats(
+            entity == null ? 0 : entity.getHitCount(),
+            entity == null ? 0 : entity.getMissCount(),
+            queries == null ? 0 : queries.getHitCount(),
+            queries == null ? 0 : queries.getMissCount());
+    }
+}
@@ -0,0 +1,404 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+/**
+ * Importa estudiantes desde un CSV ({@code nombre,edad}, cabecera opcional)
+ * sin cargar el fichero en memoria.
+ *
+ * <p>El fichero se lee por bloques de {@code chunkSize} filas. Cada bloque se
+ * analiza y valida en paralelo mientras el anterior se escribe con una
+ * {@link StatelessSession} en lotes JDBC de {@code batchSize}, con un commit
+ * por bloque. En esa misma transacción se actualiza el punto de control
+ * ({@link StudentImportCheckpoint}) con las filas ya recorridas, de modo que
+ * una importación interrumpida, incluso por una caída, puede reanudarse sin
+ * duplicar filas.</p>
+ *
+ * <p>Desde la línea de comandos:</p>
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=com.example.StudentCsvImporter \
+ *     -Dexec.args="alumnos.csv [--batch 500] [--chunk 10000] [--threads 4] [--fresh]"
+ * </pre>
+ */
+public class StudentCsvImporter {
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    public static final int DEFAULT_CHUNK_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    /** Avance de la importación; se notifica tras cada bloque confirmado. */
+    public interface ProgressListener {
+        void progress(Progress progress);
+    }
+
+    public record Progress(long rowsImported, long rowsRejected, long bytesRead, long totalBytes,
+                           double rowsPerSecond) {
+        public int percent() {
+            return totalBytes == 0 ? 100 : (int) Math.min(100, bytesRead * 100 / totalBytes);
+        }
+    }
+
+    /** Resultado final. {@code resumedFrom} es el número de filas que ya constaban en el punto de control. */
+    public record Result(long rowsImported, long rowsRejected, long resumedFrom, List<String> errors,
+                         double seconds) {
+        public double rowsPerSecond() {
+            return seconds == 0 ? 0 : rowsImported / seconds;
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parserThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    public StudentCsvImporter(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public StudentCsvImporter batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public StudentCsvImporter chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public StudentCsvImporter parserThreads(int parserThreads) {
+        this.parserThreads = parserThreads;
+        return this;
+    }
+
+    /** Clave del punto de control de {@code csv}. */
+    public static String checkpointKey(Path csv) {
+        return csv.toAbsolutePath().normalize().toString();
+    }
+
+    /** Filas ya recorridas según el punto de control de {@code csv}, o 0 si no hay. */
+    public long readCheckpoint(Path csv) {
+        try (Session session = HibernateUtil.openReadOnlySession(sessionFactory)) {
+            StudentImportCheckpoint checkpoint = session.get(StudentImportCheckpoint.class, checkpointKey(csv));
+            return checkpoint == null ? 0 : checkpoint.getLinesDone();
+        }
+    }
+
+    private void deleteCheckpoint(Path csv) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            StudentImportCheckpoint checkpoint = session.get(StudentImportCheckpoint.class, checkpointKey(csv));
+            if (checkpoint != null) {
+                session.delete(checkpoint);
+            }
+            tx.commit();
+        }
+    }
+
+    /**
+     * Importa el fichero. Si {@code resume} es verdadero y hay un punto de
+     * control, se saltan las filas ya importadas. La importación se detiene
+     * entre bloques si el hilo se interrumpe; el punto de control se conserva.
+     */
+    public Result importFile(Path csv, boolean resume, ProgressListener listener) throws IOException {
+        long skip = resume ? readCheckpoint(csv) : 0;
+        if (!resume) {
+            deleteCheckpoint(csv);
+        }
+        StudentImportCheckpoint checkpoint = new StudentImportCheckpoint(checkpointKey(csv));
+        checkpoint.advance(skip);
+
+        long totalBytes = Files.size(csv);
+        AtomicLong bytesRead = new AtomicLong();
+        List<String> errors = new ArrayList<>();
+        long imported = 0;
+        long rejected = 0;
+        long start = System.nanoTime();
+
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads);
+        ExecutorService reader = Executors.newVirtualThreadPerTaskExecutor();
+        // Bloques analizados en orden de lectura; la capacidad limita la memoria usada
+        BlockingQueue<Future<ParsedChunk>> chunks = new ArrayBlockingQueue<>(parserThreads + 1);
+
+        try (InputStream in = new CountingInputStream(Files.newInputStream(csv), bytesRead);
+             BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+
+            Future<?> producer = reader.submit(() -> {
+                readChunks(lines, skip, parsers, chunks);
+                return null;
+            });
+
+            while (true) {
+                Future<ParsedChunk> next = chunks.take();
+                ParsedChunk chunk = next.get();
+                if (chunk == ParsedChunk.END) {
+                    break;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                checkpoint.advance(chunk.lastLine());
+                write(chunk.students(), checkpoint);
+                imported += chunk.students().size();
+                rejected += chunk.errors().size();
+                for (String error : chunk.errors()) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(error);
+                    }
+                }
+
+                if (listener != null) {
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    listener.progress(new Progress(imported, rejected, bytesRead.get(), totalBytes,
+                        seconds == 0 ? 0 : imported / seconds));
+                }
+            }
+            producer.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importación cancelada; se puede reanudar desde el punto de control", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IOException("Error al importar " + csv + ": " + cause.getMessage(), cause);
+        } finally {
+            reader.shutdownNow();
+            parsers.shutdownNow();
+        }
+
+        deleteCheckpoint(csv);
+        return new Result(imported, rejected, skip, errors, (System.nanoTime() - start) / 1e9);
+    }
+
+    // Lee bloques de líneas y los envía a analizar; termina con el marcador END
+    private void readChunks(BufferedReader lines, long skip, ExecutorService parsers,
+                            BlockingQueue<Future<ParsedChunk>> chunks) throws IOException, InterruptedException {
+        long lineNumber = 0;   // filas de datos leídas (sin contar la cabecera)
+        boolean first = true;
+        List<String> block = new ArrayList<>(chunkSize);
+        long blockStart = 1;
+        String line;
+        try {
+            while ((line = lines.readLine()) != null) {
+                if (first) {
+                    first = false;
+                    if (isHeader(line)) {
+                        continue;
+                    }
+                }
+                lineNumber++;
+                if (lineNumber <= skip) {
+                    continue;
+                }
+                if (block.isEmpty()) {
+                    blockStart = lineNumber;
+                }
+                block.add(line);
+                if (block.size() == chunkSize) {
+                    submit(parsers, chunks, block, blockStart);
+                    block = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!block.isEmpty()) {
+                submit(parsers, chunks, block, blockStart);
+            }
+        } finally {
+            chunks.put(CompletableFuture.completedFuture(ParsedChunk.END));
+        }
+    }
+
+    private void submit(ExecutorService parsers, BlockingQueue<Future<ParsedChunk>> chunks,
+                        List<String> block, long firstLine) throws InterruptedException {
+        chunks.put(parsers.submit(() -> parse(block, firstLine)));
+    }
+
+    // El bloque y su punto de control se confirman juntos
+    private void write(List<Student> students, StudentImportCheckpoint checkpoint) {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            session.setJdbcBatchSize(batchSize);
+            Transaction tx = session.beginTransaction();
+            try {
+                for (Student student : students) {
+                    session.insert(student);
+                }
+                session.upsert(checkpoint);
+                tx.commit();
+                // La StatelessSession no actualiza la caché de consultas
+                StudentCache.evictQueries(sessionFactory);
+            } catch (RuntimeException ex) {
+                tx.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    static ParsedChunk parse(List<String> block, long firstLine) {
+        List<Student> students = new ArrayList<>(block.size());
+        List<String> errors = new ArrayList<>();
+        long lineNumber = firstLine;
+        for (String line : block) {
+            if (!line.isBlank()) {
+                try {
+                    students.add(parseLine(line));
+                } catch (IllegalArgumentException ex) {
+                    errors.add("Fila " + lineNumber + ": " + ex.getMessage());
+                }
+            }
+            lineNumber++;
+        }
+        return new ParsedChunk(students, errors, firstLine + block.size() - 1);
+    }
+
+    /** Convierte una línea {@code nombre,edad} (el nombre puede ir entre comillas) en un estudiante. */
+    static Student parseLine(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 2) {
+            throw new IllegalArgumentException("se esperaban 2 campos (nombre,edad) y hay " + fields.size());
+        }
+        String name = fields.get(0).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("el nombre está vacío");
+        }
+        if (name.length() > 255) {
+            throw new IllegalArgumentException("el nombre supera los 255 caracteres");
+        }
+        int age;
+        try {
+            age = Integer.parseInt(fields.get(1).trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("la edad no es un número válido: " + fields.get(1));
+        }
+        if (age < 0 || age > 150) {
+            throw new IllegalArgumentException("edad fuera de rango: " + age);
+        }
+        return new Student(name, age);
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean isHeader(String line) {
+        String normalized = line.replace("\"", "").trim().toLowerCase(Locale.ROOT);
+        return normalized.startsWith("name,") || normalized.startsWith("nombre,");
+    }
+
+    record ParsedChunk(List<Student> students, List<String> errors, long lastLine) {
+        static final ParsedChunk END = new ParsedChunk(List.of(), List.of(), -1);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: StudentCsvImporter <fichero.csv> [--batch N] [--chunk N] [--threads N] [--fresh]");
+            System.exit(2);
+        }
+        Path csv = Path.of(args[0]);
+        StudentCsvImporter importer = new StudentCsvImporter(HibernateUtil.getSessionFactory());
+        boolean resume = true;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--batch" -> importer.batchSize(Integer.parseInt(args[++i]));
+                case "--chunk" -> importer.chunkSize(Integer.parseInt(args[++i]));
+                case "--threads" -> importer.parserThreads(Integer.parseInt(args[++i]));
+                case "--fresh" -> resume = false;
+                default -> {
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try {
+            Result result = importer.importFile(csv, resume, p -> System.out.printf(
+                "\r%3d%%  %,d importadas, %,d rechazadas, %,.0f filas/s", p.percent(), p.rowsImported(),
+                p.rowsRejected(), p.rowsPerSecond()));
+            System.out.println();
+            if (result.resumedFrom() > 0) {
+                System.out.printf("Reanudado tras %,d filas ya importadas%n", result.resumedFrom());
+            }
+            System.out.printf("Importadas %,d filas (%,d rechazadas) en %.1f s, %,.0f filas/s%n",
+                result.rowsImported(), result.rowsRejected(), result.seconds(), result.rowsPerSecond());
+            result.errors().forEach(System.out::println);
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedQuery;
+import jakarta.persistence.Table;
+
+/**
+ * Registro de bajas de estudiantes, para que {@link StudentSync} detecte las
+ * filas eliminadas por otros clientes. Guarda los últimos valores de la fila
+ * para poder situarla en la vista aunque no esté cargada. Una entrada sin
+ * {@code studentId} indica que se eliminaron todos.
+ */
+@Entity
+@Table(name = "student_deletion",
+    indexes = @Index(name = "idx_student_deletion_deleted_at", columnList = "deleted_at, id"))
+@NamedQuery(name = StudentDeletion.LATEST, query = "SELECT MAX(d.deletedAt) FROM StudentDeletion d")
+@NamedQuery(name = StudentDeletion.SINCE, query = "FROM StudentDeletion d WHERE d.deletedAt >= :since "
+    + "ORDER BY d.deletedAt, d.id")
+@NamedQuery(name = StudentDeletion.PRUNE, query = "DELETE FROM StudentDeletion d WHERE d.deletedAt < :cutoff")
+public class StudentDeletion {
+    static final String LATEST = "StudentDeletion.latest";
+    static final String SINCE = "StudentDeletion.since";
+    static final String PRUNE = "StudentDeletion.prune";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id")
+    private Long studentId;
+
+    private String name;
+    private int age;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    protected StudentDeletion() {
+    }
+
+    private StudentDeletion(Long studentId, String name, int age) {
+        this.studentId = studentId;
+        this.name = name;
+        this.age = age;
+        this.deletedAt = Instant.now();
+    }
+
+    /** Baja de un estudiante, con sus valores en el momento de eliminarlo. */
+    public static StudentDeletion of(Student student) {
+        return new StudentDeletion(student.getId(), student.getName(), student.getAge());
+    }
+
+    /** Marca de "eliminar todos": quien la vea debe recargar la vista. */
+    public static StudentDeletion all() {
+        return new StudentDeletion(null, null, 0);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public boolean isAll() {
+        return studentId == null;
+    }
+
+    /** La fila eliminada tal como estaba. */
+    public StudentRow toRow() {
+        return new StudentRow(studentId, name, age, 0);
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * Exporta estudiantes a CSV o a JSON delimitado por líneas (NDJSON) con
+ * memoria constante: las filas se leen con un cursor de solo avance sobre
+ * una {@link StatelessSession} (sin contexto de persistencia) y se escriben
+ * según llegan a un {@link FileChannel} con búfer, opcionalmente comprimido
+ * con gzip.
+ *
+ * <p>Desde la línea de comandos:</p>
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=com.example.StudentExporter \
+ *     -Dexec.args="alumnos.csv.gz [--format csv|json] [--gzip]"
+ * </pre>
+ * El formato y la compresión se deducen de la extensión si no se indican.
+ */
+public class StudentExporter {
+    public static final int FETCH_SIZE = 1000;
+    public static final int DEFAULT_IDS_PER_QUERY = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int PROGRESS_EVERY = 10_000;
+
+    public enum Format {
+        CSV, JSON;
+
+        /** Deduce el formato de la extensión ({@code .json}/{@code .ndjson}, con o sin {@code .gz}). */
+        public static Format fromFileName(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            return name.endsWith(".json") || name.endsWith(".ndjson") ? JSON : CSV;
+        }
+    }
+
+    /** Recibe el número de filas escritas hasta el momento. */
+    public interface ProgressListener {
+        void progress(long rowsWritten);
+    }
+
+    private final SessionFactory sessionFactory;
+    private int idsPerQuery = DEFAULT_IDS_PER_QUERY;
+
+    public StudentExporter(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    /** Ids por consulta al exportar una vista sobre un conjunto de ids ({@link StudentQuery#parts}). */
+    public StudentExporter idsPerQuery(int idsPerQuery) {
+        this.idsPerQuery = idsPerQuery;
+        return this;
+    }
+
+    /**
+     * Escribe las filas de {@code query} en {@code target} y devuelve cuántas
+     * se exportaron. Se detiene si el hilo se interrumpe.
+     */
+    public long export(StudentQuery query, Path target, Format format, boolean gzip,
+                       ProgressListener listener) throws IOException {
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Writer out = writer(channel, gzip);
+             StatelessSession session = sessionFactory.openStatelessSession()) {
+
+            if (format == Format.CSV) {
+                out.write("id,nombre,edad\n");
+            }
+            // Una búsqueda por trigramas puede dar decenas de miles de ids: van por tramos, no en un solo IN
+            for (StudentQuery part : query.parts(idsPerQuery)) {
+                try (ScrollableResults<Object[]> results = part.scroll(session, FETCH_SIZE)) {
+                    while (results.next()) {
+                        Object[] row = results.get();
+                        if (format == Format.CSV) {
+                            writeCsv(out, row);
+                        } else {
+                            writeJson(out, row);
+                        }
+                        rows++;
+                        if (rows % PROGRESS_EVERY == 0) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedIOException("Exportación cancelada tras " + rows + " filas");
+                            }
+                            if (listener != null) {
+                                listener.progress(rows);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (listener != null) {
+            listener.progress(rows);
+        }
+        return rows;
+    }
+
+    private static Writer writer(FileChannel channel, boolean gzip) throws IOException {
+        OutputStream stream = Channels.newOutputStream(channel);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    static void writeCsv(Writer out, Object[] row) throws IOException {
+        out.write(String.valueOf(row[0]));
+        out.write(',');
+        String name = row[1] == null ? "" : (String) row[1];
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0 || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            out.write('"');
+            out.write(name.replace("\"", "\"\""));
+            out.write('"');
+        } else {
+            out.write(name);
+        }
+        out.write(',');
+        out.write(String.valueOf(row[2]));
+        out.write('\n');
+    }
+
+    static void writeJson(Writer out, Object[] row) throws IOException {
+        out.write("{\"id\":");
+        out.write(String.valueOf(row[0]));
+        out.write(",\"name\":");
+        if (row[1] == null) {
+            out.write("null");
+        } else {
+            writeJsonString(out, (String) row[1]);
+        }
+        out.write(",\"age\":");
+        out.write(String.valueOf(row[2]));
+        out.write("}\n");
+    }
+
+    static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: StudentExporter <fichero> [--format csv|json] [--gzip]");
+            System.exit(2);
+        }
+        Path target = Path.of(args[0]);
+        Format format = Format.fromFileName(args[0]);
+        boolean gzip = args[0].toLowerCase(Locale.ROOT).endsWith(".gz");
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format" -> format = Format.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--gzip" -> gzip = true;
+                default -> {
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try {
+            long start = System.nanoTime();
+            long rows = new StudentExporter(HibernateUtil.getSessionFactory()).export(StudentQuery.all(), target,
+                format, gzip, written -> System.out.printf("\r%,d filas exportadas", written));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%nExportadas %,d filas a %s en %.1f s%n", rows, target, seconds);
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Ajusta la secuencia {@code student_seq} para que no reparta ids ya usados.
+ *
+ * <p>Hasta ahora {@link Student} usaba ids IDENTITY (AUTO_INCREMENT), así que
+ * en una base de datos existente la secuencia recién creada empezaría en 1 y
+ * chocaría con las filas antiguas. Al arrancar se mueve la secuencia por
+ * encima de {@code MAX(id)}; si ya lo está, no se toca. Es idempotente.</p>
+ */
+public final class StudentIdMigration {
+    static final String SEQUENCE = "student_seq";
+
+    private StudentIdMigration() {
+    }
+
+    public static void alignSequence(SessionFactory factory) {
+        Dialect dialect = factory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+
+        try (Session session = factory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Number maxId = (Number) session.createNativeQuery("SELECT MAX(id) FROM Student", Object.class)
+                .uniqueResult();
+            if (maxId == null) {
+                tx.commit();
+                return;
+            }
+            long next = maxId.longValue() + 1;
+
+            if (dialect.getSequenceSupport().supportsSequences()) {
+                // Leer el siguiente valor consume uno; solo deja un hueco en los ids
+                Number current = (Number) session.createNativeQuery(
+                        dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE), Object.class)
+                    .uniqueResult();
+                if (current.longValue() < next) {
+                    session.createNativeMutationQuery("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + next)
+                        .executeUpdate();
+                }
+            } else {
+                // Secuencia emulada con una tabla de una fila (next_val)
+                int updated = session.createNativeMutationQuery(
+                        "UPDATE " + SEQUENCE + " SET next_val = :next WHERE next_val < :next")
+                    .setParameter("next", next)
+                    .executeUpdate();
+                if (updated == 0) {
+                    Number rows = (Number) session.createNativeQuery("SELECT COUNT(*) FROM " + SEQUENCE, Object.class)
+                        .uniqueResult();
+                    if (rows.longValue() == 0) {
+                        session.createNativeMutationQuery("INSERT INTO " + SEQUENCE + " (next_val) VALUES (:next)")
+                            .setParameter("next", next)
+                            .executeUpdate();
+                    }
+                }
+            }
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Avance de una importación de {@link StudentCsvImporter} sin terminar: se
+ * actualiza en la misma transacción que cada bloque, así que al reanudar
+ * nunca se repite ni se salta una fila. Hay como mucho una por fichero y se
+ * borra al terminar.
+ */
+@Entity
+@Table(name = "student_import_checkpoint")
+public class StudentImportCheckpoint {
+
+    // Ruta absoluta y normalizada del CSV
+    @Id
+    @Column(length = 512)
+    private String file;
+
+    // Filas de datos del fichero ya recorridas (importadas o rechazadas), sin la cabecera
+    @Column(name = "lines_done", nullable = false)
+    private long linesDone;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    protected StudentImportCheckpoint() {
+    }
+
+    StudentImportCheckpoint(String file) {
+        this.file = file;
+        this.startedAt = Instant.now();
+    }
+
+    void advance(long linesDone) {
+        this.linesDone = linesDone;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public long getLinesDone() {
+        return linesDone;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+}
@@ -0,0 +1,522 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Generador de carga: simula {@code clients} usuarios concurrentes de la
+ * interfaz, cada uno en un hilo virtual, que repiten las operaciones de
+ * {@link Main} a través de {@link StudentService} con una mezcla configurable
+ * y un tiempo de reflexión aleatorio (exponencial, de media
+ * {@code thinkMillis}) entre una y otra. Los clientes se incorporan de forma
+ * escalonada durante {@code rampUp}.
+ *
+ * <p>Cada {@code interval} muestra las operaciones por segundo, los
+ * percentiles p50/p99/p99.9, los errores, las esperas de bloqueo agotadas y
+ * los conflictos de edición del intervalo; al terminar escribe un fichero
+ * JSON con la configuración, la serie por intervalos y los totales por
+ * operación, para comparar ejecuciones largas entre versiones. Cada operación
+ * se registra también en {@link OperationMetrics} con el mismo nombre que en
+ * la interfaz.</p>
+ *
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=com.example.StudentLoadGenerator \
+ *     -Dexec.args="[--clients 50] [--duration 300] [--ramp-up 60] [--think 1000] [--interval 10] \
+ *                  [--mix read=40,page=20,search=15,age=10,update=10,create=3,delete=2] [--out load-results.json]"
+ * </pre>
+ */
+public class StudentLoadGenerator {
+    private static final int MAX_ERROR_SAMPLES = 20;
+    private static final int SAMPLE_NAMES = 500;
+    private static final int MIN_AGE = 18;
+    private static final int MAX_AGE = 70;
+
+    /** Operaciones simuladas, con el nombre que usa la interfaz. */
+    public enum Op {
+        READ("read", "leer estudiante"),
+        PAGE("page", "ordenar estudiantes"),
+        SEARCH("search", "buscar por nombre"),
+        AGE("age", "buscar por rango de edad"),
+        UPDATE("update", "actualizar estudiante"),
+        CREATE("create", "crear estudiante"),
+        DELETE("delete", "eliminar estudiante");
+
+        private final String key;
+        private final String label;
+
+        Op(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        static Op fromKey(String key) {
+            for (Op op : values()) {
+                if (op.key.equals(key)) {
+                    return op;
+                }
+            }
+            throw new IllegalArgumentException("Operación desconocida: " + key);
+        }
+    }
+
+    enum Outcome { OK, CONFLICT, LOCK_TIMEOUT, ERROR }
+
+    /** Un intervalo de la serie; {@code second} es el final del intervalo desde el comienzo. */
+    public record Interval(long second, int clients, long operations, double perSecond, double p50Millis,
+                           double p99Millis, double p999Millis, long errors, long lockTimeouts, long conflicts) {
+    }
+
+    public record OperationResult(String operation, long errors, long lockTimeouts, long conflicts,
+                                  LatencyHistogram.Snapshot latency) {
+    }
+
+    public record Result(long operations, double seconds, long errors, long lockTimeouts, long conflicts,
+                         LatencyHistogram.Snapshot latency, List<OperationResult> byOperation,
+                         List<Interval> intervals, List<String> errorSamples) {
+        public double perSecond() {
+            return seconds == 0 ? 0 : operations / seconds;
+        }
+    }
+
+    // Contadores de un intervalo o de todo el recorrido
+    private static final class Counters {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder lockTimeouts = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+
+        private void record(long nanos, Outcome outcome) {
+            latency.record(nanos);
+            switch (outcome) {
+                case CONFLICT -> conflicts.increment();
+                case LOCK_TIMEOUT -> lockTimeouts.increment();
+                case ERROR -> errors.increment();
+                default -> { }
+            }
+        }
+    }
+
+    private final SessionFactory sessionFactory;
+    private final StudentService service;
+    private int clients = 10;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration rampUp = Duration.ofSeconds(10);
+    private long thinkMillis = 1000;
+    private Duration interval = Duration.ofSeconds(10);
+    private final Map<Op, Integer> mix = new EnumMap<>(Op.class);
+
+    private final Map<Op, Counters> totals = new EnumMap<>(Op.class);
+    private final AtomicReference<Counters> window = new AtomicReference<>(new Counters());
+    // Inicio del intervalo en curso; solo lo cambia quien cierra intervalos
+    private volatile long windowStart;
+    private final AtomicInteger activeClients = new AtomicInteger();
+    private final Set<String> errorSamples = Collections.synchronizedSet(new LinkedHashSet<>());
+    private final AtomicLong minId = new AtomicLong();
+    private final AtomicLong maxId = new AtomicLong();
+    private List<String> names = List.of();
+
+    public StudentLoadGenerator(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.service = new StudentService(() -> sessionFactory, new NameSearchIndex());
+        mix("read=40,page=20,search=15,age=10,update=10,create=3,delete=2");
+    }
+
+    public StudentLoadGenerator clients(int clients) {
+        this.clients = clients;
+        return this;
+    }
+
+    public StudentLoadGenerator duration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    public StudentLoadGenerator rampUp(Duration rampUp) {
+        this.rampUp = rampUp;
+        return this;
+    }
+
+    /** Media del tiempo de reflexión entre operaciones de un cliente; 0 para no esperar. */
+    public StudentLoadGenerator thinkMillis(long thinkMillis) {
+        this.thinkMillis = thinkMillis;
+        return this;
+    }
+
+    public StudentLoadGenerator interval(Duration interval) {
+        this.interval = interval;
+        return this;
+    }
+
+    /** Pesos relativos por operación, p. ej. {@code read=80,update=20}; las no indicadas no se ejecutan. */
+    public StudentLoadGenerator mix(String weights) {
+        mix.clear();
+        for (String entry : weights.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Peso no válido: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Op.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operación");
+        }
+        return this;
+    }
+
+    /**
+     * Ejecuta la carga durante {@code duration} y devuelve los resultados;
+     * {@code report} recibe cada intervalo al cerrarse.
+     */
+    public Result run(Consumer<Interval> report) throws InterruptedException {
+        prepare();
+        for (Op op : mix.keySet()) {
+            totals.put(op, new Counters());
+        }
+        List<Interval> intervals = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("load-report").daemon().factory());
+        long intervalNanos = interval.toNanos();
+        windowStart = start;
+        reporter.scheduleAtFixedRate(() -> {
+            Interval closed = closeWindow(start);
+            intervals.add(closed);
+            report.accept(closed);
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                long startAt = start + (clients == 1 ? 0 : rampUp.toNanos() * i / (clients - 1));
+                executor.submit(() -> client(startAt, end));
+            }
+        } finally {
+            reporter.shutdownNow();
+            reporter.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // El último intervalo, si quedó parcial
+        if (window.get().latency.count() > 0) {
+            Interval last = closeWindow(start);
+            intervals.add(last);
+            report.accept(last);
+        }
+        return result(seconds, intervals);
+    }
+
+    // Rango de ids y nombres de muestra para elegir a quién leer, editar o buscar
+    private void prepare() {
+        try (Session session = HibernateUtil.openReadOnlySession(sessionFactory)) {
+            Object[] range = session.createNamedSelectionQuery(Student.ID_RANGE, Object[].class)
+                .uniqueResult();
+            minId.set(range[0] == null ? 1 : (Long) range[0]);
+            maxId.set(range[1] == null ? 1 : (Long) range[1]);
+            names = session.createSelectionQuery("SELECT s.name FROM Student s WHERE s.name IS NOT NULL", String.class)
+                .setMaxResults(SAMPLE_NAMES)
+                .list();
+        }
+    }
+
+    private void client(long startAt, long end) {
+        List<Long> created = new ArrayList<>();
+        try {
+            sleepNanos(startAt - System.nanoTime());
+            activeClients.incrementAndGet();
+            try {
+                while (System.nanoTime() < end) {
+                    Op op = pick();
+                    long t0 = System.nanoTime();
+                    Outcome outcome;
+                    try (OperationMetrics.Scope scope = OperationMetrics.get().begin(op.label())) {
+                        try {
+                            outcome = execute(op, created);
+                        } catch (RuntimeException | Error ex) {
+                            // También un Error (StackOverflowError...): cuenta como fallo y el cliente sigue
+                            scope.failed();
+                            outcome = classify(ex);
+                            if (errorSamples.size() < MAX_ERROR_SAMPLES) {
+                                errorSamples.add(op.label() + ": " + ex);
+                            }
+                        }
+                    }
+                    long nanos = System.nanoTime() - t0;
+                    totals.get(op).record(nanos, outcome);
+                    window.get().record(nanos, outcome);
+                    if (thinkMillis > 0) {
+                        double think = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * thinkMillis;
+                        sleepNanos(Math.min((long) (think * 1_000_000), end - System.nanoTime()));
+                    }
+                }
+            } finally {
+                activeClients.decrementAndGet();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Op pick() {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Op, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private Outcome execute(Op op, List<Long> created) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (op) {
+            case READ -> service.read(randomId());
+            case PAGE -> {
+                StudentQuery.Order[] orders = StudentQuery.Order.values();
+                showQuery(StudentQuery.sorted(orders[random.nextInt(orders.length)]));
+            }
+            case SEARCH -> {
+                String name = names.isEmpty() ? "a" : names.get(random.nextInt(names.size()));
+                showQuery(service.nameSearch(name.substring(0, Math.min(3, name.length())) + "*"));
+            }
+            case AGE -> {
+                int min = random.nextInt(MIN_AGE, MAX_AGE);
+                showQuery(StudentQuery.ageBetween(min, min + random.nextInt(1, 6)));
+            }
+            case UPDATE -> {
+                // Como en el formulario: se lee, se edita y se guarda con la versión leída
+                StudentRow row = service.read(randomId());
+                if (row != null) {
+                    StudentService.Update update = service.update(row.id(), row.name(),
+                        random.nextInt(MIN_AGE, MAX_AGE), row.version());
+                    if (update != null && update.isConflict()) {
+                        return Outcome.CONFLICT;
+                    }
+                }
+            }
+            case CREATE -> {
+                StudentRow row = service.create("Carga " + Long.toString(random.nextLong(1L << 40), 36),
+                    random.nextInt(MIN_AGE, MAX_AGE));
+                maxId.accumulateAndGet(row.id(), Math::max);
+                created.add(row.id());
+            }
+            case DELETE -> {
+                // Solo los creados por este cliente: el volumen de la tabla se mantiene estable
+                if (!created.isEmpty()) {
+                    service.delete(created.remove(created.size() - 1));
+                }
+            }
+        }
+        return Outcome.OK;
+    }
+
+    // Lo que hace la interfaz al mostrar una vista: contarla y leer la primera página
+    private void showQuery(StudentQuery query) {
+        service.count(query);
+        service.page(query, null, StudentTableModel.PAGE_SIZE);
+    }
+
+    private long randomId() {
+        long min = minId.get();
+        return ThreadLocalRandom.current().nextLong(min, Math.max(min, maxId.get()) + 1);
+    }
+
+    /** Espera de bloqueo agotada (MySQL 1205, {@code LockTimeoutException}) frente a cualquier otro error. */
+    static Outcome classify(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof org.hibernate.exception.LockTimeoutException
+                    || t instanceof jakarta.persistence.LockTimeoutException
+                    || t instanceof org.hibernate.PessimisticLockException
+                    || (t instanceof SQLException sql && sql.getErrorCode() == 1205)) {
+                return Outcome.LOCK_TIMEOUT;
+            }
+        }
+        return Outcome.ERROR;
+    }
+
+    // El ritmo se calcula con lo que duró de verdad el intervalo: el último suele quedar parcial
+    private Interval closeWindow(long start) {
+        Counters closed = window.getAndSet(new Counters());
+        long now = System.nanoTime();
+        long windowNanos = Math.max(1, now - windowStart);
+        windowStart = now;
+        LatencyHistogram.Snapshot latency = closed.latency.snapshot();
+        long elapsed = now - start;
+        return new Interval(Math.round(elapsed / 1e9), activeClients.get(), latency.count(),
+            latency.count() / (windowNanos / 1e9), latency.p50Millis(), latency.p99Millis(), latency.p999Millis(),
+            closed.errors.sum(), closed.lockTimeouts.sum(), closed.conflicts.sum());
+    }
+
+    private Result result(double seconds, List<Interval> intervals) {
+        LatencyHistogram all = new LatencyHistogram();
+        List<OperationResult> byOperation = new ArrayList<>();
+        long errors = 0;
+        long lockTimeouts = 0;
+        long conflicts = 0;
+        for (Map.Entry<Op, Counters> entry : totals.entrySet()) {
+            Counters counters = entry.getValue();
+            byOperation.add(new OperationResult(entry.getKey().label(), counters.errors.sum(),
+                counters.lockTimeouts.sum(), counters.conflicts.sum(), counters.latency.snapshot()));
+            all.merge(counters.latency);
+            errors += counters.errors.sum();
+            lockTimeouts += counters.lockTimeouts.sum();
+            conflicts += counters.conflicts.sum();
+        }
+        LatencyHistogram.Snapshot latency = all.snapshot();
+        return new Result(latency.count(), seconds, errors, lockTimeouts, conflicts, latency, byOperation,
+            List.copyOf(intervals), List.copyOf(errorSamples));
+    }
+
+    private static void sleepNanos(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    /** Resultados en JSON: configuración, totales, operaciones e intervalos. */
+    public String toJson(Result result) {
+        try {
+            StringWriter out = new StringWriter();
+            out.write(String.format(Locale.ROOT,
+                "{\"timestamp\":\"%s\",\"profile\":\"%s\",\"config\":{\"clients\":%d,\"durationS\":%d,"
+                    + "\"rampUpS\":%d,\"thinkMs\":%d,\"intervalS\":%d,\"mix\":{",
+                Instant.now(), DatabaseProfile.current().getProfileName(), clients, duration.toSeconds(),
+                rampUp.toSeconds(), thinkMillis, interval.toSeconds()));
+            boolean first = true;
+            for (Map.Entry<Op, Integer> entry : mix.entrySet()) {
+                out.write((first ? "\"" : ",\"") + entry.getKey().key() + "\":" + entry.getValue());
+                first = false;
+            }
+            out.write(String.format(Locale.ROOT,
+                "}},\n\"totals\":{\"operations\":%d,\"seconds\":%.3f,\"perSecond\":%.3f,\"errors\":%d,"
+                    + "\"lockTimeouts\":%d,\"conflicts\":%d,\"latency\":",
+                result.operations(), result.seconds(), result.perSecond(), result.errors(), result.lockTimeouts(),
+                result.conflicts()));
+            OperationMetrics.writeHistogram(out, result.latency());
+            out.write("},\n\"operations\":[");
+            for (int i = 0; i < result.byOperation().size(); i++) {
+                OperationResult op = result.byOperation().get(i);
+                out.write(i == 0 ? "\n{\"operation\":" : ",\n{\"operation\":");
+                StudentExporter.writeJsonString(out, op.operation());
+                out.write(String.format(Locale.ROOT, ",\"errors\":%d,\"lockTimeouts\":%d,\"conflicts\":%d,\"latency\":",
+                    op.errors(), op.lockTimeouts(), op.conflicts()));
+                OperationMetrics.writeHistogram(out, op.latency());
+                out.write("}");
+            }
+            out.write("\n],\n\"intervals\":[");
+            for (int i = 0; i < result.intervals().size(); i++) {
+                Interval it = result.intervals().get(i);
+                out.write(i == 0 ? "\n" : ",\n");
+                out.write(String.format(Locale.ROOT,
+                    "{\"second\":%d,\"clients\":%d,\"operations\":%d,\"perSecond\":%.3f,\"p50Ms\":%.3f,"
+                        + "\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"errors\":%d,\"lockTimeouts\":%d,\"conflicts\":%d}",
+                    it.second(), it.clients(), it.operations(), it.perSecond(), it.p50Millis(), it.p99Millis(),
+                    it.p999Millis(), it.errors(), it.lockTimeouts(), it.conflicts()));
+            }
+            out.write("\n],\n\"errorSamples\":[");
+            writeStrings(out, result.errorSamples());
+            out.write("]}\n");
+            return out.toString();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void writeStrings(Writer out, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            out.write(i == 0 ? "" : ",");
+            StudentExporter.writeJsonString(out, values.get(i));
+        }
+    }
+
+    // Escritura atómica, como el volcado de métricas
+    public void writeResults(Result result, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        Files.writeString(tmp, toJson(result), StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        StudentLoadGenerator generator = new StudentLoadGenerator(HibernateUtil.getSessionFactory());
+        Path out = Path.of("load-results.json");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> generator.clients(Integer.parseInt(args[++i]));
+                case "--duration" -> generator.duration(Duration.ofSeconds(Long.parseLong(args[++i])));
+                case "--ramp-up" -> generator.rampUp(Duration.ofSeconds(Long.parseLong(args[++i])));
+                case "--think" -> generator.thinkMillis(Long.parseLong(args[++i]));
+                case "--interval" -> generator.interval(Duration.ofSeconds(Long.parseLong(args[++i])));
+                case "--mix" -> generator.mix(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                default -> {
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        try {
+            System.out.printf("%7s %8s %9s %9s %9s %9s %8s %9s %10s%n", "t (s)", "clientes", "op/s",
+                "p50 ms", "p99 ms", "p99.9 ms", "errores", "bloqueos", "conflictos");
+            Result result = generator.run(it -> System.out.printf(Locale.ROOT,
+                "%7d %8d %9.1f %9.2f %9.2f %9.2f %8d %9d %10d%n", it.second(), it.clients(), it.perSecond(),
+                it.p50Millis(), it.p99Millis(), it.p999Millis(), it.errors(), it.lockTimeouts(), it.conflicts()));
+            System.out.printf(Locale.ROOT, "Total: %,d operaciones en %.1f s, %,.1f op/s, p50 %.2f ms, p99 %.2f ms, "
+                    + "p99.9 %.2f ms, %d errores, %d esperas de bloqueo agotadas, %d conflictos%n",
+                result.operations(), result.seconds(), result.perSecond(), result.latency().p50Millis(),
+                result.latency().p99Millis(), result.latency().p999Millis(), result.errors(), result.lockTimeouts(),
+                result.conflicts());
+            result.errorSamples().forEach(System.out::println);
+            generator.writeResults(result, out);
+            System.out.println("Resultados en " + out.toAbsolutePath());
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+/**
+ * Rellena la columna {@code name_normalized} de las filas creadas antes de
+ * que existiera.
+ *
+ * <p>Con {@code hbm2ddl.auto=update} la columna se añade vacía; la
+ * normalización (quitar acentos) no es portable en SQL, así que se calcula
+ * en Java con {@link NameSearchIndex#normalize} y se escribe por lotes JDBC,
+ * un bloque de ids por transacción. Es idempotente: sin filas pendientes
+ * solo cuesta una consulta por el índice.</p>
+ */
+public final class StudentNameMigration {
+    static final int CHUNK_SIZE = 1000;
+
+    private StudentNameMigration() {
+    }
+
+    /** Devuelve cuántas filas se han rellenado. */
+    public static long backfillNormalizedNames(SessionFactory factory) {
+        long updated = 0;
+        long lastId = Long.MIN_VALUE;
+        while (true) {
+            try (Session session = factory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                List<Object[]> rows = session.createQuery(
+                        "SELECT s.id, s.name FROM Student s WHERE s.nameNormalized IS NULL AND s.name IS NOT NULL "
+                            + "AND s.id > :lastId ORDER BY s.id", Object[].class)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(CHUNK_SIZE)
+                    .list();
+                if (rows.isEmpty()) {
+                    tx.commit();
+                    return updated;
+                }
+
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "UPDATE Student SET name_normalized = ? WHERE id = ?")) {
+                        for (Object[] row : rows) {
+                            statement.setString(1, NameSearchIndex.normalize((String) row[1]));
+                            statement.setLong(2, (Long) row[0]);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                });
+                tx.commit();
+                updated += rows.size();
+                lastId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.Query;
+
+/**
+ * Describe una vista de la tabla de estudiantes (filtro + orden) y sabe
+ * leerla por páginas usando paginación por clave (keyset) sobre
+ * {@code (columna de orden, id)}.
+ *
+ * <p>Las páginas se devuelven como {@link StudentRow} (proyección por
+ * constructor) y el recorrido completo ({@link #scroll}) como
+ * {@code Object[]{id, name, age}}. Ninguna de las dos carga entidades: no
+ * quedan instantáneas en el contexto de persistencia ni nada que revisar en
+ * el flush.</p>
+ *
+ * <p>Para aplicar cambios sueltos sin releer la vista, {@link #matches} y
+ * {@link Order#comparator()} reproducen en memoria el filtro y el orden de
+ * la consulta.</p>
+ *
+ * <p>Cada combinación de filtro, orden y tipo de lectura es una consulta con
+ * nombre que {@link #registerNamedQueries} compila al crear la
+ * {@code SessionFactory}: un HQL erróneo falla al arrancar y las peticiones
+ * nunca vuelven a analizar HQL.</p>
+ */
+public final class StudentQuery {
+
+    /**
+     * Criterios de orden soportados; {@code ID} es el orden natural de la
+     * tabla. Los nombres nulos van como el menor valor: primero en orden
+     * ascendente y al final en descendente.
+     */
+    public enum Order {
+        ID(null, true, false),
+        // Por el nombre normalizado: indexado y sin distinguir mayúsculas ni acentos
+        NAME_ASC("nameNormalized", true, true),
+        NAME_DESC("nameNormalized", false, true),
+        AGE_ASC("age", true, false),
+        AGE_DESC("age", false, false);
+
+        private final String column;
+        private final boolean ascending;
+        private final boolean nullable;
+
+        Order(String column, boolean ascending, boolean nullable) {
+            this.column = column;
+            this.ascending = ascending;
+            this.nullable = nullable;
+        }
+
+        // NULLS FIRST/LAST es el orden por defecto de MySQL: Hibernate no lo escribe y se sigue usando el índice
+        private String orderBy() {
+            String dir = ascending ? "ASC" : "DESC";
+            if (column == null) {
+                return "s.id " + dir;
+            }
+            String nulls = !nullable ? "" : ascending ? " NULLS FIRST" : " NULLS LAST";
+            return "s." + column + " " + dir + nulls + ", s.id " + dir;
+        }
+
+        /** Mismo orden que {@code ORDER BY}, para colocar una fila en la vista sin consultar. */
+        public Comparator<StudentRow> comparator() {
+            Comparator<StudentRow> byKey = switch (this) {
+                case ID -> Comparator.comparingLong(StudentRow::id);
+                case NAME_ASC, NAME_DESC -> Comparator.comparing(
+                        (StudentRow row) -> row.name() == null ? null : NameSearchIndex.normalize(row.name()),
+                        Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparingLong(StudentRow::id);
+                case AGE_ASC, AGE_DESC -> Comparator.comparingInt(StudentRow::age).thenComparingLong(StudentRow::id);
+            };
+            return ascending ? byKey : byKey.reversed();
+        }
+
+        // Filas posteriores a (lastKey, lastId); con nullKey, la última fila leída tenía la clave nula
+        private String keysetPredicate(boolean nullKey) {
+            String op = ascending ? ">" : "<";
+            if (column == null) {
+                return "s.id " + op + " :lastId";
+            }
+            String col = "s." + column;
+            if (nullKey) {
+                // Los nulos van delante en ascendente (siguen los no nulos) y detrás en descendente
+                return ascending
+                    ? "((" + col + " IS NULL AND s.id > :lastId) OR " + col + " IS NOT NULL)"
+                    : "(" + col + " IS NULL AND s.id < :lastId)";
+            }
+            String predicate = col + " " + op + " :lastKey OR (" + col + " = :lastKey AND s.id " + op + " :lastId)";
+            return "(" + predicate + (nullable && !ascending ? " OR " + col + " IS NULL" : "") + ")";
+        }
+    }
+
+    // Variantes de una consulta de página: desde el principio o tras una clave (nula o no)
+    private enum Keyset {
+        NONE(""),
+        AFTER(".after"),
+        AFTER_NULL(".afterNull");
+
+        private final String suffix;
+
+        Keyset(String suffix) {
+            this.suffix = suffix;
+        }
+
+        private static Keyset of(Order order, Object[] after) {
+            return after == null ? NONE : after[0] == null && order.nullable ? AFTER_NULL : AFTER;
+        }
+    }
+
+    // Filtros soportados, con su condición HQL
+    private enum Where {
+        ALL(null),
+        NAME_CONTAINS("LOWER(s.name) LIKE LOWER(:name) ESCAPE '!'"),
+        NAME_PREFIX("s.nameNormalized LIKE :prefix ESCAPE '!'"),
+        IDS("s.id IN (:ids)"),
+        AGE_BETWEEN("s.age BETWEEN :minAge AND :maxAge"),
+        AGE_GREATER("s.age > :age"),
+        AGE_LESS("s.age < :age"),
+        AGE_EQUALS("s.age = :age");
+
+        private final String predicate;
+
+        Where(String predicate) {
+            this.predicate = predicate;
+        }
+    }
+
+    private static final String ROW_SELECT = "SELECT new com.example.StudentRow(s.id, s.name, s.age, s.version)";
+    private static final String ARRAY_SELECT = "SELECT s.id, s.name, s.age";
+
+    private final Where where;
+    private final Map<String, Object> parameters;
+    private final Order order;
+    private final boolean cacheable;
+    private final long[] ids;
+    private final Predicate<StudentRow> filter;
+
+    private StudentQuery(Where where, Map<String, Object> parameters, Order order, Predicate<StudentRow> filter) {
+        this(where, parameters, order, true, null, filter);
+    }
+
+    private StudentQuery(Where where, Map<String, Object> parameters, Order order, boolean cacheable, long[] ids,
+                         Predicate<StudentRow> filter) {
+        this.where = where;
+        this.parameters = parameters;
+        this.order = order;
+        this.cacheable = cacheable;
+        this.ids = ids;
+        this.filter = filter;
+    }
+
+    public static StudentQuery all() {
+        return new StudentQuery(Where.ALL, Map.of(), Order.ID, row -> true);
+    }
+
+    public static StudentQuery sorted(Order order) {
+        return new StudentQuery(Where.ALL, Map.of(), order, row -> true);
+    }
+
+    public static StudentQuery nameContains(String term) {
+        String lower = term.toLowerCase(Locale.ROOT);
+        // Términos libres: cachearlos solo llenaría la región de resultados irrepetibles
+        return new StudentQuery(Where.NAME_CONTAINS, Map.of("name", "%" + escapeLike(term) + "%"), Order.ID, false,
+            null, row -> row.name() != null && row.name().toLowerCase(Locale.ROOT).contains(lower));
+    }
+
+    /**
+     * Nombres que empiezan por {@code prefix} sin distinguir mayúsculas ni
+     * acentos, ordenados por nombre: un rango sobre el índice de
+     * {@code name_normalized}.
+     */
+    public static StudentQuery nameStartsWith(String prefix) {
+        String normalized = NameSearchIndex.normalize(prefix).strip();
+        return new StudentQuery(Where.NAME_PREFIX, Map.of("prefix", escapeLike(normalized) + "%"),
+            Order.NAME_ASC, false, null,
+            row -> row.name() != null && NameSearchIndex.normalize(row.name()).startsWith(normalized));
+    }
+
+    /**
+     * Vista sobre un conjunto de ids ya conocido (p. ej. el resultado de
+     * {@link NameSearchIndex#search}), que debe venir ordenado. Cada página
+     * consulta solo sus propios ids con {@code IN}, así que el tamaño del
+     * conjunto no afecta al coste de una página.
+     *
+     * <p>El conjunto es fijo: una fila pertenece a la vista si su id está en
+     * él, aunque luego cambie su nombre.</p>
+     */
+    public static StudentQuery idsIn(long[] sortedIds) {
+        return new StudentQuery(Where.IDS, Map.of("ids", boxed(sortedIds, 0, sortedIds.length)),
+            Order.ID, false, sortedIds, row -> Arrays.binarySearch(sortedIds, row.id()) >= 0);
+    }
+
+    // % y _ del término se buscan literalmente (ESCAPE '!')
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    public static StudentQuery ageBetween(int minAge, int maxAge) {
+        return new StudentQuery(Where.AGE_BETWEEN,
+            Map.of("minAge", minAge, "maxAge", maxAge), Order.ID, row -> row.age() >= minAge && row.age() <= maxAge);
+    }
+
+    public static StudentQuery ageGreaterThan(int age) {
+        return new StudentQuery(Where.AGE_GREATER, Map.of("age", age), Order.ID, row -> row.age() > age);
+    }
+
+    public static StudentQuery ageLessThan(int age) {
+        return new StudentQuery(Where.AGE_LESS, Map.of("age", age), Order.ID, row -> row.age() < age);
+    }
+
+    public static StudentQuery ageEquals(int age) {
+        return new StudentQuery(Where.AGE_EQUALS, Map.of("age", age), Order.ID, row -> row.age() == age);
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    /** Indica si la fila cumple el filtro de la vista, evaluado en memoria. */
+    public boolean matches(StudentRow row) {
+        return filter.test(row);
+    }
+
+    /**
+     * La misma vista sin la fila {@code id}. Solo cambia algo en las vistas
+     * sobre un conjunto de ids, cuyas páginas se calculan por posición en
+     * ese conjunto; las demás ya no la encuentran en la base de datos.
+     */
+    public StudentQuery withoutId(long id) {
+        int pos = ids == null ? -1 : Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return this;
+        }
+        long[] remaining = new long[ids.length - 1];
+        System.arraycopy(ids, 0, remaining, 0, pos);
+        System.arraycopy(ids, pos + 1, remaining, pos, remaining.length - pos);
+        return idsIn(remaining);
+    }
+
+    public long count(SharedSessionContract session) {
+        if (ids != null) {
+            return ids.length;
+        }
+        Query<Long> query = session.createNamedQuery(countName(where), Long.class);
+        parameters.forEach(query::setParameter);
+        cache(query);
+        return query.uniqueResult();
+    }
+
+    /**
+     * Identifica el conteo por su consulta y sus parámetros: dos vistas con la
+     * misma clave devuelven lo mismo ({@link StudentReads}). {@code null} si
+     * no consulta la base de datos.
+     */
+    String countKey() {
+        return ids != null ? null : countName(where) + " " + new TreeMap<>(parameters);
+    }
+
+    /** Como {@link #countKey()}, para la página que devolvería {@link #fetch}. */
+    String pageKey(Object[] after, int skip, int limit) {
+        if (ids != null) {
+            // Solo importa qué ids caen en la página
+            int[] range = idRange(after, skip, limit);
+            return "ids " + Arrays.toString(Arrays.copyOfRange(ids, range[0], range[1]));
+        }
+        return selectName(where, order, Keyset.of(order, after), false) + " " + new TreeMap<>(parameters)
+            + " after=" + Arrays.toString(after) + " skip=" + skip + " limit=" + limit;
+    }
+
+    /**
+     * Lee una página. Si {@code after} no es nulo, la página empieza justo
+     * después de esa clave (obtenida con {@link #keyOf(Object[])}) y
+     * {@code skip} filas más allá; si es nulo, {@code skip} cuenta desde el
+     * principio de la vista.
+     */
+    public List<StudentRow> fetch(SharedSessionContract session, Object[] after, int skip, int limit) {
+        if (ids != null) {
+            return fetchIds(session, after, skip, limit);
+        }
+        return select(session, after, false, StudentRow.class).setFirstResult(skip).setMaxResults(limit).list();
+    }
+
+    private List<StudentRow> fetchIds(SharedSessionContract session, Object[] after, int skip, int limit) {
+        int[] range = idRange(after, skip, limit);
+        if (range[0] == range[1]) {
+            return List.of();
+        }
+        return new StudentQuery(where, Map.of("ids", boxed(ids, range[0], range[1])), Order.ID, false, null, filter)
+            .select(session, null, false, StudentRow.class).list();
+    }
+
+    // Posiciones [desde, hasta) de la página dentro de ids
+    private int[] idRange(Object[] after, int skip, int limit) {
+        int start = 0;
+        if (after != null) {
+            int pos = Arrays.binarySearch(ids, (Long) after[1]);
+            start = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+        start = Math.min(ids.length, start + skip);
+        return new int[]{start, Math.min(ids.length, start + limit)};
+    }
+
+    private static List<Long> boxed(long[] values, int from, int to) {
+        return Arrays.stream(values, from, to).boxed().toList();
+    }
+
+    /**
+     * La vista en tramos consecutivos para recorrerla con {@link #scroll}: una
+     * vista sobre un conjunto de ids se parte en tramos de como mucho
+     * {@code maxIds} ids, cada uno con su propio {@code IN}, en lugar de
+     * enviar todos en una sola sentencia. Las demás vistas son un único
+     * tramo.
+     */
+    public List<StudentQuery> parts(int maxIds) {
+        if (ids == null || ids.length <= maxIds) {
+            return List.of(this);
+        }
+        List<StudentQuery> parts = new ArrayList<>();
+        for (int from = 0; from < ids.length; from += maxIds) {
+            int to = Math.min(ids.length, from + maxIds);
+            parts.add(new StudentQuery(where, Map.of("ids", boxed(ids, from, to)), Order.ID, false, null, filter));
+        }
+        return parts;
+    }
+
+    /**
+     * Recorre toda la vista con un cursor de solo avance. Con MySQL, el
+     * {@code fetchSize} y {@code useCursorFetch=true} en la URL hacen que el
+     * driver traiga las filas por tandas en lugar de cargarlas todas. Una
+     * vista sobre muchos ids se recorre mejor por tramos ({@link #parts}).
+     */
+    public ScrollableResults<Object[]> scroll(SharedSessionContract session, int fetchSize) {
+        return select(session, null, true, Object[].class).setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /**
+     * Compila y registra en {@code factory} todas las consultas con nombre
+     * que usa esta clase. Se llama una vez al crear la {@code SessionFactory}
+     * (ver {@link DatabaseProfile#configuration()}).
+     */
+    static void registerNamedQueries(SessionFactory factory) {
+        try (Session session = factory.openSession()) {
+            for (Where where : Where.values()) {
+                factory.addNamedQuery(countName(where), session.createQuery(countHql(where), Long.class));
+                for (Order order : Order.values()) {
+                    for (Keyset keyset : Keyset.values()) {
+                        if (keyset != Keyset.AFTER_NULL || order.nullable) {
+                            factory.addNamedQuery(selectName(where, order, keyset, false),
+                                session.createQuery(selectHql(where, order, keyset, ROW_SELECT), StudentRow.class));
+                        }
+                    }
+                    factory.addNamedQuery(selectName(where, order, Keyset.NONE, true),
+                        session.createQuery(selectHql(where, order, Keyset.NONE, ARRAY_SELECT), Object[].class));
+                }
+            }
+        }
+    }
+
+    private static String countName(Where where) {
+        return "StudentQuery.count." + where;
+    }
+
+    private static String selectName(Where where, Order order, Keyset keyset, boolean scroll) {
+        return "StudentQuery." + (scroll ? "scroll." : "page.") + where + "." + order + keyset.suffix;
+    }
+
+    private static String countHql(Where where) {
+        return "SELECT COUNT(s) FROM Student s" + (where.predicate == null ? "" : " WHERE " + where.predicate);
+    }
+
+    private static String selectHql(Where where, Order order, Keyset keyset, String selectClause) {
+        StringBuilder hql = new StringBuilder(selectClause).append(" FROM Student s");
+        String predicate = where.predicate;
+        if (keyset != Keyset.NONE) {
+            String after = order.keysetPredicate(keyset == Keyset.AFTER_NULL);
+            predicate = predicate == null ? after : predicate + " AND " + after;
+        }
+        if (predicate != null) {
+            hql.append(" WHERE ").append(predicate);
+        }
+        return hql.append(" ORDER BY ").append(order.orderBy()).toString();
+    }
+
+    private <R> Query<R> select(SharedSessionContract session, Object[] after, boolean scroll, Class<R> type) {
+        Query<R> query = session.createNamedQuery(selectName(where, order, Keyset.of(order, after), scroll), type);
+        parameters.forEach(query::setParameter);
+        if (after != null) {
+            if (order.column != null && after[0] != null) {
+                query.setParameter("lastKey", after[0]);
+            }
+            query.setParameter("lastId", after[1]);
+        }
+        cache(query);
+        return query;
+    }
+
+    private void cache(Query<?> query) {
+        if (cacheable) {
+            query.setCacheable(true).setCacheRegion(StudentCache.QUERY_REGION);
+        }
+    }
+
+    /** Clave de paginación de una fila devuelta por {@link #fetch}. */
+    public Object[] keyOf(StudentRow row) {
+        Object sortValue = switch (order) {
+            case ID -> null;
+            case NAME_ASC, NAME_DESC -> row.name() == null ? null : NameSearchIndex.normalize(row.name());
+            case AGE_ASC, AGE_DESC -> row.age();
+        };
+        return new Object[]{sortValue, row.id()};
+    }
+}
@@ -0,0 +1,171 @@
+package com.example;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Lecturas compartidas ("single flight"): si llega una lectura idéntica (mismo
+ * HQL y mismos parámetros) a otra que aún se está ejecutando, espera su
+ * resultado en lugar de lanzar otra consulta y ocupar otra conexión. Cuando
+ * muchos clientes cargan la misma vista a la vez, solo una petición por
+ * consulta distinta llega a la base de datos.
+ *
+ * <p>Solo se comparten ejecuciones en curso; no es una caché: en cuanto la
+ * consulta termina, la siguiente petición vuelve a ejecutarla. Tras una
+ * escritura se llama a {@link #invalidate()} para que ninguna lectura
+ * posterior se una a una consulta empezada antes del commit. Las listas
+ * devueltas se comparten entre quienes esperaban: no deben modificarse.</p>
+ *
+ * <p>Los métodos síncronos ejecutan la consulta en el propio hilo si no hay
+ * otra igual en curso (las fases se atribuyen a su operación en
+ * {@link OperationMetrics}); los asíncronos, en un hilo virtual.</p>
+ */
+public class StudentReads {
+    private static final LongAdder requests = new LongAdder();
+    private static final LongAdder executions = new LongAdder();
+
+    /** Peticiones recibidas y consultas ejecutadas desde el arranque, en todo el proceso. */
+    public record Stats(long requests, long executions) {
+        public long shared() {
+            return requests - executions;
+        }
+
+        public double sharedRatio() {
+            return requests == 0 ? 0 : shared() / (double) requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Lecturas compartidas: %.0f%% (%d de %d)", sharedRatio() * 100, shared(), requests);
+        }
+    }
+
+    private final Supplier<SessionFactory> factory;
+    private final ConcurrentHashMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public StudentReads(Supplier<SessionFactory> factory) {
+        this.factory = factory;
+    }
+
+    public static Stats stats() {
+        return new Stats(requests.sum(), executions.sum());
+    }
+
+    public CompletableFuture<Long> countAsync(StudentQuery query) {
+        return async(query.countKey(), query::count);
+    }
+
+    public CompletableFuture<List<StudentRow>> pageAsync(StudentQuery query, Object[] after, int limit) {
+        return async(query.pageKey(after, 0, limit), session -> query.fetch(session, after, 0, limit));
+    }
+
+    public CompletableFuture<StudentRow> readAsync(long id) {
+        return async(readKey(id), session -> read(session, id));
+    }
+
+    public long count(StudentQuery query) {
+        return call(query.countKey(), query::count);
+    }
+
+    public List<StudentRow> page(StudentQuery query, Object[] after, int limit) {
+        return call(query.pageKey(after, 0, limit), session -> query.fetch(session, after, 0, limit));
+    }
+
+    public StudentRow read(long id) {
+        return call(readKey(id), session -> read(session, id));
+    }
+
+    /** Las lecturas en curso siguen respondiendo a quienes ya esperaban, pero ninguna nueva se une a ellas. */
+    public void invalidate() {
+        inFlight.clear();
+    }
+
+    private static String readKey(long id) {
+        return "get Student " + id;
+    }
+
+    private static StudentRow read(Session session, long id) {
+        Student student = session.get(Student.class, id);
+        return student == null ? null : StudentRow.of(student);
+    }
+
+    // Si key es null la consulta nunca se comparte
+    <T> T call(String key, Function<Session, T> work) {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> running = join(key, mine);
+        if (running == mine) {
+            execute(key, mine, work);
+        }
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            // La misma excepción que lanzaría la consulta ejecutada por este hilo
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+
+    <T> CompletableFuture<T> async(String key, Function<Session, T> work) {
+        CompletableFuture<T> mine = new CompletableFuture<>();
+        CompletableFuture<T> running = join(key, mine);
+        if (running == mine) {
+            executor.execute(() -> {
+                try (OperationMetrics.Scope scope = OperationMetrics.get().begin("lectura compartida")) {
+                    execute(key, mine, work);
+                    if (mine.isCompletedExceptionally()) {
+                        scope.failed();
+                    }
+                }
+            });
+        }
+        // Una copia: quien la reciba no puede completar la compartida
+        return running.copy();
+    }
+
+    // La ejecución en curso con esa clave, o mine si se registra como nueva
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> join(String key, CompletableFuture<T> mine) {
+        requests.increment();
+        if (key == null) {
+            return mine;
+        }
+        CompletableFuture<T> running = (CompletableFuture<T>) inFlight.putIfAbsent(key, mine);
+        return running == null ? mine : running;
+    }
+
+    private <T> void execute(String key, CompletableFuture<T> mine, Function<Session, T> work) {
+        executions.increment();
+        try (Session session = HibernateUtil.openReadOnlySession(factory.get())) {
+            T result = work.apply(session);
+            // Antes de completar: quien llegue después ejecuta de nuevo
+            release(key, mine);
+            mine.complete(result);
+        } catch (RuntimeException | Error ex) {
+            // Quienes esperaban reciben el mismo error, nunca se quedan bloqueados
+            release(key, mine);
+            mine.completeExceptionally(ex);
+        }
+    }
+
+    private void release(String key, CompletableFuture<?> mine) {
+        if (key != null) {
+            inFlight.remove(key, mine);
+        }
+    }
+}
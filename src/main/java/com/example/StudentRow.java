@@ -0,0 +1,17 @@
+package com.example;
+
+/**
+ * Fila de solo lectura de la tabla de estudiantes, construida directamente
+ * por la consulta ({@code SELECT new com.example.StudentRow(...)}). A
+ * diferencia de {@link Student}, no es una entidad: Hibernate no guarda
+ * instantánea ni la revisa en el flush.
+ *
+ * <p>{@code version} es la de {@link Student#getVersion()}: permite detectar
+ * al actualizar que otro usuario modificó la fila mientras se editaba.</p>
+ */
+public record StudentRow(long id, String name, int age, long version) {
+
+    public static StudentRow of(Student student) {
+        return new StudentRow(student.getId(), student.getName(), student.getAge(), student.getVersion());
+    }
+}
@@ -0,0 +1,770 @@
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Modo servidor sin interfaz: expone las operaciones de {@link Main} como API
+ * JSON sobre el servidor HTTP del JDK, con la misma capa de persistencia
+ * ({@link StudentService}).
+ *
+ * <p>Cada petición se atiende en su propio hilo virtual, así que miles de
+ * peticiones simultáneas no agotan hilos. Las que llegan a la base de datos
+ * a la vez se limitan al tamaño del pool de conexiones: las demás esperan
+ * (aparcadas, sin ocupar hilo de plataforma) hasta {@link #ADMISSION_TIMEOUT_MS}
+ * y después reciben 503, en lugar de acumularse en la espera del pool. El
+ * cuerpo se lee y se valida antes de pedir turno, así que un cliente lento
+ * no ocupa un hueco; {@code PATCH} pide turno para cada bloque.</p>
+ *
+ * <pre>
+ * GET    /students?sort=&amp;name=&amp;minAge=&amp;maxAge=&amp;olderThan=&amp;youngerThan=&amp;age=&amp;limit=&amp;cursor=
+ * GET    /students/count            (mismos filtros)
+ * GET    /students/{id}
+ * POST   /students                  {"name": "Ana", "age": 20}
+ * PATCH  /students                  {"id": 1, "age": 21}  (una línea por cambio, name y/o age)
+ * PUT    /students/{id}             {"name": "Ana", "age": 21, "version": 0}
+ * DELETE /students/{id}
+ * DELETE /students?confirm=true
+ * POST   /students/ages             {"increment": 1}
+ * </pre>
+ *
+ * <p>Los listados se paginan por clave: la respuesta incluye {@code next},
+ * que se pasa como {@code cursor} para pedir la página siguiente.</p>
+ *
+ * <p>{@code PATCH /students} recibe un objeto JSON por línea y lo aplica en
+ * bloques a medida que lo lee ({@link StudentBatchUpdater}), sin límite de
+ * tamaño del cuerpo. Responde con las filas actualizadas por bloque; si una
+ * línea no es válida (400) o un bloque no consigue turno (503), los bloques
+ * anteriores ya están confirmados y la respuesta los incluye.</p>
+ */
+public class StudentServer implements HttpHandler {
+    public static final String PORT = "app.http.port";
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final long ADMISSION_TIMEOUT_MS = 5000;
+    private static final int SYNC_INTERVAL_S = 5;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    // Conexiones pendientes de aceptar: el valor por defecto del sistema (50) rechaza ráfagas grandes
+    private static final int BACKLOG = 4096;
+
+    private final Supplier<SessionFactory> factory;
+    private final NameSearchIndex nameIndex = new NameSearchIndex();
+    private final StudentService service;
+    private final StudentSync sync = new StudentSync();
+    private final Semaphore inFlight;
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService indexSync;
+
+    private record Response(int status, String body) {
+    }
+
+    // Petición mal formada: 400 con el mensaje
+    private static final class BadRequest extends RuntimeException {
+        private BadRequest(String message) {
+            super(message);
+        }
+    }
+
+    // Sin turno para la base de datos: 503 con el mensaje
+    private static final class Unavailable extends RuntimeException {
+        private final boolean retry;
+
+        private Unavailable(String message, boolean retry) {
+            super(message);
+            this.retry = retry;
+        }
+    }
+
+    /** @param maxInFlight peticiones que pueden usar la base de datos a la vez (el tamaño del pool) */
+    public StudentServer(Supplier<SessionFactory> factory, int maxInFlight) {
+        this.factory = factory;
+        this.service = new StudentService(factory, nameIndex);
+        this.inFlight = new Semaphore(maxInFlight, true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger(PORT, DEFAULT_PORT);
+        SessionFactory factory = HibernateUtil.getSessionFactory();
+        int poolSize = Integer.parseInt(String.valueOf(
+            factory.getProperties().getOrDefault(PooledConnectionProvider.MAX_SIZE, "10")));
+
+        StudentServer server = new StudentServer(HibernateUtil::getSessionFactory, poolSize);
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            HibernateUtil.shutdown();
+        }));
+        System.out.println("Servidor de estudiantes en http://localhost:" + server.getPort() + "/students");
+    }
+
+    /** Arranca en {@code port} (0 elige uno libre) y carga el índice de nombres en segundo plano. */
+    public void start(int port) throws IOException {
+        try (Session session = HibernateUtil.openReadOnlySession(factory.get())) {
+            sync.reset(session);
+        }
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/students", this);
+        server.setExecutor(executor);
+        server.start();
+
+        Thread.ofVirtual().name("name-index").start(() -> nameIndex.rebuild(factory.get()));
+        indexSync = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("name-index-sync").daemon().factory());
+        indexSync.scheduleWithFixedDelay(this::syncNameIndex, SYNC_INTERVAL_S, SYNC_INTERVAL_S, TimeUnit.SECONDS);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Huecos libres para usar la base de datos
+    int availableAdmissions() {
+        return inFlight.availablePermits();
+    }
+
+    public void stop() {
+        if (indexSync != null) {
+            indexSync.shutdownNow();
+        }
+        if (server != null) {
+            server.stop(0);
+            executor.close();
+        }
+    }
+
+    // Lleva al índice de nombres los cambios de otros clientes (StudentSync)
+    private void syncNameIndex() {
+        try (Session session = HibernateUtil.openReadOnlySession(factory.get())) {
+            StudentSync.Delta delta = sync.fetch(session);
+            if (delta.reloadAll()) {
+                nameIndex.rebuild(factory.get());
+                return;
+            }
+            delta.changed().forEach(row -> nameIndex.put(row.id(), row.name()));
+            delta.deleted().forEach(deletion -> nameIndex.remove(deletion.getStudentId()));
+        } catch (RuntimeException ex) {
+            System.err.println("No se pudo sincronizar el índice de nombres: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = route(exchange).get();
+            } catch (BadRequest ex) {
+                response = error(400, ex.getMessage());
+            } catch (Unavailable ex) {
+                if (ex.retry) {
+                    exchange.getResponseHeaders().set("Retry-After", "1");
+                }
+                response = error(503, ex.getMessage());
+            } catch (RuntimeException ex) {
+                System.err.println("Error en " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + ex);
+                response = error(500, "Error interno: " + ex.getMessage());
+            }
+            send(exchange, response);
+        }
+    }
+
+    // Lee la petición (ruta, parámetros y cuerpo) sin usar la base de datos y devuelve el trabajo que sí la usa
+    private Supplier<Response> route(HttpExchange exchange) {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath().substring("/students".length());
+        if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (!path.isEmpty() && !path.startsWith("/")) {
+            return () -> error(404, "Ruta no encontrada");
+        }
+        Map<String, String> params = queryParams(exchange.getRequestURI().getRawQuery());
+
+        switch (path) {
+            case "" -> {
+                return switch (method) {
+                    case "GET" -> admitted("http listar estudiantes", () -> list(params));
+                    case "POST" -> {
+                        Map<String, Object> body = readBody(exchange);
+                        yield admitted("http crear estudiante", () -> create(body));
+                    }
+                    // Pide turno bloque a bloque
+                    case "PATCH" -> () -> measured("http actualizar en lote", () -> patch(exchange));
+                    case "DELETE" -> admitted("http eliminar todos los estudiantes", () -> deleteAll(params));
+                    default -> StudentServer::methodNotAllowed;
+                };
+            }
+            case "/count" -> {
+                return method.equals("GET")
+                    ? admitted("http contar estudiantes",
+                        () -> json(200, "{\"count\":" + service.count(query(params)) + "}"))
+                    : StudentServer::methodNotAllowed;
+            }
+            case "/ages" -> {
+                if (!method.equals("POST")) {
+                    return StudentServer::methodNotAllowed;
+                }
+                Map<String, Object> body = readBody(exchange);
+                return admitted("http actualizar edades", () -> incrementAges(body));
+            }
+            default -> {
+                long id = parseId(path.substring(1));
+                return switch (method) {
+                    case "GET" -> admitted("http leer estudiante", () -> read(id));
+                    case "PUT" -> {
+                        Map<String, Object> body = readBody(exchange);
+                        yield admitted("http actualizar estudiante", () -> update(id, body));
+                    }
+                    case "DELETE" -> admitted("http eliminar estudiante", () -> delete(id));
+                    default -> StudentServer::methodNotAllowed;
+                };
+            }
+        }
+    }
+
+    // Espera turno (hasta ADMISSION_TIMEOUT_MS) y mide solo el trabajo con la base de datos
+    private Supplier<Response> admitted(String operation, Supplier<Response> work) {
+        return () -> {
+            Runnable release = admit();
+            try {
+                return measured(operation, work);
+            } finally {
+                release.run();
+            }
+        };
+    }
+
+    private Runnable admit() {
+        try {
+            if (!inFlight.tryAcquire(ADMISSION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new Unavailable("Servidor ocupado, reintente más tarde", true);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new Unavailable("Servidor deteniéndose", false);
+        }
+        return inFlight::release;
+    }
+
+    private static Response measured(String operation, Supplier<Response> work) {
+        try (OperationMetrics.Scope scope = OperationMetrics.get().begin(operation)) {
+            try {
+                return work.get();
+            } catch (RuntimeException ex) {
+                scope.failed();
+                throw ex;
+            }
+        }
+    }
+
+    private Response list(Map<String, String> params) {
+        StudentQuery query = query(params);
+        int limit = intParam(params, "limit", DEFAULT_PAGE_SIZE);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequest("limit debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        String cursor = params.get("cursor");
+        List<StudentRow> rows = service.page(query, cursor == null ? null : decodeCursor(query, cursor), limit);
+
+        StringBuilder body = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < rows.size(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(toJson(rows.get(i)));
+        }
+        body.append("],\"next\":");
+        if (rows.size() == limit) {
+            body.append('"').append(encodeCursor(query.keyOf(rows.get(rows.size() - 1)))).append('"');
+        } else {
+            body.append("null");
+        }
+        return json(200, body.append('}').toString());
+    }
+
+    private Response create(Map<String, Object> body) {
+        StudentRow row = service.create(requiredString(body, "name"), requiredInt(body, "age"));
+        return json(201, toJson(row));
+    }
+
+    private Response read(long id) {
+        StudentRow row = service.read(id);
+        return row == null ? notFound(id) : json(200, toJson(row));
+    }
+
+    private Response update(long id, Map<String, Object> body) {
+        Object version = body.get("version");
+        if (version != null && !(version instanceof Long)) {
+            throw new BadRequest("version debe ser un número entero");
+        }
+        StudentService.Update update = service.update(id, requiredString(body, "name"), requiredInt(body, "age"),
+            (Long) version);
+        if (update == null) {
+            return notFound(id);
+        }
+        if (update.isConflict()) {
+            return json(409, "{\"error\":" + jsonString("El estudiante fue modificado por otro cliente")
+                + ",\"current\":" + toJson(update.before()) + "}");
+        }
+        return json(200, toJson(update.after()));
+    }
+
+    private Response patch(HttpExchange exchange) {
+        List<StudentBatchUpdater.ChunkResult> chunks = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            service.patch(new PatchLines(in), this::admit, chunks::add);
+            return json(200, patchSummary(chunks, null));
+        } catch (BadRequest ex) {
+            return json(400, patchSummary(chunks, ex.getMessage()));
+        } catch (Unavailable ex) {
+            if (ex.retry) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            return json(503, patchSummary(chunks, ex.getMessage()));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String patchSummary(List<StudentBatchUpdater.ChunkResult> chunks, String error) {
+        StringBuilder body = new StringBuilder("{");
+        if (error != null) {
+            body.append("\"error\":").append(jsonString(error)).append(',');
+        }
+        long patches = 0;
+        long updated = 0;
+        StringBuilder items = new StringBuilder();
+        for (StudentBatchUpdater.ChunkResult chunk : chunks) {
+            patches += chunk.patches();
+            updated += chunk.rowsAffected();
+            items.append(items.isEmpty() ? "" : ",").append("{\"patches\":").append(chunk.patches())
+                .append(",\"updated\":").append(chunk.rowsAffected()).append('}');
+        }
+        return body.append("\"patches\":").append(patches).append(",\"updated\":").append(updated)
+            .append(",\"chunks\":[").append(items).append("]}").toString();
+    }
+
+    // Cambios del cuerpo de PATCH, leídos línea a línea según los pide el actualizador
+    private static final class PatchLines implements Iterator<StudentBatchUpdater.Patch> {
+        private final BufferedReader in;
+        private int lineNumber;
+        private StudentBatchUpdater.Patch next;
+
+        private PatchLines(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                String line;
+                while (next == null && (line = in.readLine()) != null) {
+                    lineNumber++;
+                    if (line.length() > MAX_BODY_BYTES) {
+                        throw new BadRequest("línea " + lineNumber + ": demasiado larga");
+                    }
+                    if (!line.isBlank()) {
+                        next = parse(line);
+                    }
+                }
+                return next != null;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public StudentBatchUpdater.Patch next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StudentBatchUpdater.Patch patch = next;
+            next = null;
+            return patch;
+        }
+
+        private StudentBatchUpdater.Patch parse(String line) {
+            try {
+                Map<String, Object> body = parseObject(line);
+                if (!(body.get("id") instanceof Long id)) {
+                    throw new BadRequest("Falta el campo id");
+                }
+                String name = body.get("name") == null ? null : requiredString(body, "name");
+                Integer age = body.get("age") == null ? null : requiredInt(body, "age");
+                if (name == null && age == null) {
+                    throw new BadRequest("Falta el campo name o age");
+                }
+                return new StudentBatchUpdater.Patch(id, name, age);
+            } catch (BadRequest ex) {
+                throw new BadRequest("línea " + lineNumber + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    private Response delete(long id) {
+        return service.delete(id) == null ? notFound(id) : new Response(204, null);
+    }
+
+    private Response deleteAll(Map<String, String> params) {
+        if (!"true".equals(params.get("confirm"))) {
+            throw new BadRequest("Para eliminar todos los estudiantes añada confirm=true");
+        }
+        long deleted = service.deleteAll(false, progress -> { }).rows();
+        resetSync();
+        return json(200, "{\"deleted\":" + deleted + "}");
+    }
+
+    private Response incrementAges(Map<String, Object> body) {
+        long updated;
+        try {
+            updated = service.incrementAges(requiredInt(body, "increment"), Boolean.TRUE.equals(body.get("resume")),
+                progress -> { }).rows();
+        } catch (StudentBulkOperation.PendingOperationException ex) {
+            return json(409, "{\"error\":" + jsonString(ex.getMessage() + "; repita con \"resume\": true para terminarlo")
+                + ",\"pendingIncrement\":" + ex.getPending().getIncrement() + "}");
+        }
+        // Solo cambian edades: el índice de nombres no necesita recibirlas
+        resetSync();
+        return json(200, "{\"updated\":" + updated + "}");
+    }
+
+    private void resetSync() {
+        try (Session session = HibernateUtil.openReadOnlySession(factory.get())) {
+            sync.reset(session);
+        }
+    }
+
+    // Mismas vistas que Main: un filtro o un orden, no ambos
+    private StudentQuery query(Map<String, String> params) {
+        StudentQuery query = null;
+        int filters = 0;
+        if (params.containsKey("name")) {
+            String term = params.get("name").strip();
+            if (term.isEmpty()) {
+                throw new BadRequest("name no puede estar vacío");
+            }
+            query = service.nameSearch(term);
+            filters++;
+        }
+        if (params.containsKey("minAge") || params.containsKey("maxAge")) {
+            query = StudentQuery.ageBetween(requiredIntParam(params, "minAge"), requiredIntParam(params, "maxAge"));
+            filters++;
+        }
+        if (params.containsKey("olderThan")) {
+            query = StudentQuery.ageGreaterThan(requiredIntParam(params, "olderThan"));
+            filters++;
+        }
+        if (params.containsKey("youngerThan")) {
+            query = StudentQuery.ageLessThan(requiredIntParam(params, "youngerThan"));
+            filters++;
+        }
+        if (params.containsKey("age")) {
+            query = StudentQuery.ageEquals(requiredIntParam(params, "age"));
+            filters++;
+        }
+        if (filters > 1) {
+            throw new BadRequest("Solo se admite un filtro por consulta");
+        }
+        String sort = params.get("sort");
+        if (sort != null) {
+            if (query != null) {
+                throw new BadRequest("sort no se puede combinar con un filtro");
+            }
+            return StudentQuery.sorted(switch (sort) {
+                case "id" -> StudentQuery.Order.ID;
+                case "name" -> StudentQuery.Order.NAME_ASC;
+                case "-name" -> StudentQuery.Order.NAME_DESC;
+                case "age" -> StudentQuery.Order.AGE_ASC;
+                case "-age" -> StudentQuery.Order.AGE_DESC;
+                default -> throw new BadRequest("sort debe ser id, name, -name, age o -age");
+            });
+        }
+        return query != null ? query : StudentQuery.all();
+    }
+
+    // El cursor es la clave de la última fila (id y valor de orden), opaco para el cliente
+    static String encodeCursor(Object[] key) {
+        String plain = key[1] + (key[0] == null ? "" : ":" + key[0]);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Object[] decodeCursor(StudentQuery query, String cursor) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int colon = plain.indexOf(':');
+            long id = Long.parseLong(colon < 0 ? plain : plain.substring(0, colon));
+            String sortValue = colon < 0 ? null : plain.substring(colon + 1);
+            Object key = switch (query.getOrder()) {
+                case ID -> null;
+                case NAME_ASC, NAME_DESC -> sortValue;
+                case AGE_ASC, AGE_DESC -> Integer.valueOf(sortValue);
+            };
+            return new Object[]{key, id};
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new BadRequest("cursor no válido");
+        }
+    }
+
+    private static String toJson(StudentRow row) {
+        return "{\"id\":" + row.id() + ",\"name\":" + (row.name() == null ? "null" : jsonString(row.name()))
+            + ",\"age\":" + row.age() + ",\"version\":" + row.version() + "}";
+    }
+
+    private static String jsonString(String value) {
+        try {
+            StringWriter out = new StringWriter(value.length() + 2);
+            StudentExporter.writeJsonString(out, value);
+            return out.toString();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Response json(int status, String body) {
+        return new Response(status, body);
+    }
+
+    private static Response error(int status, String message) {
+        return json(status, "{\"error\":" + jsonString(message) + "}");
+    }
+
+    private static Response notFound(long id) {
+        return error(404, "No se encontró estudiante con ID: " + id);
+    }
+
+    private static Response methodNotAllowed() {
+        return error(405, "Método no permitido");
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        if (response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new BadRequest("El ID debe ser un número válido: " + value);
+        }
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        return params.containsKey(name) ? requiredIntParam(params, name) : defaultValue;
+    }
+
+    private static int requiredIntParam(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null) {
+            throw new BadRequest("Falta el parámetro " + name);
+        }
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException ex) {
+            throw new BadRequest(name + " debe ser un número válido");
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new BadRequest("Cuerpo demasiado grande");
+            }
+            return parseObject(new String(bytes, StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String requiredString(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof String value) || value.isBlank()) {
+            throw new BadRequest("Falta el campo " + name);
+        }
+        return value.strip();
+    }
+
+    private static int requiredInt(Map<String, Object> body, String name) {
+        if (!(body.get(name) instanceof Long value) || value != value.intValue()) {
+            throw new BadRequest("El campo " + name + " debe ser un número entero");
+        }
+        return value.intValue();
+    }
+
+    /**
+     * Lee un objeto JSON plano (sin objetos ni arrays anidados): los números
+     * enteros como {@code Long}, los decimales como {@code Double}.
+     */
+    static Map<String, Object> parseObject(String json) {
+        JsonReader reader = new JsonReader(json);
+        Map<String, Object> values = new HashMap<>();
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String name = reader.string();
+                reader.expect(':');
+                values.put(name, reader.value());
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+        reader.end();
+        return values;
+    }
+
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+
+        private JsonReader(String text) {
+            this.text = text;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private boolean consume(char c) {
+            skipSpaces();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw new BadRequest("JSON no válido: se esperaba '" + c + "' en la posición " + pos);
+            }
+        }
+
+        private void end() {
+            skipSpaces();
+            if (pos != text.length()) {
+                throw new BadRequest("JSON no válido: contenido sobrante en la posición " + pos);
+            }
+        }
+
+        private Object value() {
+            skipSpaces();
+            if (pos >= text.length()) {
+                throw new BadRequest("JSON no válido: falta un valor");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                return string();
+            }
+            for (String literal : new String[]{"null", "true", "false"}) {
+                if (text.startsWith(literal, pos)) {
+                    pos += literal.length();
+                    return literal.equals("null") ? null : Boolean.valueOf(literal);
+                }
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            String number = text.substring(start, pos);
+            try {
+                return number.matches("-?\\d+") ? (Object) Long.valueOf(number) : (Object) Double.valueOf(number);
+            } catch (NumberFormatException ex) {
+                throw new BadRequest("JSON no válido: valor no admitido en la posición " + start);
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw new BadRequest("JSON no válido: escape \\u incompleto");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw new BadRequest("JSON no válido: escape \\u incorrecto");
+                        }
+                        pos += 4;
+                    }
+                    default -> out.append(escaped);
+                }
+            }
+            throw new BadRequest("JSON no válido: cadena sin cerrar");
+        }
+    }
+}
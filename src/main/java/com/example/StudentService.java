@@ -0,0 +1,238 @@
+package com.example;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Operaciones sobre estudiantes compartidas por la interfaz Swing
+ * ({@link Main}) y el servidor HTTP ({@link StudentServer}). Cada método es
+ * una transacción completa; tras el commit mantiene el índice de nombres,
+ * las estadísticas de edad y la caché de segundo nivel.
+ *
+ * <p>Las lecturas pasan por {@link StudentReads}: las idénticas que coinciden
+ * en el tiempo comparten una sola consulta. Cada escritura, tras su commit,
+ * impide que una lectura posterior se una a una consulta anterior.</p>
+ *
+ * <p>La {@code SessionFactory} se pide al usarla por primera vez, así que
+ * crear el servicio no inicializa Hibernate. Es seguro para varios
+ * hilos.</p>
+ */
+public class StudentService {
+
+    /** Resultado de {@link #update}: {@code after == null} indica conflicto y {@code before} son los valores actuales. */
+    public record Update(StudentRow before, StudentRow after) {
+        public boolean isConflict() {
+            return after == null;
+        }
+    }
+
+    private final Supplier<SessionFactory> factory;
+    private final NameSearchIndex nameIndex;
+    private final StudentReads reads;
+    private final StudentStatistics statistics;
+
+    public StudentService(Supplier<SessionFactory> factory, NameSearchIndex nameIndex) {
+        this.factory = factory;
+        this.nameIndex = nameIndex;
+        this.reads = new StudentReads(factory);
+        this.statistics = new StudentStatistics(factory);
+    }
+
+    /** Lecturas compartidas, también en forma asíncrona. */
+    public StudentReads reads() {
+        return reads;
+    }
+
+    /** Estadísticas de edad, mantenidas por las escrituras de este servicio. */
+    public StudentStatistics statistics() {
+        return statistics;
+    }
+
+    public StudentRow create(String name, int age) {
+        try (Session session = HibernateUtil.openSession(factory.get())) {
+            Transaction tx = session.beginTransaction();
+            Student student = new Student(name, age);
+            session.persist(student);
+            statistics.beginChange();
+            try {
+                OperationMetrics.commit(tx);
+                statistics.added(age);
+            } finally {
+                statistics.endChange();
+            }
+            reads.invalidate();
+            nameIndex.put(student.getId(), name);
+            return StudentRow.of(student);
+        }
+    }
+
+    /** El estudiante {@code id}, o {@code null} si no existe. */
+    public StudentRow read(long id) {
+        return reads.read(id);
+    }
+
+    /**
+     * Cambia nombre y edad. Con {@code expectedVersion} (la versión que el
+     * cliente leyó) no se sobrescriben cambios ajenos: si la fila ya tiene
+     * otra versión, o la cambia otro entre la lectura y el commit, no se
+     * guarda nada y se devuelve un conflicto con los valores actuales.
+     * Devuelve {@code null} si el estudiante no existe.
+     */
+    public Update update(long id, String name, int age, Long expectedVersion) {
+        try (Session session = HibernateUtil.openSession(factory.get())) {
+            // Sin leer de la caché: la versión a comparar debe ser la de la base de datos
+            session.setCacheMode(CacheMode.REFRESH);
+            Transaction tx = session.beginTransaction();
+
+            Student student = session.get(Student.class, id);
+            if (student == null) {
+                tx.rollback();
+                return null;
+            }
+            StudentRow before = StudentRow.of(student);
+            if (expectedVersion != null && student.getVersion() != expectedVersion) {
+                tx.rollback();
+                return new Update(before, null);
+            }
+            student.setName(name);
+            student.setAge(age);
+            statistics.beginChange();
+            try {
+                OperationMetrics.commit(tx);
+                statistics.changed(before.age(), age);
+            } catch (OptimisticLockException ex) {
+                // Otro cliente la modificó entre la lectura y el UPDATE ... WHERE version = ?
+                StudentRow current = readCurrent(id);
+                return current == null ? null : new Update(current, null);
+            } finally {
+                statistics.endChange();
+            }
+            reads.invalidate();
+            nameIndex.put(id, name);
+            return new Update(before, StudentRow.of(student));
+        }
+    }
+
+    private StudentRow readCurrent(long id) {
+        try (Session session = HibernateUtil.openReadOnlySession(factory.get())) {
+            session.setCacheMode(CacheMode.REFRESH);
+            Student student = session.get(Student.class, id);
+            return student == null ? null : StudentRow.of(student);
+        }
+    }
+
+    /** Elimina el estudiante y lo anota en el registro de bajas; devuelve sus últimos valores o {@code null}. */
+    public StudentRow delete(long id) {
+        try (Session session = HibernateUtil.openSession(factory.get())) {
+            Transaction tx = session.beginTransaction();
+            Student student = session.get(Student.class, id);
+            if (student == null) {
+                tx.rollback();
+                return null;
+            }
+            StudentRow removed = StudentRow.of(student);
+            session.remove(student);
+            session.persist(StudentDeletion.of(student));
+            statistics.beginChange();
+            try {
+                OperationMetrics.commit(tx);
+                statistics.removed(removed.age());
+            } finally {
+                statistics.endChange();
+            }
+            reads.invalidate();
+            nameIndex.remove(id);
+            return removed;
+        }
+    }
+
+    /**
+     * Elimina todos los estudiantes por bloques ({@link StudentBulkOperation});
+     * con {@code resume} continúa una eliminación interrumpida. Devuelve las
+     * filas eliminadas y si terminó (falso si se interrumpió el hilo).
+     */
+    public StudentBulkOperation.Result deleteAll(boolean resume, StudentBulkOperation.ProgressListener listener) {
+        try {
+            return StudentBulkOperation.deleteAll(factory.get()).nameIndex(nameIndex).statistics(statistics)
+                .run(resume, listener);
+        } finally {
+            reads.invalidate();
+        }
+    }
+
+    /**
+     * Suma {@code increment} a la edad de todos por bloques; con {@code resume},
+     * con el incremento de la interrumpida. Sin {@code resume}, si hay uno a
+     * medias lanza {@link StudentBulkOperation.PendingOperationException}.
+     */
+    public StudentBulkOperation.Result incrementAges(int increment, boolean resume,
+                                                    StudentBulkOperation.ProgressListener listener) {
+        try {
+            return StudentBulkOperation.incrementAges(factory.get(), increment).statistics(statistics)
+                .run(resume, listener);
+        } finally {
+            reads.invalidate();
+        }
+    }
+
+    /** Descarta la operación masiva de este tipo que quedó a medias, sin deshacer lo ya hecho. */
+    public boolean discardPendingBulk(StudentBulkOperation.Kind kind) {
+        return StudentBulkOperation.discardPending(factory.get(), kind);
+    }
+
+    /** Operación masiva de este tipo que quedó a medias, o {@code null}. */
+    public StudentBulkCheckpoint pendingBulk(StudentBulkOperation.Kind kind) {
+        return StudentBulkOperation.pending(factory.get(), kind);
+    }
+
+    /**
+     * Aplica cambios parciales en lote sin cargar los estudiantes, con un
+     * commit por bloque ({@link StudentBatchUpdater}); cada bloque espera
+     * turno en {@code admission} y {@code listener} recibe las filas
+     * actualizadas de cada bloque confirmado.
+     */
+    public StudentBatchUpdater.Result patch(Iterator<StudentBatchUpdater.Patch> patches,
+                                            StudentBatchUpdater.Admission admission,
+                                            StudentBatchUpdater.ChunkListener listener) {
+        try {
+            return new StudentBatchUpdater(factory.get()).nameIndex(nameIndex).admission(admission)
+                .update(patches, listener);
+        } finally {
+            reads.invalidate();
+            // Las edades anteriores no se leen
+            statistics.invalidate();
+        }
+    }
+
+    /**
+     * Vista de una búsqueda por nombre: con {@code *} final, por prefijo
+     * sobre {@code name_normalized}; si no, por cualquier parte del nombre
+     * con el índice de trigramas, o con {@code LIKE} mientras no esté listo.
+     */
+    public StudentQuery nameSearch(String term) {
+        if (term.endsWith("*")) {
+            return StudentQuery.nameStartsWith(term.substring(0, term.length() - 1));
+        }
+        if (nameIndex.isReady()) {
+            return StudentQuery.idsIn(nameIndex.search(term));
+        }
+        return StudentQuery.nameContains(term);
+    }
+
+    public long count(StudentQuery query) {
+        return reads.count(query);
+    }
+
+    /** Página de la vista que empieza tras la clave {@code after} ({@link StudentQuery#keyOf}). */
+    public List<StudentRow> page(StudentQuery query, Object[] after, int limit) {
+        return reads.page(query, after, limit);
+    }
+}
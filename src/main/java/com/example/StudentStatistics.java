@@ -0,0 +1,147 @@
+package com.example;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * Estadísticas de edad de todos los estudiantes: número, mínima, máxima,
+ * media y cuántos hay de cada edad. Se calculan en la base de datos con un
+ * único {@code GROUP BY age} (que recorre solo el índice de edad) y después
+ * se mantienen en memoria: cada alta, cambio, baja o bloque de una
+ * operación masiva ajusta el histograma, del que salen las demás cifras, así
+ * que consultarlas no vuelve a la base de datos.
+ *
+ * <p>Los cambios cuyo efecto no se conoce (cambios en lote, importaciones,
+ * cambios de otros clientes) llaman a {@link #invalidate()} y la siguiente
+ * consulta recalcula. Es seguro para varios hilos.</p>
+ *
+ * <p>Quien modifica estudiantes llama a {@link #beginChange()} antes del
+ * commit, avisa del cambio tras él y termina con {@link #endChange()}
+ * (también si falla). Un recálculo que se solapa con ese intervalo puede
+ * haber leído ya el cambio, así que su resultado no se guarda: si se
+ * guardara, el aviso posterior lo contaría dos veces.</p>
+ */
+public class StudentStatistics {
+
+    /** Cifras en un instante; {@code ages} va de la edad al número de estudiantes. */
+    public record Snapshot(long count, int minAge, int maxAge, double averageAge, SortedMap<Integer, Long> ages) {
+        static Snapshot of(SortedMap<Integer, Long> histogram) {
+            long count = 0;
+            long total = 0;
+            for (var entry : histogram.entrySet()) {
+                count += entry.getValue();
+                total += entry.getKey() * entry.getValue();
+            }
+            if (count == 0) {
+                return new Snapshot(0, 0, 0, 0, Collections.emptySortedMap());
+            }
+            return new Snapshot(count, histogram.firstKey(), histogram.lastKey(), total / (double) count,
+                Collections.unmodifiableSortedMap(new TreeMap<>(histogram)));
+        }
+
+        @Override
+        public String toString() {
+            return count == 0 ? "Sin estudiantes" : String.format("%d estudiantes, edad mínima %d, máxima %d, media %.1f",
+                count, minAge, maxAge, averageAge);
+        }
+    }
+
+    private final Supplier<SessionFactory> factory;
+    private final TreeMap<Integer, Long> histogram = new TreeMap<>();
+    private boolean valid;
+    // Cuenta los cambios empezados, terminados y avisados: si alguno ocurre mientras se recalcula, el resultado ya no vale
+    private long changes;
+    // Cambios entre beginChange y endChange: su commit puede estar ya en la base de datos sin haberse avisado
+    private int writers;
+
+    public StudentStatistics(Supplier<SessionFactory> factory) {
+        this.factory = factory;
+    }
+
+    /** Las cifras actuales; solo consulta la base de datos si no están en memoria. */
+    public Snapshot snapshot() {
+        long loadedAt;
+        boolean quiet;
+        synchronized (this) {
+            if (valid) {
+                return Snapshot.of(histogram);
+            }
+            loadedAt = changes;
+            quiet = writers == 0;
+        }
+        TreeMap<Integer, Long> loaded = load();
+        synchronized (this) {
+            if (quiet && changes == loadedAt) {
+                histogram.clear();
+                histogram.putAll(loaded);
+                valid = true;
+            }
+            return Snapshot.of(loaded);
+        }
+    }
+
+    private TreeMap<Integer, Long> load() {
+        TreeMap<Integer, Long> loaded = new TreeMap<>();
+        try (Session session = HibernateUtil.openReadOnlySession(factory.get())) {
+            for (Object[] row : session.createNamedQuery(Student.AGE_HISTOGRAM, Object[].class).list()) {
+                loaded.put((Integer) row[0], (Long) row[1]);
+            }
+        }
+        return loaded;
+    }
+
+    /** Antes del commit de un cambio del que se va a avisar. */
+    public synchronized void beginChange() {
+        changes++;
+        writers++;
+    }
+
+    /** Tras avisar del cambio, o si no llegó a confirmarse. */
+    public synchronized void endChange() {
+        changes++;
+        writers--;
+    }
+
+    public synchronized void added(int age) {
+        adjust(age, 1);
+    }
+
+    public synchronized void removed(int age) {
+        adjust(age, -1);
+    }
+
+    public synchronized void changed(int oldAge, int newAge) {
+        adjust(oldAge, -1);
+        adjust(newAge, 1);
+    }
+
+    /** Ajusta varias edades a la vez: {@code deltas} va de la edad a cuántos estudiantes más (o menos) tiene. */
+    public synchronized void adjusted(Map<Integer, Long> deltas) {
+        deltas.forEach(this::adjust);
+    }
+
+    /** Descarta las cifras en memoria; la siguiente consulta las recalcula. */
+    public synchronized void invalidate() {
+        changes++;
+        valid = false;
+        histogram.clear();
+    }
+
+    private void adjust(int age, long delta) {
+        changes++;
+        if (valid) {
+            long count = histogram.getOrDefault(age, 0L) + delta;
+            if (count > 0) {
+                histogram.put(age, count);
+            } else {
+                histogram.remove(age);
+            }
+        }
+    }
+}
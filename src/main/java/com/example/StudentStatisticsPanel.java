@@ -0,0 +1,82 @@
+package com.example;
+
+import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Resumen de {@link StudentStatistics} (número, mínima, máxima y media) y
+ * su histograma de edades: una fila por edad con el número de estudiantes,
+ * su porcentaje y una barra proporcional. Se actualiza con {@link #refresh}
+ * desde el EDT.
+ */
+public class StudentStatisticsPanel extends JPanel {
+    private static final String[] COLUMNS = {"Edad", "Estudiantes", "%", ""};
+    private static final int BAR_WIDTH = 40;
+
+    private final AgesTableModel model = new AgesTableModel();
+    private final JLabel lblSummary = new JLabel(" ");
+
+    public StudentStatisticsPanel() {
+        super(new BorderLayout());
+        add(lblSummary, BorderLayout.NORTH);
+        add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+    }
+
+    public void refresh(StudentStatistics.Snapshot snapshot) {
+        lblSummary.setText(snapshot.toString());
+        model.count = snapshot.count();
+        model.max = snapshot.ages().values().stream().mapToLong(Long::longValue).max().orElse(0);
+        model.rows = new ArrayList<>(snapshot.ages().entrySet());
+        model.fireTableDataChanged();
+    }
+
+    private static final class AgesTableModel extends AbstractTableModel {
+        private List<Map.Entry<Integer, Long>> rows = List.of();
+        private long count;
+        private long max;
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return switch (column) {
+                case 0 -> Integer.class;
+                case 1 -> Long.class;
+                case 2 -> Double.class;
+                default -> String.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            Map.Entry<Integer, Long> age = rows.get(row);
+            return switch (column) {
+                case 0 -> age.getKey();
+                case 1 -> age.getValue();
+                case 2 -> Math.round(age.getValue() * 1000.0 / count) / 10.0;
+                default -> "█".repeat((int) Math.max(1, age.getValue() * BAR_WIDTH / max));
+            };
+        }
+    }
+}
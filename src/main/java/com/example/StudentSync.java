@@ -0,0 +1,174 @@
+package com.example;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.Transaction;
+
+/**
+ * Sincronización incremental de la vista con los cambios de otros clientes.
+ *
+ * <p>En lugar de releer la tabla, cada {@link #fetch} pide solo las filas con
+ * {@code updated_at} posterior a la marca de agua (por el índice
+ * {@code idx_student_updated_at}) y las bajas del registro
+ * {@link StudentDeletion} por su {@code deleted_at}. Ninguna de las dos
+ * marcas sigue el orden de los commits: {@code updated_at} lo pone el reloj
+ * de cada cliente al hacer flush, antes de confirmar, y una transacción
+ * puede confirmar después de otra más reciente. Por eso se vuelve a pedir un
+ * margen de {@link #OVERLAP} hacia atrás, también justo después de
+ * {@link #reset}; lo repetido se descarta, las filas comparando su versión
+ * con la ya aplicada ({@link #accept}) y las bajas por el id de su entrada
+ * del registro.</p>
+ *
+ * <p>{@link #fetch} se llama desde un hilo de fondo y {@link #accept} /
+ * {@link #acceptDeletion} desde el EDT al aplicar cada cambio, tanto los
+ * propios como los recibidos: así un cambio nunca se aplica dos veces al
+ * modelo, llegue antes por un camino o por el otro.</p>
+ */
+public class StudentSync {
+    public static final Duration OVERLAP = Duration.ofSeconds(10);
+    /** Con más cambios que estos es más barato recargar la vista. */
+    public static final int MAX_CHANGES = 1000;
+    /** Antigüedad a partir de la que se purgan las entradas del registro de bajas. */
+    public static final Duration DELETION_RETENTION = Duration.ofDays(7);
+
+    /** Cambios desde la última llamada; con {@code reloadAll} las listas no son completas. */
+    public record Delta(List<StudentRow> changed, List<StudentDeletion> deleted, boolean reloadAll) {
+        public boolean isEmpty() {
+            return changed.isEmpty() && deleted.isEmpty() && !reloadAll;
+        }
+    }
+
+    private record Seen(long version, Instant at) {
+    }
+
+    private Instant watermark = Instant.EPOCH;
+    private Instant deletionWatermark = Instant.EPOCH;
+    // Última versión aplicada de cada fila cambiada dentro del margen de solape
+    private final Map<Long, Seen> applied = new HashMap<>();
+    // Bajas ya aplicadas cuya entrada del registro aún no se ha leído
+    private final Map<Long, Instant> deleted = new HashMap<>();
+    // Entradas del registro de bajas ya devueltas, por su id, con su deleted_at
+    private final Map<Long, Instant> logged = new HashMap<>();
+
+    /**
+     * Sitúa las marcas de agua en el estado actual. Se llama justo antes de
+     * (re)cargar la vista completa: lo ya confirmado dentro del margen de
+     * solape se da por aplicado, pero lo que confirme después con una marca
+     * anterior se seguirá recibiendo.
+     */
+    public synchronized void reset(SharedSessionContract session) {
+        Instant latest = session.createNamedQuery(Student.LATEST_UPDATE, Instant.class).uniqueResult();
+        Instant latestDeletion = session.createNamedQuery(StudentDeletion.LATEST, Instant.class).uniqueResult();
+        watermark = latest != null ? latest : Instant.EPOCH;
+        deletionWatermark = latestDeletion != null ? latestDeletion : Instant.EPOCH;
+        applied.clear();
+        deleted.clear();
+        logged.clear();
+
+        Instant now = Instant.now();
+        for (Object[] row : changedSince(session)) {
+            applied.put((Long) row[0], new Seen((Long) row[3], now));
+        }
+        for (StudentDeletion deletion : deletionsSince(session)) {
+            logged.put(deletion.getId(), deletion.getDeletedAt());
+        }
+    }
+
+    /** Filas cambiadas y bajas desde la llamada anterior. */
+    public synchronized Delta fetch(SharedSessionContract session) {
+        List<Object[]> rows = changedSince(session);
+        List<StudentDeletion> deletions = deletionsSince(session);
+
+        boolean reloadAll = rows.size() > MAX_CHANGES || deletions.size() > MAX_CHANGES;
+        List<StudentRow> changed = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Instant updatedAt = (Instant) row[4];
+            if (updatedAt.isAfter(watermark)) {
+                watermark = updatedAt;
+            }
+            StudentRow changedRow = new StudentRow((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3]);
+            if (isNew(changedRow)) {
+                changed.add(changedRow);
+            }
+        }
+        List<StudentDeletion> newDeletions = new ArrayList<>();
+        for (StudentDeletion deletion : deletions) {
+            if (deletion.getDeletedAt().isAfter(deletionWatermark)) {
+                deletionWatermark = deletion.getDeletedAt();
+            }
+            if (logged.putIfAbsent(deletion.getId(), deletion.getDeletedAt()) == null) {
+                newDeletions.add(deletion);
+                reloadAll |= deletion.isAll();
+            }
+        }
+        forgetOlderThan(watermark.minus(OVERLAP.multipliedBy(2)));
+        // Las entradas anteriores al margen ya no vuelven en deletionsSince
+        Instant deletionSince = deletionWatermark.minus(OVERLAP);
+        logged.values().removeIf(at -> at.isBefore(deletionSince));
+        return new Delta(changed, newDeletions, reloadAll);
+    }
+
+    private List<Object[]> changedSince(SharedSessionContract session) {
+        return session.createNamedQuery(Student.CHANGED_SINCE, Object[].class)
+            .setParameter("since", watermark.minus(OVERLAP))
+            .setMaxResults(MAX_CHANGES + 1)
+            .list();
+    }
+
+    private List<StudentDeletion> deletionsSince(SharedSessionContract session) {
+        return session.createNamedQuery(StudentDeletion.SINCE, StudentDeletion.class)
+            .setParameter("since", deletionWatermark.minus(OVERLAP))
+            .setMaxResults(MAX_CHANGES + 1)
+            .list();
+    }
+
+    // Sin registrarla: se aplica al modelo con accept
+    private boolean isNew(StudentRow row) {
+        Seen seen = applied.get(row.id());
+        return !deleted.containsKey(row.id()) && (seen == null || seen.version() < row.version());
+    }
+
+    /**
+     * Registra que {@code row} se aplica al modelo. Devuelve {@code false} si
+     * ya se aplicó esa versión o una posterior, o si la fila se ha eliminado.
+     */
+    public synchronized boolean accept(StudentRow row) {
+        if (!isNew(row)) {
+            return false;
+        }
+        applied.put(row.id(), new Seen(row.version(), Instant.now()));
+        return true;
+    }
+
+    /** Como {@link #accept}, para una baja: {@code false} si ya se aplicó. */
+    public synchronized boolean acceptDeletion(long id) {
+        applied.remove(id);
+        return deleted.putIfAbsent(id, Instant.now()) == null;
+    }
+
+    // Lo aplicado hace más del doble del solape ya no puede volver en un fetch
+    private void forgetOlderThan(Instant limit) {
+        applied.values().removeIf(seen -> seen.at().isBefore(limit));
+        deleted.values().removeIf(at -> at.isBefore(limit));
+    }
+
+    /** Purga las entradas del registro de bajas más antiguas que {@link #DELETION_RETENTION}. */
+    public static int pruneDeletions(SessionFactory factory) {
+        try (Session session = factory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            int pruned = session.createNamedMutationQuery(StudentDeletion.PRUNE)
+                .setParameter("cutoff", Instant.now().minus(DELETION_RETENTION))
+                .executeUpdate();
+            tx.commit();
+            return pruned;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import org.hibernate.Session;
+
+/**
+ * Modelo de tabla virtual: solo mantiene en memoria las páginas visibles más
+ * una ventana de precarga, y las lee bajo demanda con paginación por clave
+ * ({@link StudentQuery#fetch}). Las páginas que salen de la ventana se
+ * descartan.
+ *
+ * <p>Se usa exclusivamente desde el EDT; las lecturas se hacen en hilos
+ * virtuales con sesiones de solo lectura
+ * ({@link HibernateUtil#openReadOnlySession}) y se publican de vuelta con
+ * {@code invokeLater}.</p>
+ *
+ * <p>Las altas, modificaciones y bajas hechas desde la aplicación se aplican
+ * como cambios de una fila ({@link #rowInserted}, {@link #rowUpdated},
+ * {@link #rowRemoved}) respetando el filtro y el orden de la vista, sin
+ * volver a contar ni releer la tabla: como mucho se relee alguna página
+ * visible cuyas filas se han desplazado.</p>
+ */
+public class StudentTableModel extends AbstractTableModel {
+    public static final int PAGE_SIZE = 200;
+    public static final int PREFETCH_PAGES = 2;
+
+    private static final String[] COLUMNS = {"ID", "Nombre", "Edad"};
+
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+    private final TreeMap<Integer, Page> pages = new TreeMap<>();
+    // Fila absoluta de cada id cargado, para localizar cambios sin recorrer las páginas
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Set<Integer> pending = new HashSet<>();
+    // Clave de la última fila de la página anterior: punto de arranque del keyset de cada página
+    private final TreeMap<Integer, Object[]> startKeys = new TreeMap<>();
+
+    private StudentQuery query = StudentQuery.all();
+    private int rowCount;
+    private int generation;
+    private int firstVisiblePage;
+    private int lastVisiblePage;
+
+    /** Sustituye la vista actual; {@code rowCount} es el resultado de {@link StudentQuery#count}. */
+    public void setQuery(StudentQuery query, long rowCount) {
+        this.query = query;
+        this.rowCount = (int) Math.min(rowCount, Integer.MAX_VALUE);
+        generation++;
+        pages.clear();
+        rowsById.clear();
+        pending.clear();
+        startKeys.clear();
+        startKeys.put(0, null);
+        firstVisiblePage = 0;
+        lastVisiblePage = 0;
+        fireTableDataChanged();
+    }
+
+    public StudentQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Informa del rango de filas visible. Se cargan las páginas que lo cubren
+     * más {@link #PREFETCH_PAGES} a cada lado y se descartan las demás.
+     */
+    public void setVisibleRows(int firstRow, int lastRow) {
+        if (rowCount == 0 || firstRow < 0) {
+            return;
+        }
+        firstVisiblePage = firstRow / PAGE_SIZE;
+        lastVisiblePage = Math.max(firstVisiblePage, lastRow) / PAGE_SIZE;
+        int from = Math.max(0, firstVisiblePage - PREFETCH_PAGES);
+        int to = Math.min(lastPage(), lastVisiblePage + PREFETCH_PAGES);
+
+        Iterator<Map.Entry<Integer, Page>> it = pages.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Page> entry = it.next();
+            if (entry.getKey() < from || entry.getKey() > to) {
+                Page page = entry.getValue();
+                for (int i = 0; i < page.size; i++) {
+                    rowsById.remove(page.ids[i]);
+                }
+                it.remove();
+            }
+        }
+        for (int page = from; page <= to; page++) {
+            requestPage(page);
+        }
+    }
+
+    /** Identificador de la fila, o {@code null} si su página aún no está cargada. */
+    public Long getIdAt(int row) {
+        Page page = pages.get(row / PAGE_SIZE);
+        int i = row % PAGE_SIZE;
+        return page == null || i >= page.size ? null : page.ids[i];
+    }
+
+    /** Fila de la vista que muestra {@code id}, o -1 si no está cargada. */
+    public int rowOf(long id) {
+        Integer row = rowsById.get(id);
+        return row == null ? -1 : row;
+    }
+
+    /** Fila de la vista que muestra {@code id} con sus valores, o {@code null} si no está cargada. */
+    public StudentRow getLoadedRow(long id) {
+        Integer row = rowsById.get(id);
+        return row == null ? null : rowAt(row);
+    }
+
+    /** Alta de un estudiante: aparece en su posición si cumple el filtro de la vista. */
+    public void rowInserted(StudentRow row) {
+        if (!query.matches(row) || rowsById.containsKey(row.id())) {
+            return;
+        }
+        shift(locate(row), row);
+    }
+
+    /** Baja de un estudiante; {@code row} son sus últimos valores conocidos. */
+    public void rowRemoved(StudentRow row) {
+        remove(row, true);
+    }
+
+    /**
+     * Modificación de un estudiante. Si sigue en la vista y en la misma
+     * posición se sustituye en su sitio; si no, se quita y se vuelve a
+     * insertar donde corresponda.
+     */
+    public void rowUpdated(StudentRow before, StudentRow after) {
+        Integer loaded = rowsById.get(after.id());
+        if (loaded != null && query.matches(after) && staysInPlace(loaded, after)) {
+            Page page = pages.get(loaded / PAGE_SIZE);
+            int i = loaded % PAGE_SIZE;
+            page.names[i] = after.name();
+            page.ages[i] = after.age();
+            page.versions[i] = after.version();
+            fireTableRowsUpdated(loaded, loaded);
+            return;
+        }
+        remove(before, false);
+        rowInserted(after);
+    }
+
+    // Con deleted=false la fila solo cambia de sitio y sigue perteneciendo a un conjunto de ids
+    private void remove(StudentRow row, boolean deleted) {
+        Integer loaded = rowsById.get(row.id());
+        int position;
+        if (loaded != null) {
+            position = loaded;
+        } else if (query.matches(row)) {
+            position = locate(row);
+            // Si cae junto a filas cargadas y no estaba entre ellas, es que no está en la vista
+            if (position >= rowCount || pages.containsKey(position / PAGE_SIZE)) {
+                return;
+            }
+        } else {
+            return;
+        }
+        if (deleted) {
+            query = query.withoutId(row.id());
+        }
+        shift(position, null);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 1 ? String.class : column == 0 ? Long.class : Integer.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int pageIndex = row / PAGE_SIZE;
+        Page page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int i = row % PAGE_SIZE;
+        if (i >= page.size) {
+            return null;
+        }
+        return switch (column) {
+            case 0 -> page.ids[i];
+            case 1 -> page.names[i];
+            default -> page.ages[i];
+        };
+    }
+
+    /** Detiene las lecturas pendientes. */
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private int lastPage() {
+        return Math.max(0, (rowCount - 1) / PAGE_SIZE);
+    }
+
+    private void requestPage(int pageIndex) {
+        if (pages.containsKey(pageIndex) || !pending.add(pageIndex)) {
+            return;
+        }
+        // Arranca desde la clave conocida más cercana por debajo y salta el resto
+        Map.Entry<Integer, Object[]> anchor = startKeys.floorEntry(pageIndex);
+        Object[] after = anchor.getValue();
+        int skip = (pageIndex - anchor.getKey()) * PAGE_SIZE;
+        StudentQuery q = query;
+        int gen = generation;
+
+        loader.submit(() -> {
+            try (OperationMetrics.Scope scope = OperationMetrics.get().begin("leer página");
+                 Session session = HibernateUtil.openReadOnlySession()) {
+                List<StudentRow> rows = q.fetch(session, after, skip, PAGE_SIZE);
+                SwingUtilities.invokeLater(() -> pageLoaded(gen, pageIndex, rows));
+            } catch (RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> {
+                    if (gen == generation) {
+                        pending.remove(pageIndex);
+                    }
+                });
+            }
+        });
+    }
+
+    private void pageLoaded(int gen, int pageIndex, List<StudentRow> rows) {
+        if (gen != generation) {
+            return;
+        }
+        pending.remove(pageIndex);
+        if (!rows.isEmpty()) {
+            startKeys.put(pageIndex + 1, query.keyOf(rows.get(rows.size() - 1)));
+        }
+        int from = Math.max(0, firstVisiblePage - PREFETCH_PAGES);
+        int to = lastVisiblePage + PREFETCH_PAGES;
+        if (pageIndex < from || pageIndex > to) {
+            return;
+        }
+        putPage(pageIndex, new Page(rows));
+        int firstRow = pageIndex * PAGE_SIZE;
+        int lastRow = Math.min(rowCount, firstRow + PAGE_SIZE) - 1;
+        if (lastRow >= firstRow) {
+            fireTableRowsUpdated(firstRow, lastRow);
+        }
+    }
+
+    private void putPage(int pageIndex, Page page) {
+        pages.put(pageIndex, page);
+        indexPage(pageIndex, page);
+    }
+
+    private void indexPage(int pageIndex, Page page) {
+        for (int i = 0; i < page.size; i++) {
+            rowsById.put(page.ids[i], pageIndex * PAGE_SIZE + i);
+        }
+    }
+
+    private boolean staysInPlace(int row, StudentRow after) {
+        Comparator<StudentRow> order = query.getOrder().comparator();
+        StudentRow previous = rowAt(row - 1);
+        StudentRow next = rowAt(row + 1);
+        // Un vecino sin cargar impide comprobarlo: se trata como movimiento
+        return (row == 0 || previous != null && order.compare(previous, after) < 0)
+            && (row == rowCount - 1 || next != null && order.compare(after, next) < 0);
+    }
+
+    private StudentRow rowAt(int row) {
+        Page page = row < 0 ? null : pages.get(row / PAGE_SIZE);
+        int i = row % PAGE_SIZE;
+        return page == null || i >= page.size ? null : page.row(i);
+    }
+
+    /**
+     * Posición que ocuparía {@code row} según el orden de la vista. Si cae en
+     * una zona sin cargar, devuelve el principio de la primera página sin
+     * cargar de esa zona: la fila exacta no se conoce, pero sí que las
+     * páginas cargadas anteriores no se mueven.
+     */
+    private int locate(StudentRow row) {
+        Comparator<StudentRow> order = query.getOrder().comparator();
+        int expected = 0;
+        for (Map.Entry<Integer, Page> entry : pages.entrySet()) {
+            int pageIndex = entry.getKey();
+            Page page = entry.getValue();
+            if (page.size == 0) {
+                continue;
+            }
+            if (order.compare(row, page.row(0)) < 0) {
+                return expected * PAGE_SIZE;
+            }
+            if (order.compare(row, page.row(page.size - 1)) < 0) {
+                int pos = Collections.binarySearch(page.rows(), row, order);
+                return pageIndex * PAGE_SIZE + (pos >= 0 ? pos : -pos - 1);
+            }
+            expected = pageIndex + 1;
+        }
+        return Math.min(rowCount, expected * PAGE_SIZE);
+    }
+
+    /**
+     * Inserta ({@code inserted} no nulo) o quita la fila {@code row}. Las
+     * páginas anteriores quedan intactas; las filas cargadas desde la página
+     * afectada se reparten de nuevo y se descarta lo que ya no forma una
+     * página completa, que se volverá a leer por clave si está a la vista.
+     */
+    private void shift(int row, StudentRow inserted) {
+        int first = row / PAGE_SIZE;
+        List<StudentRow> rows = new ArrayList<>();
+        for (int pageIndex = first; pages.containsKey(pageIndex); pageIndex++) {
+            rows.addAll(pages.get(pageIndex).rows());
+        }
+        int offset = row - first * PAGE_SIZE;
+        if (inserted != null && offset <= rows.size()) {
+            rows.add(offset, inserted);
+        } else if (inserted == null && offset < rows.size()) {
+            rows.remove(offset);
+        }
+
+        // Las lecturas en curso se calcularon con las posiciones anteriores
+        generation++;
+        pending.clear();
+        pages.tailMap(first, true).clear();
+        startKeys.tailMap(first, false).clear();
+        rowCount += inserted != null ? 1 : -1;
+
+        for (int i = 0, pageIndex = first; i < rows.size(); i += PAGE_SIZE, pageIndex++) {
+            List<StudentRow> chunk = rows.subList(i, Math.min(rows.size(), i + PAGE_SIZE));
+            if (chunk.size() < PAGE_SIZE && pageIndex * PAGE_SIZE + chunk.size() != rowCount) {
+                break;
+            }
+            pages.put(pageIndex, new Page(chunk));
+            if (chunk.size() == PAGE_SIZE) {
+                startKeys.put(pageIndex + 1, query.keyOf(chunk.get(PAGE_SIZE - 1)));
+            }
+        }
+        rowsById.clear();
+        pages.forEach(this::indexPage);
+
+        if (inserted != null) {
+            fireTableRowsInserted(row, row);
+        } else {
+            fireTableRowsDeleted(row, row);
+        }
+        // Vuelve a pedir las páginas visibles descartadas
+        setVisibleRows(firstVisiblePage * PAGE_SIZE, lastVisiblePage * PAGE_SIZE);
+    }
+
+    // Columnas en arrays primitivos para no guardar un objeto por fila
+    private static final class Page {
+        private final int size;
+        private final long[] ids;
+        private final String[] names;
+        private final int[] ages;
+        private final long[] versions;
+
+        private Page(List<StudentRow> rows) {
+            size = rows.size();
+            ids = new long[size];
+            names = new String[size];
+            ages = new int[size];
+            versions = new long[size];
+            for (int i = 0; i < size; i++) {
+                StudentRow row = rows.get(i);
+                ids[i] = row.id();
+                names[i] = row.name();
+                ages[i] = row.age();
+                versions[i] = row.version();
+            }
+        }
+
+        private StudentRow row(int i) {
+            return new StudentRow(ids[i], names[i], ages[i], versions[i]);
+        }
+
+        private List<StudentRow> rows() {
+            List<StudentRow> rows = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                rows.add(row(i));
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de los perfiles de base de datos
+ */
+public class DatabaseProfileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(DatabaseProfile.PATH_PROPERTY);
+    }
+
+    @Test
+    public void testProfileNames() {
+        assertEquals(DatabaseProfile.HSQLDB_MEM, DatabaseProfile.fromName("hsqldb-mem"));
+        assertEquals(DatabaseProfile.HSQLDB_FILE, DatabaseProfile.fromName(" HSQLDB_FILE "));
+        assertEquals(DatabaseProfile.MYSQL, DatabaseProfile.fromName("MySQL"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownProfileIsRejected() {
+        DatabaseProfile.fromName("oracle");
+    }
+
+    @Test
+    public void testFileProfileKeepsDataAcrossRestarts() throws Exception {
+        System.setProperty(DatabaseProfile.PATH_PROPERTY, folder.newFolder().toPath().resolve("db").toString());
+
+        Long id;
+        try (SessionFactory factory = fileFactory()) {
+            try (Session session = factory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                Student student = new Student("Persistente", 40);
+                session.persist(student);
+                tx.commit();
+                id = student.getId();
+            }
+        }
+
+        try (SessionFactory factory = fileFactory();
+             Session session = factory.openSession()) {
+            assertEquals("Persistente", session.get(Student.class, id).getName());
+        }
+    }
+
+    private static SessionFactory fileFactory() {
+        // hibernate.cfg.xml de pruebas usa create-drop; aquí se quiere conservar la tabla
+        return DatabaseProfile.HSQLDB_FILE.configuration()
+            .setProperty("hibernate.hbm2ddl.auto", "update")
+            .buildSessionFactory();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas de la cola de operaciones de la interfaz
+ */
+public class DbTaskRunnerTest {
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+    private DbTaskRunner runner;
+
+    @Before
+    public void setup() throws Exception {
+        SwingUtilities.invokeAndWait(() -> runner = new DbTaskRunner((busy, operation, queued) -> { }, errors::add));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SwingUtilities.invokeAndWait(runner::shutdown);
+    }
+
+    @Test
+    public void testErrorFreesTheRunner() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            runner.submit("desbordar", () -> {
+                throw new StackOverflowError();
+            }, result -> fail("No debería llegar"));
+            runner.submit("siguiente", () -> 1, result -> done.countDown());
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("Error al desbordar: java.lang.StackOverflowError"), errors);
+        assertFalse(onEdt(() -> runner.isBusy()));
+    }
+
+    @Test
+    public void testCancelledOperationKeepsItsTurnUntilItEnds() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch next = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        SwingUtilities.invokeAndWait(() -> runner.submit("bloqueada", () -> {
+            running.incrementAndGet();
+            started.countDown();
+            // Como una sentencia JDBC: no responde a la interrupción
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException ignored) {
+                    // sigue esperando
+                }
+            }
+            running.decrementAndGet();
+            return null;
+        }, result -> fail("Cancelada: el resultado no debe llegar")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        SwingUtilities.invokeAndWait(() -> {
+            runner.cancel();
+            runner.submit("siguiente", () -> {
+                overlapped.set(running.get() > 0);
+                return null;
+            }, result -> next.countDown());
+        });
+        assertTrue(onEdt(() -> runner.isBusy()));
+        assertFalse(next.await(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+    }
+
+    private static boolean onEdt(java.util.function.BooleanSupplier check) throws Exception {
+        AtomicBoolean value = new AtomicBoolean();
+        SwingUtilities.invokeAndWait(() -> value.set(check.getAsBoolean()));
+        return value.get();
+    }
+}
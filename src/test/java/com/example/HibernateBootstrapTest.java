@@ -0,0 +1,57 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Test;
+
+/**
+ * Pruebas del arranque por fases
+ */
+public class HibernateBootstrapTest {
+
+    @Test
+    public void testBuildTimesEachPhaseAndCreatesSchema() {
+        HibernateBootstrap bootstrap = new HibernateBootstrap();
+        try (SessionFactory factory = bootstrap.build(DatabaseProfile.current().configuration())) {
+            bootstrap.time(HibernateBootstrap.Phase.FIRST_QUERY, () -> {
+                try (Session session = factory.openSession()) {
+                    assertEquals(0, StudentQuery.all().count(session));
+                }
+            });
+
+            HibernateBootstrap.Timings timings = bootstrap.timings();
+            assertTrue(timings.millis().keySet().containsAll(List.of(HibernateBootstrap.Phase.CONNECTION,
+                HibernateBootstrap.Phase.METADATA, HibernateBootstrap.Phase.SCHEMA,
+                HibernateBootstrap.Phase.FIRST_QUERY)));
+            assertFalse(timings.millis().containsKey(HibernateBootstrap.Phase.MIGRATIONS));
+            assertTrue(timings.toString().startsWith("Hibernate listo en "));
+            assertTrue(timings.toJson().contains("\"schema\":"));
+        }
+    }
+
+    @Test
+    public void testSchemaCanBeSkipped() {
+        // Un primer arranque deja creado el esquema (create: no lo borra al cerrar)
+        new HibernateBootstrap().build(DatabaseProfile.current().configuration()
+            .setProperty("hibernate.hbm2ddl.auto", "create")).close();
+
+        HibernateBootstrap trusted = new HibernateBootstrap();
+        try (SessionFactory factory = trusted.build(DatabaseProfile.current().configuration()
+                .setProperty(HibernateBootstrap.SKIP_SCHEMA, "true"))) {
+            assertFalse(trusted.timings().millis().containsKey(HibernateBootstrap.Phase.SCHEMA));
+
+            // Usa el esquema que ya existe
+            try (Session session = factory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                session.persist(new Student("Ana", 20));
+                tx.commit();
+                assertEquals(1, StudentQuery.all().count(session));
+            }
+        }
+    }
+}
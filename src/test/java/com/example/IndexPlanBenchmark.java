@@ -0,0 +1,117 @@
+package com.example;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+/**
+ * Muestra el plan de ejecución (EXPLAIN) y la mediana de tiempo de las
+ * consultas de {@code Main} con y sin los índices de {@link Student}, sobre
+ * una tabla sembrada con muchas filas.
+ *
+ * <p>Usa la configuración de pruebas ({@code src/test/resources/hibernate.cfg.xml})
+ * con el perfil de base de datos indicado (ver {@link DatabaseProfile}):</p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dapp.db.profile=hsqldb-mem \
+ *     -Dexec.mainClass=com.example.IndexPlanBenchmark -Dexec.args="500000"
+ * </pre>
+ */
+public class IndexPlanBenchmark {
+    private static final int RUNS = 15;
+    private static final String[] FIRST_NAMES = {"María", "José", "Ana", "Luis", "Ángel", "Lucía", "Mario", "Íñigo"};
+
+    private static final Map<String, String> INDEXES = Map.of(
+        "idx_student_age", "age, id",
+        "idx_student_name", "name, id",
+        "idx_student_name_normalized", "name_normalized, id");
+
+    private static final List<String[]> QUERIES = List.of(
+        new String[]{"Rango de edad", "SELECT id, name, age FROM Student WHERE age BETWEEN 30 AND 31 ORDER BY id LIMIT 200"},
+        new String[]{"Edad exacta ordenada", "SELECT id, name, age FROM Student WHERE age = 40 ORDER BY age, id LIMIT 200"},
+        new String[]{"Orden por edad", "SELECT id, name, age FROM Student ORDER BY age, id LIMIT 200"},
+        new String[]{"Orden por nombre", "SELECT id, name, age FROM Student ORDER BY name_normalized, id LIMIT 200"},
+        new String[]{"Prefijo de nombre", "SELECT id, name, age FROM Student WHERE name_normalized LIKE 'mar%' "
+            + "ORDER BY name_normalized, id LIMIT 200"},
+        new String[]{"Subcadena (LIKE %x%)", "SELECT id, name, age FROM Student WHERE LOWER(name) LIKE '%ari%' "
+            + "ORDER BY id LIMIT 200"});
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        Configuration configuration = DatabaseProfile.current().configuration()
+            .setProperty(QueryProfiler.SLOW_MS, "-1");
+
+        try (SessionFactory factory = configuration.buildSessionFactory()) {
+            Dialect dialect = factory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+            boolean mysql = dialect instanceof MySQLDialect;
+            seed(factory, rows);
+
+            System.out.printf("Filas: %,d%n", rows);
+            report(factory, mysql, "CON ÍNDICES");
+            execute(factory, INDEXES.keySet().stream()
+                .map(name -> mysql ? "DROP INDEX " + name + " ON Student" : "DROP INDEX " + name)
+                .toList());
+            report(factory, mysql, "SIN ÍNDICES");
+            execute(factory, INDEXES.entrySet().stream()
+                .map(e -> "CREATE INDEX " + e.getKey() + " ON Student (" + e.getValue() + ")")
+                .toList());
+        }
+    }
+
+    private static void seed(SessionFactory factory, int rows) {
+        try (StatelessSession session = factory.openStatelessSession()) {
+            session.setJdbcBatchSize(Student.ID_ALLOCATION_SIZE);
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < rows; i++) {
+                session.insert(new Student(FIRST_NAMES[i % FIRST_NAMES.length] + " " + Integer.toString(i * 7919, 36),
+                    18 + i % 60));
+            }
+            tx.commit();
+        }
+    }
+
+    private static void report(SessionFactory factory, boolean mysql, String title) {
+        System.out.printf("%n=== %s ===%n", title);
+        for (String[] query : QUERIES) {
+            System.out.printf("%n-- %s: %.2f ms (mediana de %d)%n", query[0], medianMillis(factory, query[1]), RUNS);
+            try (StatelessSession session = factory.openStatelessSession()) {
+                String explain = (mysql ? "EXPLAIN " : "EXPLAIN PLAN FOR ") + query[1];
+                for (Object line : session.createNativeQuery(explain, Object.class).list()) {
+                    System.out.println(line instanceof Object[] columns ? Arrays.toString(columns) : line);
+                }
+            }
+        }
+    }
+
+    private static double medianMillis(SessionFactory factory, String sql) {
+        double[] times = new double[RUNS];
+        try (StatelessSession session = factory.openStatelessSession()) {
+            // Una ejecución previa para que el plan y las páginas ya estén en memoria
+            session.createNativeQuery(sql, Object[].class).list();
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                session.createNativeQuery(sql, Object[].class).list();
+                times[i] = (System.nanoTime() - start) / 1e6;
+            }
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private static void execute(SessionFactory factory, List<String> statements) {
+        try (StatelessSession session = factory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            statements.forEach(sql -> session.createNativeMutationQuery(sql).executeUpdate());
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Compara filas/segundo de bucles de {@code persist()} (como el de
+ * {@code StudentCrudTest.testCreateMultipleStudents}) con ids IDENTITY frente
+ * a la secuencia pooled-lo de {@link Student}.
+ *
+ * <p>Usa la configuración de pruebas ({@code src/test/resources/hibernate.cfg.xml})
+ * con el perfil de base de datos indicado (ver {@link DatabaseProfile}):</p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dapp.db.profile=hsqldb-mem \
+ *     -Dexec.mainClass=com.example.InsertThroughputBenchmark -Dexec.args="100000"
+ * </pre>
+ */
+public class InsertThroughputBenchmark {
+
+    /** Misma forma que Student, pero con el mapeo IDENTITY anterior. */
+    @Entity(name = "IdentityStudent")
+    @Table(name = "identity_student")
+    public static class IdentityStudent {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+        private String name;
+        private int age;
+
+        public IdentityStudent() {
+        }
+
+        public IdentityStudent(String name, int age) {
+            this.name = name;
+            this.age = age;
+        }
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int batchSize = Student.ID_ALLOCATION_SIZE;
+
+        Configuration configuration = DatabaseProfile.current().configuration()
+            .addAnnotatedClass(IdentityStudent.class)
+            .setProperty(QueryProfiler.SLOW_MS, "-1");
+
+        try (SessionFactory factory = configuration.buildSessionFactory()) {
+            // Calentamiento para que el JIT y el pool no cuenten en la medida
+            run(factory, rows / 10, batchSize, i -> new IdentityStudent("Calentamiento " + i, 20));
+            run(factory, rows / 10, batchSize, i -> new Student("Calentamiento " + i, 20));
+
+            double identity = run(factory, rows, batchSize, i -> new IdentityStudent("Estudiante " + i, 18 + i % 40));
+            double pooled = run(factory, rows, batchSize, i -> new Student("Estudiante " + i, 18 + i % 40));
+
+            System.out.printf("Filas: %d, lote JDBC: %d%n", rows, batchSize);
+            System.out.printf("IDENTITY:  %,.0f filas/s%n", identity);
+            System.out.printf("pooled-lo: %,.0f filas/s (x%.1f)%n", pooled, pooled / identity);
+        }
+    }
+
+    private static double run(SessionFactory factory, int rows, int batchSize,
+                              java.util.function.IntFunction<Object> entityFactory) {
+        long start = System.nanoTime();
+        try (Session session = factory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < rows; i++) {
+                session.persist(entityFactory.apply(i));
+                if ((i + 1) % batchSize == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            tx.commit();
+        }
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Pruebas del índice de trigramas para buscar por nombre
+ */
+public class NameSearchIndexTest {
+    private NameSearchIndex index;
+
+    @Before
+    public void setup() {
+        index = new NameSearchIndex();
+        index.put(1, "José Ángel Martín");
+        index.put(2, "Ana María");
+        index.put(3, "MARIANA");
+        index.put(4, "Luis");
+    }
+
+    @Test
+    public void testSubstringIgnoresCaseAndAccents() {
+        assertArrayEquals(new long[]{2, 3}, index.search("MARÍA"));
+        assertArrayEquals(new long[]{1}, index.search("angel mar"));
+        assertArrayEquals(new long[]{1}, index.search("Martin"));
+    }
+
+    @Test
+    public void testTrigramsMustAppearContiguously() {
+        // "ana" y "nam" están en "Ana María" y "MARIANA", pero no seguidos
+        assertArrayEquals(new long[0], index.search("anam"));
+        assertArrayEquals(new long[0], index.search("pedro"));
+    }
+
+    @Test
+    public void testShortTermsScanAllNames() {
+        assertArrayEquals(new long[]{1, 2, 3}, index.search("a"));
+        assertArrayEquals(new long[]{4}, index.search("ui"));
+    }
+
+    @Test
+    public void testUpdatesAndDeletesKeepIndexInSync() {
+        index.put(4, "Luisa Mariño");
+        index.remove(2);
+        assertArrayEquals(new long[]{3, 4}, index.search("mari"));
+        assertArrayEquals(new long[]{4}, index.search("luis"));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertArrayEquals(new long[0], index.search("luis"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de las métricas por operación y del histograma de latencias
+ */
+public class OperationMetricsTest {
+    private static SessionFactory sessionFactory;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        OperationMetrics.get().reset();
+    }
+
+    @Test
+    public void testHistogramPercentilesWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000_000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500, snapshot.p50Millis(), 500 * 0.07);
+        assertEquals(950, snapshot.p95Millis(), 950 * 0.07);
+        assertEquals(990, snapshot.p99Millis(), 990 * 0.07);
+        assertEquals(999, snapshot.p999Millis(), 999 * 0.07);
+        assertEquals(1000, snapshot.maxMillis(), 0.001);
+        assertEquals(500.5, snapshot.meanMillis(), 0.001);
+    }
+
+    @Test
+    public void testPhasesAreAttributedToCurrentOperation() {
+        for (int i = 0; i < 3; i++) {
+            try (OperationMetrics.Scope scope = OperationMetrics.get().begin("crear estudiante");
+                 Session session = sessionFactory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                session.persist(new Student("Medido " + i, 20));
+                OperationMetrics.commit(tx);
+            }
+        }
+        try (OperationMetrics.Scope scope = OperationMetrics.get().begin("contar estudiantes")) {
+            scope.failed();
+        }
+
+        Map<String, OperationMetrics.OperationSnapshot> byName = new HashMap<>();
+        OperationMetrics.get().snapshot().forEach(op -> byName.put(op.operation(), op));
+
+        OperationMetrics.OperationSnapshot create = byName.get("crear estudiante");
+        assertEquals(3, create.latency().count());
+        assertEquals(0, create.errors());
+        assertEquals(3, create.phases().get(OperationMetrics.Phase.COMMIT).count());
+        assertEquals(3, create.phases().get(OperationMetrics.Phase.FLUSH).count());
+        assertTrue(create.phases().get(OperationMetrics.Phase.CONNECTION).count() >= 3);
+        assertEquals(1, byName.get("contar estudiantes").errors());
+        assertNull(OperationMetrics.get().currentOperation());
+    }
+
+    @Test
+    public void testSnapshotFileIsValidJsonShape() throws Exception {
+        try (OperationMetrics.Scope scope = OperationMetrics.get().begin("buscar por \"nombre\"")) {
+            Thread.sleep(2);
+        }
+        Path file = folder.getRoot().toPath().resolve("metrics/operations.json");
+        OperationMetrics.get().writeSnapshot(file, sessionFactory);
+
+        String json = Files.readString(file);
+        assertTrue(json.contains("\"operation\":\"buscar por \\\"nombre\\\"\""));
+        assertTrue(json.contains("\"latency\":{\"count\":1,"));
+        assertTrue(json.contains("\"hibernate\":{\"sessionsOpened\":"));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas del pool de conexiones y sus indicadores
+ */
+public class PooledConnectionProviderTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    public void testPoolIsUsedBySessionFactory() {
+        assertNotNull("Debe usarse PooledConnectionProvider", HibernateUtil.poolMetrics(sessionFactory));
+    }
+
+    @Test
+    public void testActiveConnectionIsReportedWhileInUse() {
+        PoolMetrics metrics = HibernateUtil.poolMetrics(sessionFactory);
+        long acquisitionsBefore = metrics.snapshot().acquisitions();
+
+        try (Session session = sessionFactory.openSession()) {
+            session.doWork(connection -> {
+                PoolMetrics.Snapshot during = metrics.snapshot();
+                assertEquals(1, during.active());
+                assertTrue(during.total() >= 1);
+            });
+        }
+
+        PoolMetrics.Snapshot after = metrics.snapshot();
+        assertEquals(0, after.active());
+        assertTrue(after.acquisitions() > acquisitionsBefore);
+        assertTrue(after.maxAcquireMillis() >= after.avgAcquireMillis());
+    }
+}
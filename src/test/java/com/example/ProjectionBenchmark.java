@@ -0,0 +1,151 @@
+package com.example;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Compara, para cada consulta de lectura de {@code Main}, cargar entidades
+ * gestionadas frente a proyecciones: tiempo (mediana), memoria reservada por
+ * lectura y memoria retenida mientras la sesión sigue abierta.
+ *
+ * <p>Las entidades gestionadas guardan además una instantánea de su estado
+ * para la comprobación de cambios del flush; las proyecciones no.</p>
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dapp.db.profile=hsqldb-mem \
+ *     -Dexec.mainClass=com.example.ProjectionBenchmark -Dexec.args="100000 20000"
+ * </pre>
+ */
+public class ProjectionBenchmark {
+    private static final int RUNS = 11;
+    private static final String[] FIRST_NAMES = {"María", "José", "Ana", "Luis", "Ángel", "Lucía", "Mario", "Íñigo"};
+
+    private static final String ENTITY = "SELECT s";
+    private static final String ARRAY = "SELECT s.id, s.name, s.age, s.version";
+    private static final String ROW = "SELECT new com.example.StudentRow(s.id, s.name, s.age, s.version)";
+
+    // Consultas de refreshTable, searchByName, searchByAgeRange, sortStudents y filterByAge
+    private static final List<String[]> QUERIES = List.of(
+        new String[]{"Refrescar", "%s FROM Student s ORDER BY s.id"},
+        new String[]{"Buscar por nombre", "%s FROM Student s WHERE LOWER(s.name) LIKE '%%ar%%' ORDER BY s.id"},
+        new String[]{"Rango de edad", "%s FROM Student s WHERE s.age BETWEEN 20 AND 40 ORDER BY s.id"},
+        new String[]{"Ordenar por nombre", "%s FROM Student s ORDER BY s.nameNormalized, s.id"},
+        new String[]{"Filtrar por edad", "%s FROM Student s WHERE s.age > 30 ORDER BY s.id"});
+
+    // Mantiene vivo el resultado mientras se mide la memoria retenida
+    private static volatile Object sink;
+
+    private record Result(double millis, long allocatedBytes, long retainedBytes) {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Configuration configuration = DatabaseProfile.current().configuration()
+            .setProperty(QueryProfiler.SLOW_MS, "-1")
+            .setProperty("hibernate.cache.use_second_level_cache", "false")
+            .setProperty("hibernate.cache.use_query_cache", "false");
+
+        try (SessionFactory factory = configuration.buildSessionFactory()) {
+            seed(factory, rows);
+            System.out.printf("Filas: %,d; se leen hasta %,d por consulta (mediana de %d)%n", rows, limit, RUNS);
+            System.out.printf("%-20s %-30s %10s %14s %14s%n", "Consulta", "Lectura", "ms", "KB reservados", "KB retenidos");
+            for (String[] query : QUERIES) {
+                String hql = query[1];
+                print(query[0], "entidades (Session)",
+                    measure(factory::openSession, s -> s.createQuery(hql.formatted(ENTITY), Student.class)
+                        .setMaxResults(limit).list()));
+                print(query[0], "Object[] (Session)",
+                    measure(factory::openSession, s -> s.createQuery(hql.formatted(ARRAY), Object[].class)
+                        .setMaxResults(limit).list()));
+                print(query[0], "StudentRow (solo lectura)",
+                    measure(() -> readOnly(factory), s -> s.createQuery(hql.formatted(ROW), StudentRow.class)
+                        .setMaxResults(limit).list()));
+                print(query[0], "StudentRow (StatelessSession)",
+                    measure(factory::openStatelessSession, s -> s.createQuery(hql.formatted(ROW), StudentRow.class)
+                        .setMaxResults(limit).list()));
+            }
+        }
+    }
+
+    private static Session readOnly(SessionFactory factory) {
+        Session session = factory.openSession();
+        session.setDefaultReadOnly(true);
+        return session;
+    }
+
+    private static <S extends SharedSessionContract> Result measure(Supplier<S> opener, Function<S, List<?>> read) {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        // Calentamiento para que el JIT y el plan de la consulta no cuenten
+        for (int i = 0; i < 3; i++) {
+            try (S session = opener.get()) {
+                read.apply(session);
+            }
+        }
+
+        double[] times = new double[RUNS];
+        long[] allocated = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            try (S session = opener.get()) {
+                long bytes = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                read.apply(session);
+                times[i] = (System.nanoTime() - start) / 1e6;
+                allocated[i] = threads.getThreadAllocatedBytes(threadId) - bytes;
+            }
+        }
+        Arrays.sort(times);
+        Arrays.sort(allocated);
+
+        // Retenido: lo que sigue vivo (resultado + contexto de persistencia) con la sesión abierta
+        long retained;
+        try (S session = opener.get()) {
+            long before = usedHeapAfterGc();
+            sink = read.apply(session);
+            retained = usedHeapAfterGc() - before;
+            sink = null;
+        }
+        return new Result(times[RUNS / 2], allocated[RUNS / 2], retained);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void print(String query, String mode, Result result) {
+        System.out.printf("%-20s %-30s %10.2f %,14d %,14d%n", query, mode, result.millis(),
+            result.allocatedBytes() / 1024, result.retainedBytes() / 1024);
+    }
+
+    private static void seed(SessionFactory factory, int rows) {
+        try (StatelessSession session = factory.openStatelessSession()) {
+            session.setJdbcBatchSize(Student.ID_ALLOCATION_SIZE);
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < rows; i++) {
+                session.insert(new Student(FIRST_NAMES[i % FIRST_NAMES.length] + " " + Integer.toString(i * 7919, 36),
+                    18 + i % 60));
+            }
+            tx.commit();
+        }
+    }
+}
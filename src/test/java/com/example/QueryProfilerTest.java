@@ -0,0 +1,63 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.Test;
+
+/**
+ * Pruebas del registro de consultas lentas y del detector de N+1
+ */
+public class QueryProfilerTest {
+
+    @Test
+    public void testLogsSlowQueriesAndRepeatedSelects() throws Exception {
+        Path log = Files.createTempFile("slow-queries", ".log");
+        SessionFactory factory = DatabaseProfile.current().configuration()
+            .setProperty(QueryProfiler.SLOW_MS, "0")
+            .setProperty(QueryProfiler.N_PLUS_ONE, "3")
+            .setProperty(QueryProfiler.FILE, log.toString())
+            .buildSessionFactory();
+        try {
+            long firstId;
+            try (Session session = factory.openSession()) {
+                Transaction tx = session.beginTransaction();
+                session.createMutationQuery("DELETE FROM Student").executeUpdate();
+                Student first = new Student("Perfil 1", 30);
+                session.persist(first);
+                session.persist(new Student("Perfil 2", 31));
+                tx.commit();
+                firstId = first.getId();
+            }
+
+            try (OperationMetrics.Scope scope = OperationMetrics.get().begin("prueba n+1");
+                 Session session = factory.openSession()) {
+                // La misma consulta con distintos parámetros, como al cargar relaciones una a una
+                for (int i = 0; i < 4; i++) {
+                    session.createSelectionQuery("FROM Student WHERE id = :id", Student.class)
+                        .setParameter("id", firstId + i % 2)
+                        .getResultList();
+                }
+            }
+        } finally {
+            factory.close();
+        }
+
+        List<String> lines = Files.readAllLines(log, StandardCharsets.UTF_8);
+        Files.deleteIfExists(log);
+        assertTrue("Con umbral 0 toda consulta es lenta",
+            lines.stream().anyMatch(line -> line.contains("LENTA") && line.contains("[prueba n+1]")
+                && line.contains("parámetros: [1=")));
+        assertTrue("Los inserts por lotes se registran como lote",
+            lines.stream().anyMatch(line -> line.contains("LENTA") && line.contains("insert") && line.contains("lote de")));
+        long warnings = lines.stream().filter(line -> line.contains("N+1 3x") && line.contains("[prueba n+1]")).count();
+        assertEquals("Una sola advertencia por consulta y sesión", 1, warnings);
+    }
+}
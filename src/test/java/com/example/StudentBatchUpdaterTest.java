@@ -0,0 +1,117 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.example.StudentBatchUpdater.Patch;
+
+/**
+ * Pruebas de la actualización parcial en lote
+ */
+public class StudentBatchUpdaterTest {
+    private static SessionFactory sessionFactory;
+    private List<Long> ids;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < 10; i++) {
+                session.persist(new Student("Estudiante " + i, 20 + i));
+            }
+            tx.commit();
+            ids = session.createQuery("SELECT s.id FROM Student s ORDER BY s.id", Long.class).list();
+        }
+    }
+
+    @Test
+    public void testOnlyPatchedColumnsChange() {
+        // Se carga en la caché de segundo nivel para comprobar que se invalida
+        read(ids.get(0));
+        NameSearchIndex index = new NameSearchIndex();
+        index.rebuild(sessionFactory);
+
+        StudentBatchUpdater.Result result = new StudentBatchUpdater(sessionFactory).nameIndex(index)
+            .update(List.of(Patch.name(ids.get(0), "Ánxela"), Patch.age(ids.get(1), 99),
+                new Patch(ids.get(2), "Ambos", 50)).iterator(), chunk -> { });
+
+        assertEquals(3, result.patches());
+        assertEquals(3, result.rowsAffected());
+        Student named = read(ids.get(0));
+        assertEquals("Ánxela", named.getName());
+        assertEquals("anxela", named.getNameNormalized());
+        assertEquals(20, named.getAge());
+        assertEquals(1, named.getVersion());
+        assertTrue(named.getUpdatedAt().isAfter(read(ids.get(3)).getUpdatedAt()));
+
+        Student aged = read(ids.get(1));
+        assertEquals("Estudiante 1", aged.getName());
+        assertEquals(99, aged.getAge());
+        Student both = read(ids.get(2));
+        assertEquals("Ambos", both.getName());
+        assertEquals(50, both.getAge());
+        assertEquals(0, read(ids.get(3)).getVersion());
+        assertArrayEquals(new long[]{ids.get(0)}, index.search("nxel"));
+    }
+
+    @Test
+    public void testChunksMergeRepeatedIdsAndSkipMissingRows() {
+        List<Patch> patches = new ArrayList<>();
+        for (long id : ids) {
+            patches.add(Patch.age(id, 40));
+        }
+        // Mismo bloque que el anterior al mismo id: se combinan en una sola fila
+        patches.add(Patch.name(ids.get(9), "Última"));
+        patches.add(Patch.age(-1, 30));
+        List<StudentBatchUpdater.ChunkResult> chunks = new ArrayList<>();
+
+        StudentBatchUpdater.Result result = new StudentBatchUpdater(sessionFactory).chunkSize(4).batchSize(3)
+            .update(patches.iterator(), chunks::add);
+
+        assertEquals(12, result.patches());
+        assertEquals(10, result.rowsAffected());
+        assertEquals(List.of(new StudentBatchUpdater.ChunkResult(1, 4, 4), new StudentBatchUpdater.ChunkResult(2, 4, 4),
+            new StudentBatchUpdater.ChunkResult(3, 4, 2)), chunks);
+        Student last = read(ids.get(9));
+        assertEquals("Última", last.getName());
+        assertEquals(40, last.getAge());
+        assertEquals(1, last.getVersion());
+    }
+
+    @Test
+    public void testSqlListsOnlyChangedColumns() {
+        assertEquals("UPDATE Student SET age = ?, version = version + 1, updated_at = ? WHERE id = ?",
+            StudentBatchUpdater.sql(Patch.age(1, 2)));
+        assertEquals("UPDATE Student SET name = ?, name_normalized = ?, version = version + 1, updated_at = ? WHERE id = ?",
+            StudentBatchUpdater.sql(Patch.name(1, "x")));
+    }
+
+    private static Student read(long id) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.get(Student.class, id);
+        }
+    }
+}
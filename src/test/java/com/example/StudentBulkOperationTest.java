@@ -0,0 +1,139 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de las operaciones masivas por bloques
+ */
+public class StudentBulkOperationTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.createMutationQuery("DELETE FROM StudentBulkCheckpoint").executeUpdate();
+            for (int i = 0; i < 25; i++) {
+                session.persist(new Student("Estudiante " + i, 20));
+            }
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testDeleteAllRunsInChunks() {
+        List<StudentBulkOperation.Progress> progress = new ArrayList<>();
+        StudentBulkOperation.Result result = StudentBulkOperation.deleteAll(sessionFactory)
+            .chunkSize(10).pauseMillis(0)
+            .run(false, progress::add);
+
+        assertTrue(result.completed());
+        assertEquals(25, result.rows());
+        assertEquals(List.of(10L, 20L, 25L), progress.stream().map(StudentBulkOperation.Progress::rowsDone).toList());
+        assertEquals(100, progress.get(2).percent());
+        assertEquals(0, count("SELECT COUNT(s) FROM Student s"));
+        assertNull(StudentBulkOperation.pending(sessionFactory, StudentBulkOperation.Kind.DELETE_ALL));
+    }
+
+    @Test
+    public void testInterruptedIncrementResumesWithoutRepeatingChunks() {
+        // Se interrumpe tras el primer bloque, como al pulsar Cancelar
+        StudentBulkOperation.Result first = StudentBulkOperation.incrementAges(sessionFactory, 5)
+            .chunkSize(10).pauseMillis(0)
+            .run(false, progress -> Thread.currentThread().interrupt());
+        assertTrue(Thread.interrupted());
+        assertFalse(first.completed());
+        assertEquals(10, first.rows());
+
+        StudentBulkCheckpoint pending = StudentBulkOperation.pending(sessionFactory,
+            StudentBulkOperation.Kind.INCREMENT_AGES);
+        assertEquals(10, pending.getRowsDone());
+        assertEquals(5, pending.getIncrement());
+        assertEquals(40, pending.percent());
+
+        // Un alta con un id por encima del rango queda fuera
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(new Student("Nuevo", 30));
+            tx.commit();
+        }
+
+        // Al reanudar manda el incremento guardado
+        StudentBulkOperation.Result resumed = StudentBulkOperation.incrementAges(sessionFactory, 99)
+            .chunkSize(10).pauseMillis(0)
+            .run(true, progress -> { });
+        assertTrue(resumed.completed());
+        assertEquals(25, resumed.rows());
+        assertEquals(25, count("SELECT COUNT(s) FROM Student s WHERE s.age = 25 AND s.version = 1"));
+        assertEquals(1, count("SELECT COUNT(s) FROM Student s WHERE s.age = 30 AND s.version = 0"));
+        assertNull(StudentBulkOperation.pending(sessionFactory, StudentBulkOperation.Kind.INCREMENT_AGES));
+    }
+
+    @Test
+    public void testStartingOverDiscardsPendingOperation() {
+        StudentBulkOperation.deleteAll(sessionFactory).chunkSize(10).pauseMillis(0)
+            .run(false, progress -> Thread.currentThread().interrupt());
+        assertTrue(Thread.interrupted());
+
+        StudentBulkOperation.Result result = StudentBulkOperation.deleteAll(sessionFactory).chunkSize(10).pauseMillis(0)
+            .run(false, progress -> { });
+        assertTrue(result.completed());
+        assertEquals(15, result.rows());
+        assertEquals(0, count("SELECT COUNT(s) FROM Student s"));
+    }
+
+    @Test
+    public void testUnfinishedIncrementIsNotRestartedSilently() {
+        StudentBulkOperation.incrementAges(sessionFactory, 5).chunkSize(10).pauseMillis(0)
+            .run(false, progress -> Thread.currentThread().interrupt());
+        assertTrue(Thread.interrupted());
+
+        try {
+            StudentBulkOperation.incrementAges(sessionFactory, 5).chunkSize(10).pauseMillis(0)
+                .run(false, progress -> { });
+            fail("Debería negarse a repetir el incremento");
+        } catch (StudentBulkOperation.PendingOperationException ex) {
+            assertEquals(10, ex.getPending().getRowsDone());
+        }
+        assertEquals(10, count("SELECT COUNT(s) FROM Student s WHERE s.age = 25"));
+
+        // Descartado a propósito, el nuevo incremento recorre todas las filas
+        assertTrue(StudentBulkOperation.discardPending(sessionFactory, StudentBulkOperation.Kind.INCREMENT_AGES));
+        StudentBulkOperation.Result result = StudentBulkOperation.incrementAges(sessionFactory, 5)
+            .chunkSize(10).pauseMillis(0)
+            .run(false, progress -> { });
+        assertEquals(25, result.rows());
+        assertEquals(10, count("SELECT COUNT(s) FROM Student s WHERE s.age = 30"));
+        assertEquals(15, count("SELECT COUNT(s) FROM Student s WHERE s.age = 25"));
+    }
+
+    private static long count(String hql) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery(hql, Long.class).uniqueResult();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de la caché de segundo nivel y de consultas de Student
+ */
+public class StudentCacheTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.createMutationQuery("DELETE FROM StudentBulkCheckpoint").executeUpdate();
+            session.persist(new Student("Ana", 20));
+            session.persist(new Student("Luis", 25));
+            tx.commit();
+        }
+        StudentCache.evictAll(sessionFactory);
+        sessionFactory.getStatistics().clear();
+    }
+
+    @Test
+    public void testReadByIdIsServedFromCache() {
+        Long id;
+        try (Session session = sessionFactory.openSession()) {
+            id = session.createQuery("SELECT s.id FROM Student s WHERE s.name = 'Ana'", Long.class).uniqueResult();
+        }
+        try (Session session = sessionFactory.openSession()) {
+            assertNotNull(session.get(Student.class, id));
+        }
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("Ana", session.get(Student.class, id).getName());
+        }
+
+        StudentCache.Stats stats = StudentCache.stats(sessionFactory);
+        assertEquals(1, stats.entityHits());
+        assertEquals(1, stats.entityMisses());
+    }
+
+    @Test
+    public void testRepeatedCountIsServedFromQueryCache() {
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(2, StudentQuery.all().count(session));
+        }
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(2, StudentQuery.all().count(session));
+        }
+
+        StudentCache.Stats stats = StudentCache.stats(sessionFactory);
+        assertEquals(1, stats.queryHits());
+        assertEquals(0.5, stats.queryHitRatio(), 0.001);
+    }
+
+    @Test
+    public void testBulkUpdateNeverServesStaleAges() {
+        StudentQuery byAge = StudentQuery.sorted(StudentQuery.Order.AGE_ASC);
+        Long anaId;
+        // Las lecturas quedan en caché con las edades anteriores
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(20, byAge.fetch(session, null, 0, 10).get(0).age());
+            assertEquals("Luis", StudentQuery.ageEquals(25).fetch(session, null, 0, 10).get(0).name());
+            anaId = byAge.fetch(session, null, 0, 10).get(0).id();
+            assertEquals(20, session.get(Student.class, anaId).getAge());
+        }
+
+        // Por la misma entrada que Incrementar Edades, sin vaciar la caché a mano
+        new StudentService(() -> sessionFactory, new NameSearchIndex()).incrementAges(5, false, progress -> { });
+
+        try (Session session = sessionFactory.openSession()) {
+            List<StudentRow> rows = byAge.fetch(session, null, 0, 10);
+            assertEquals(25, rows.get(0).age());
+            assertEquals(30, rows.get(1).age());
+            List<StudentRow> aged25 = StudentQuery.ageEquals(25).fetch(session, null, 0, 10);
+            assertEquals(1, aged25.size());
+            assertEquals("Ana", aged25.get(0).name());
+            assertEquals(25, session.get(Student.class, anaId).getAge());
+        }
+    }
+}
@@ -5,7 +5,6 @@ import static org.junit.Assert.*;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
-import org.hibernate.cfg.Configuration;
 import org.hibernate.query.Query;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -26,7 +25,7 @@ public class StudentCrudTest {
     @BeforeClass
     public static void setupClass() {
         // Configurar SessionFactory para testing
-        sessionFactory = new Configuration().configure().buildSessionFactory();
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
     }
 
     @Before
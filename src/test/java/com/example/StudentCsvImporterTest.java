@@ -0,0 +1,141 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de la importación masiva desde CSV
+ */
+public class StudentCsvImporterTest {
+    private static SessionFactory sessionFactory;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.createMutationQuery("DELETE FROM StudentImportCheckpoint").executeUpdate();
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testParseLineWithQuotedName() {
+        Student student = StudentCsvImporter.parseLine("\"O'Brien, José \"\"Pepe\"\"\",30");
+        assertEquals("O'Brien, José \"Pepe\"", student.getName());
+        assertEquals(30, student.getAge());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseLineRejectsInvalidAge() {
+        StudentCsvImporter.parseLine("Ana,veinte");
+    }
+
+    @Test
+    public void testImportSkipsHeaderAndRejectsInvalidRows() throws IOException {
+        Path csv = folder.newFile("alumnos.csv").toPath();
+        Files.write(csv, List.of("nombre,edad", "Ana,20", "Luis,abc", "Marta,22", ",23", "Pedro,24"));
+
+        StudentCsvImporter importer = new StudentCsvImporter(sessionFactory).chunkSize(2).batchSize(2).parserThreads(2);
+        StudentCsvImporter.Result result = importer.importFile(csv, false, null);
+
+        assertEquals(3, result.rowsImported());
+        assertEquals(2, result.rowsRejected());
+        assertEquals(2, result.errors().size());
+        assertTrue(result.errors().get(0).startsWith("Fila 2:"));
+        assertEquals(3L, countStudents());
+        assertEquals("El punto de control se borra al terminar", 0, importer.readCheckpoint(csv));
+    }
+
+    @Test
+    public void testResumeFromCheckpointSkipsImportedRows() throws IOException {
+        Path csv = folder.newFile("reanudar.csv").toPath();
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            lines.add("Estudiante " + i + "," + (18 + i));
+        }
+        Files.write(csv, lines);
+        // Simula una importación anterior interrumpida tras 4 filas
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            StudentImportCheckpoint checkpoint = new StudentImportCheckpoint(StudentCsvImporter.checkpointKey(csv));
+            checkpoint.advance(4);
+            session.persist(checkpoint);
+            tx.commit();
+        }
+
+        StudentCsvImporter.Result result = new StudentCsvImporter(sessionFactory)
+            .chunkSize(3)
+            .importFile(csv, true, null);
+
+        assertEquals(4, result.resumedFrom());
+        assertEquals(6, result.rowsImported());
+        try (Session session = sessionFactory.openSession()) {
+            List<String> names = session.createQuery("SELECT s.name FROM Student s ORDER BY s.age", String.class).list();
+            assertEquals("Estudiante 5", names.get(0));
+            assertEquals("Estudiante 10", names.get(names.size() - 1));
+        }
+    }
+
+    @Test
+    public void testCheckpointIsCommittedWithEachChunk() throws IOException {
+        Path csv = folder.newFile("interrumpida.csv").toPath();
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            lines.add("Estudiante " + i + "," + (18 + i));
+        }
+        Files.write(csv, lines);
+
+        // Se interrumpe tras el primer bloque confirmado
+        StudentCsvImporter importer = new StudentCsvImporter(sessionFactory).chunkSize(3).parserThreads(1);
+        try {
+            importer.importFile(csv, false, progress -> Thread.currentThread().interrupt());
+            fail("Debería haberse cancelado");
+        } catch (IOException expected) {
+            Thread.interrupted();
+        }
+        assertEquals(3, importer.readCheckpoint(csv));
+        assertEquals(3L, countStudents());
+
+        StudentCsvImporter.Result result = importer.importFile(csv, true, null);
+        assertEquals(6, result.rowsImported());
+        assertEquals(9L, countStudents());
+        assertEquals(0, importer.readCheckpoint(csv));
+    }
+
+    private static long countStudents() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT COUNT(s) FROM Student s", Long.class).uniqueResult();
+        }
+    }
+}
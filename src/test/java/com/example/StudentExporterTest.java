@@ -0,0 +1,121 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas de la exportación en streaming a CSV y JSON
+ */
+public class StudentExporterTest {
+    private static SessionFactory sessionFactory;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.persist(new Student("Ana", 20));
+            session.persist(new Student("O'Brien, \"Pepe\"", 31));
+            session.persist(new Student("Luis", 25));
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testExportCsvQuotesSpecialNames() throws IOException {
+        Path target = folder.getRoot().toPath().resolve("alumnos.csv");
+        long rows = new StudentExporter(sessionFactory).export(StudentQuery.sorted(StudentQuery.Order.AGE_ASC),
+            target, StudentExporter.Format.CSV, false, null);
+
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(3, rows);
+        assertEquals("id,nombre,edad", lines.get(0));
+        assertTrue(lines.get(1).endsWith(",Ana,20"));
+        assertTrue(lines.get(3).endsWith(",\"O'Brien, \"\"Pepe\"\"\",31"));
+    }
+
+    @Test
+    public void testExportGzipJsonRespectsFilter() throws IOException {
+        Path target = folder.getRoot().toPath().resolve("alumnos.json.gz");
+        long rows = new StudentExporter(sessionFactory).export(StudentQuery.ageGreaterThan(22),
+            target, StudentExporter.Format.fromFileName("alumnos.json.gz"), true, null);
+
+        List<String> lines;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8))) {
+            lines = in.lines().collect(Collectors.toList());
+        }
+        assertEquals(2, rows);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"name\":\"O'Brien, \\\"Pepe\\\"\",\"age\":31"));
+        assertTrue(lines.get(1).contains("\"name\":\"Luis\",\"age\":25"));
+    }
+
+    @Test
+    public void testExportIdsViewInBoundedParts() throws IOException {
+        long[] ids;
+        try (Session session = sessionFactory.openSession()) {
+            ids = session.createSelectionQuery("SELECT s.id FROM Student s ORDER BY s.id", Long.class).list()
+                .stream().mapToLong(Long::longValue).toArray();
+        }
+        StudentQuery query = StudentQuery.idsIn(ids);
+        assertEquals(2, query.parts(2).size());
+
+        Path target = folder.getRoot().toPath().resolve("busqueda.csv");
+        long rows = new StudentExporter(sessionFactory).idsPerQuery(2)
+            .export(query, target, StudentExporter.Format.CSV, false, null);
+
+        List<String> lines = Files.readAllLines(target);
+        assertEquals(3, rows);
+        for (int i = 0; i < ids.length; i++) {
+            assertTrue(lines.get(i + 1).startsWith(ids[i] + ","));
+        }
+    }
+
+    @Test
+    public void testFormatFromFileNameIgnoresLocale() {
+        Locale previous = Locale.getDefault();
+        try {
+            // En turco "I".toLowerCase() es una i sin punto
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            assertEquals(StudentExporter.Format.JSON, StudentExporter.Format.fromFileName("ALUMNOS.JSON.GZ"));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de la migración de ids IDENTITY a la secuencia student_seq
+ */
+public class StudentIdMigrationTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    public void testNewIdsStartAboveExistingRows() {
+        // Filas heredadas con ids asignados por AUTO_INCREMENT
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.createNativeMutationQuery("INSERT INTO Student (id, name, age) VALUES (1000, 'Antiguo 1', 20)")
+                .executeUpdate();
+            session.createNativeMutationQuery("INSERT INTO Student (id, name, age) VALUES (1001, 'Antiguo 2', 21)")
+                .executeUpdate();
+            tx.commit();
+        }
+
+        StudentIdMigration.alignSequence(sessionFactory);
+        // Idempotente: una segunda ejecución no debe retroceder la secuencia
+        StudentIdMigration.alignSequence(sessionFactory);
+
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Student first = new Student("Nuevo 1", 22);
+            Student second = new Student("Nuevo 2", 23);
+            session.persist(first);
+            session.persist(second);
+            tx.commit();
+
+            assertTrue("El nuevo ID debe ser mayor que los existentes", first.getId() > 1001);
+            assertTrue(second.getId() > 1001);
+            assertNotEquals(first.getId(), second.getId());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Pruebas del generador de carga
+ */
+public class StudentLoadGeneratorTest {
+    private static SessionFactory sessionFactory;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < 200; i++) {
+                session.persist(new Student("Estudiante " + i, 18 + i % 40));
+            }
+            tx.commit();
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    public void testRunReportsIntervalsAndWritesResults() throws Exception {
+        StudentLoadGenerator generator = new StudentLoadGenerator(sessionFactory)
+            .clients(8).duration(Duration.ofSeconds(2)).rampUp(Duration.ofMillis(500))
+            .thinkMillis(5).interval(Duration.ofMillis(500));
+        List<StudentLoadGenerator.Interval> reported = new ArrayList<>();
+
+        StudentLoadGenerator.Result result = generator.run(reported::add);
+
+        assertTrue(result.operations() > 0);
+        assertEquals(result.errorSamples().toString(), 0, result.errors());
+        assertEquals(7, result.byOperation().size());
+        assertFalse(reported.isEmpty());
+        assertEquals(reported, result.intervals());
+        assertEquals(result.operations(), reported.stream().mapToLong(StudentLoadGenerator.Interval::operations).sum());
+        assertTrue(result.latency().p999Millis() >= result.latency().p50Millis());
+
+        Path file = folder.getRoot().toPath().resolve("load-results.json");
+        generator.writeResults(result, file);
+        String json = Files.readString(file);
+        assertTrue(json.contains("\"clients\":8"));
+        assertTrue(json.contains("\"mix\":{\"read\":40,"));
+        assertTrue(json.contains("\"operation\":\"actualizar estudiante\""));
+        assertTrue(json.contains("\"p999Ms\":"));
+        assertTrue(json.contains("\"intervals\":[\n{\"second\":"));
+    }
+
+    @Test
+    public void testOnlyWeightedOperationsRun() throws Exception {
+        StudentLoadGenerator.Result result = new StudentLoadGenerator(sessionFactory)
+            .clients(2).duration(Duration.ofMillis(300)).rampUp(Duration.ZERO).thinkMillis(0)
+            .interval(Duration.ofSeconds(1)).mix("read=1,page=0")
+            .run(interval -> { });
+        assertEquals(1, result.byOperation().size());
+        assertEquals("leer estudiante", result.byOperation().get(0).operation());
+    }
+
+    @Test
+    public void testPartialLastIntervalUsesItsOwnDuration() throws Exception {
+        StudentLoadGenerator.Result result = new StudentLoadGenerator(sessionFactory)
+            .clients(2).duration(Duration.ofMillis(1200)).rampUp(Duration.ZERO).thinkMillis(0)
+            .interval(Duration.ofSeconds(1)).mix("read=1")
+            .run(interval -> { });
+        assertEquals(2, result.intervals().size());
+        StudentLoadGenerator.Interval last = result.intervals().get(1);
+        assertTrue(last.operations() > 0);
+        // Unos 200 ms: dividir por el segundo completo daría un ritmo cinco veces menor
+        assertTrue(last.perSecond() > last.operations() * 1.5);
+    }
+
+    @Test
+    public void testLockWaitTimeoutIsClassifiedApart() {
+        SQLException lockWait = new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+        assertEquals(StudentLoadGenerator.Outcome.LOCK_TIMEOUT,
+            StudentLoadGenerator.classify(new RuntimeException("fallo", lockWait)));
+        assertEquals(StudentLoadGenerator.Outcome.ERROR,
+            StudentLoadGenerator.classify(new RuntimeException(new SQLException("Otro", "08001", 0))));
+    }
+}
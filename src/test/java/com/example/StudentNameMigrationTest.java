@@ -0,0 +1,50 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas del relleno de la columna name_normalized
+ */
+public class StudentNameMigrationTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    public void testBackfillsRowsWithoutNormalizedName() {
+        // Filas anteriores a la columna: name_normalized queda a NULL
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.createNativeMutationQuery("INSERT INTO Student (id, name, age) VALUES (2000, 'Íñigo ÁLVAREZ', 30)")
+                .executeUpdate();
+            session.persist(new Student("Nuevo", 22));
+            tx.commit();
+        }
+
+        assertEquals(1, StudentNameMigration.backfillNormalizedNames(sessionFactory));
+        assertEquals(0, StudentNameMigration.backfillNormalizedNames(sessionFactory));
+
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals("inigo alvarez", session.get(Student.class, 2000L).getNameNormalized());
+            assertEquals(1, StudentQuery.nameStartsWith("IÑI").count(session));
+        }
+    }
+}
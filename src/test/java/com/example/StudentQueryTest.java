@@ -0,0 +1,252 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de la paginación por clave de StudentQuery
+ */
+public class StudentQueryTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            // Nombres y edades repetidos para forzar el desempate por id
+            for (int i = 0; i < 25; i++) {
+                session.persist(new Student("Estudiante " + (char) ('A' + i % 5), 18 + i % 7));
+            }
+            tx.commit();
+        }
+    }
+
+    @Test
+    public void testKeysetPagesMatchFullResultForEveryOrder() {
+        for (StudentQuery.Order order : StudentQuery.Order.values()) {
+            StudentQuery query = StudentQuery.sorted(order);
+            try (Session session = sessionFactory.openSession()) {
+                List<StudentRow> expected = query.fetch(session, null, 0, 100);
+                List<StudentRow> paged = readByPages(session, query, 7);
+                assertEquals("Orden " + order, ids(expected), ids(paged));
+            }
+        }
+    }
+
+    @Test
+    public void testNullNamesOnPageBoundary() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < 4; i++) {
+                session.persist(new Student(null, 40 + i));
+            }
+            tx.commit();
+        }
+        for (StudentQuery.Order order : List.of(StudentQuery.Order.NAME_ASC, StudentQuery.Order.NAME_DESC)) {
+            StudentQuery query = StudentQuery.sorted(order);
+            try (Session session = sessionFactory.openSession()) {
+                List<StudentRow> expected = query.fetch(session, null, 0, 100);
+                assertEquals(29, expected.size());
+                // Páginas de 3: varias terminan en una fila sin nombre
+                assertEquals("Orden " + order, ids(expected), ids(readByPages(session, query, 3)));
+                List<StudentRow> sorted = new ArrayList<>(expected);
+                sorted.sort(order.comparator());
+                assertEquals("Orden " + order, ids(expected), ids(sorted));
+
+                // El cursor de la API conserva la clave nula
+                StudentRow unnamed = expected.stream().filter(row -> row.name() == null).findFirst().orElseThrow();
+                assertArrayEquals(query.keyOf(unnamed),
+                    StudentServer.decodeCursor(query, StudentServer.encodeCursor(query.keyOf(unnamed))));
+            }
+        }
+    }
+
+    @Test
+    public void testStatelessSessionReadsSameRows() {
+        StudentQuery query = StudentQuery.sorted(StudentQuery.Order.AGE_DESC);
+        try (Session session = sessionFactory.openSession();
+             StatelessSession stateless = sessionFactory.openStatelessSession()) {
+            List<StudentRow> managed = readByPages(session, query, 6);
+            assertEquals(managed, readByPages(stateless, query, 6));
+            // Las proyecciones no dejan entidades en el contexto de persistencia
+            assertEquals(0, session.getStatistics().getEntityCount());
+        }
+    }
+
+    @Test
+    public void testInMemoryOrderAndFilterMatchDatabase() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(new Student("Ángela", 30));
+            session.persist(new Student("angel", 30));
+            tx.commit();
+
+            for (StudentQuery.Order order : StudentQuery.Order.values()) {
+                List<StudentRow> rows = StudentQuery.sorted(order).fetch(session, null, 0, 100);
+                List<StudentRow> sorted = new ArrayList<>(rows);
+                sorted.sort(order.comparator());
+                assertEquals("Orden " + order, ids(rows), ids(sorted));
+            }
+
+            List<StudentRow> all = StudentQuery.all().fetch(session, null, 0, 100);
+            for (StudentQuery query : List.of(StudentQuery.ageBetween(20, 22), StudentQuery.ageGreaterThan(21),
+                    StudentQuery.ageLessThan(21), StudentQuery.ageEquals(30), StudentQuery.nameContains("TE b"),
+                    StudentQuery.nameStartsWith("Ange"))) {
+                assertEquals(ids(query.fetch(session, null, 0, 100)),
+                    ids(all.stream().filter(query::matches).sorted(query.getOrder().comparator()).toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testKeysetPagesRespectFilter() {
+        StudentQuery query = StudentQuery.ageBetween(20, 22);
+        try (Session session = sessionFactory.openSession()) {
+            List<StudentRow> paged = readByPages(session, query, 4);
+            assertEquals(query.count(session), paged.size());
+            for (StudentRow row : paged) {
+                assertTrue(row.age() >= 20 && row.age() <= 22);
+            }
+        }
+    }
+
+    @Test
+    public void testSkipFromStartMatchesKeysetPage() {
+        StudentQuery query = StudentQuery.sorted(StudentQuery.Order.NAME_DESC);
+        try (Session session = sessionFactory.openSession()) {
+            List<StudentRow> first = query.fetch(session, null, 0, 10);
+            List<StudentRow> byKey = query.fetch(session, query.keyOf(first.get(9)), 0, 10);
+            List<StudentRow> byOffset = query.fetch(session, null, 10, 10);
+            assertEquals(ids(byOffset), ids(byKey));
+        }
+    }
+
+    @Test
+    public void testPrefixSearchIgnoresCaseAndAccents() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(new Student("Ángela", 30));
+            session.persist(new Student("angel", 31));
+            session.persist(new Student("Mangel", 32));
+            session.persist(new Student("ang_x", 33));
+            tx.commit();
+
+            StudentQuery query = StudentQuery.nameStartsWith("ÁNGEL");
+            List<StudentRow> rows = readByPages(session, query, 1);
+            assertEquals(2, query.count(session));
+            assertEquals("angel", rows.get(0).name());
+            assertEquals("Ángela", rows.get(1).name());
+            // Los comodines de LIKE en el término se buscan literalmente
+            assertEquals(1, StudentQuery.nameStartsWith("ang_").count(session));
+        }
+    }
+
+    @Test
+    public void testContainsSearchTreatsWildcardsLiterally() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(new Student("ana_maria", 30));
+            session.persist(new Student("Oferta 50%", 31));
+            session.persist(new Student("Luis!", 32));
+            tx.commit();
+
+            for (String term : List.of("_", "%", "!", "A_M")) {
+                StudentQuery query = StudentQuery.nameContains(term);
+                List<StudentRow> rows = query.fetch(session, null, 0, 100);
+                assertEquals("Término " + term, 1, rows.size());
+                assertEquals("Término " + term, 1, query.count(session));
+                assertTrue(query.matches(rows.get(0)));
+            }
+        }
+    }
+
+    @Test
+    public void testRequestsReuseCompiledQueries() {
+        List<StudentQuery> queries = List.of(StudentQuery.all(), StudentQuery.sorted(StudentQuery.Order.AGE_DESC),
+            StudentQuery.ageGreaterThan(20), StudentQuery.nameStartsWith("est"), StudentQuery.nameContains("b"));
+        readAll(queries);
+        Statistics stats = sessionFactory.getStatistics();
+        stats.clear();
+
+        readAll(queries);
+        // Ninguna petición vuelve a analizar HQL
+        assertTrue(stats.getQueryPlanCacheHitCount() > 0);
+        assertEquals(0, stats.getQueryPlanCacheMissCount());
+    }
+
+    private static void readAll(List<StudentQuery> queries) {
+        try (Session session = sessionFactory.openSession()) {
+            for (StudentQuery query : queries) {
+                query.count(session);
+                readByPages(session, query, 10);
+            }
+        }
+    }
+
+    @Test
+    public void testIdsInPagesOnlyOverGivenIds() {
+        try (Session session = sessionFactory.openSession()) {
+            List<StudentRow> everything = StudentQuery.all().fetch(session, null, 0, 100);
+            long[] chosen = new long[10];
+            for (int i = 0; i < chosen.length; i++) {
+                chosen[i] = everything.get(i * 2).id();
+            }
+
+            StudentQuery query = StudentQuery.idsIn(chosen);
+            List<StudentRow> paged = readByPages(session, query, 3);
+            assertEquals(10, query.count(session));
+            assertEquals(10, paged.size());
+            for (int i = 0; i < chosen.length; i++) {
+                assertEquals(chosen[i], paged.get(i).id());
+            }
+            assertEquals(ids(paged.subList(4, 7)), ids(query.fetch(session, null, 4, 3)));
+        }
+    }
+
+    private static List<StudentRow> readByPages(SharedSessionContract session, StudentQuery query, int pageSize) {
+        List<StudentRow> all = new ArrayList<>();
+        Object[] after = null;
+        while (true) {
+            List<StudentRow> page = query.fetch(session, after, 0, pageSize);
+            all.addAll(page);
+            if (page.size() < pageSize) {
+                return all;
+            }
+            after = query.keyOf(page.get(page.size() - 1));
+        }
+    }
+
+    private static List<Long> ids(List<StudentRow> rows) {
+        List<Long> ids = new ArrayList<>();
+        for (StudentRow row : rows) {
+            ids.add(row.id());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de las lecturas compartidas
+ */
+public class StudentReadsTest {
+    private static SessionFactory sessionFactory;
+    private static StudentReads reads;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+        reads = new StudentReads(() -> sessionFactory);
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < 30; i++) {
+                session.persist(new Student("Estudiante " + i, 18 + i % 10));
+            }
+            tx.commit();
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Test
+    public void testIdenticalReadsInFlightShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Function<Session, Long> slow = session -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return 42L;
+        };
+        StudentReads.Stats before = StudentReads.stats();
+
+        List<CompletableFuture<Long>> results = new ArrayList<>();
+        results.add(reads.async("compartida", slow));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 9; i++) {
+            results.add(reads.async("compartida", slow));
+        }
+        // Otra clave no espera a la primera
+        assertEquals(7L, (long) reads.async("otra", session -> 7L).get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        for (CompletableFuture<Long> result : results) {
+            assertEquals(42L, (long) result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        StudentReads.Stats after = StudentReads.stats();
+        assertEquals(11, after.requests() - before.requests());
+        assertEquals(9, after.shared() - before.shared());
+    }
+
+    @Test
+    public void testFinishedReadIsNotReused() {
+        AtomicInteger executions = new AtomicInteger();
+        reads.call("terminada", session -> executions.incrementAndGet());
+        reads.call("terminada", session -> executions.incrementAndGet());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testInvalidateStopsJoiningEarlierRead() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> old = reads.async("invalidada", session -> {
+            started.countDown();
+            await(release);
+            return "antes";
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        reads.invalidate();
+        assertEquals("después", reads.call("invalidada", session -> "después"));
+        release.countDown();
+        // Quien ya esperaba recibe su resultado
+        assertEquals("antes", old.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailureReachesEveryWaiter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Session, Long> failing = session -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("sin conexión");
+        };
+        CompletableFuture<Long> first = reads.async("fallida", failing);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Long> second = reads.async("fallida", failing);
+        release.countDown();
+
+        for (CompletableFuture<Long> result : List.of(first, second)) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("Debería haber fallado");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IllegalStateException);
+            }
+        }
+        // El fallo no deja la clave ocupada y los síncronos reciben la excepción original
+        try {
+            reads.call("fallida", session -> {
+                throw new IllegalStateException("otra vez");
+            });
+            fail("Debería haber fallado");
+        } catch (IllegalStateException ex) {
+            assertEquals("otra vez", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testCallerCannotCompleteSharedResult() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Session, Long> slow = session -> {
+            await(release);
+            return 1L;
+        };
+        CompletableFuture<Long> first = reads.async("copia", slow);
+        CompletableFuture<Long> second = reads.async("copia", slow);
+        first.complete(99L);
+        release.countDown();
+        assertEquals(1L, (long) second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReadsMatchQueries() throws Exception {
+        StudentQuery query = StudentQuery.ageBetween(18, 20);
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(query.count(session), reads.count(query));
+            assertEquals(query.fetch(session, null, 0, 5), reads.page(query, null, 5));
+            assertEquals(query.count(session), (long) reads.countAsync(query).get(5, TimeUnit.SECONDS));
+            long id = query.fetch(session, null, 0, 1).get(0).id();
+            assertEquals(id, reads.read(id).id());
+            assertNull(reads.readAsync(-1).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
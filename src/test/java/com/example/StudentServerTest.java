@@ -0,0 +1,209 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de la API HTTP de StudentServer
+ */
+public class StudentServerTest {
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+    private static final Pattern NEXT = Pattern.compile("\"next\":\"([^\"]+)\"");
+
+    private static SessionFactory sessionFactory;
+    private StudentServer server;
+    private HttpClient client;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() throws Exception {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < 30; i++) {
+                session.persist(new Student("Estudiante " + (char) ('A' + i % 26), 18 + i % 10));
+            }
+            tx.commit();
+        }
+        server = new StudentServer(() -> sessionFactory, 4);
+        server.start(0);
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+        client.close();
+    }
+
+    @Test
+    public void testCrudRoundTrip() throws Exception {
+        HttpResponse<String> created = send("POST", "/students", "{\"name\": \"Íñigo \\\"el nuevo\\\"\", \"age\": 21}");
+        assertEquals(201, created.statusCode());
+        long id = firstId(created.body());
+        assertTrue(created.body().contains("\"name\":\"Íñigo \\\"el nuevo\\\"\""));
+        assertTrue(created.body().contains("\"version\":0"));
+
+        assertEquals(200, send("GET", "/students/" + id, null).statusCode());
+        HttpResponse<String> updated = send("PUT", "/students/" + id, "{\"name\":\"Íñigo\",\"age\":22,\"version\":0}");
+        assertEquals(200, updated.statusCode());
+        assertTrue(updated.body().contains("\"version\":1"));
+
+        // Con la versión ya superada no se sobrescribe: 409 con los valores actuales
+        HttpResponse<String> stale = send("PUT", "/students/" + id, "{\"name\":\"Otro\",\"age\":40,\"version\":0}");
+        assertEquals(409, stale.statusCode());
+        assertTrue(stale.body().contains("\"current\":{\"id\":" + id + ",\"name\":\"Íñigo\",\"age\":22,\"version\":1}"));
+
+        assertEquals(204, send("DELETE", "/students/" + id, null).statusCode());
+        assertEquals(404, send("GET", "/students/" + id, null).statusCode());
+        assertEquals(404, send("DELETE", "/students/" + id, null).statusCode());
+    }
+
+    @Test
+    public void testCursorPagesCoverSortedView() throws Exception {
+        List<Long> expected;
+        try (Session session = sessionFactory.openSession()) {
+            expected = StudentQuery.sorted(StudentQuery.Order.AGE_DESC).fetch(session, null, 0, 100).stream()
+                .map(StudentRow::id).toList();
+        }
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = "/students?sort=-age&limit=7" + (cursor == null ? "" : "&cursor=" + cursor);
+            HttpResponse<String> page = send("GET", path, null);
+            assertEquals(200, page.statusCode());
+            Matcher ids = ID.matcher(page.body());
+            while (ids.find()) {
+                paged.add(Long.valueOf(ids.group(1)));
+            }
+            Matcher next = NEXT.matcher(page.body());
+            cursor = next.find() ? next.group(1) : null;
+        } while (cursor != null);
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void testFiltersCountAndBulkOperations() throws Exception {
+        assertEquals("{\"count\":9}", send("GET", "/students/count?minAge=20&maxAge=22", null).body());
+        assertEquals("{\"count\":30}", send("GET", "/students/count", null).body());
+        assertEquals("{\"count\":2}", send("GET", "/students/count?name=estudiante%20b", null).body());
+        assertEquals("{\"updated\":30}", send("POST", "/students/ages", "{\"increment\": 2}").body());
+        assertEquals("{\"count\":3}", send("GET", "/students/count?olderThan=28", null).body());
+
+        assertEquals(400, send("GET", "/students?age=20&sort=name", null).statusCode());
+        assertEquals(400, send("GET", "/students?limit=0", null).statusCode());
+        assertEquals(400, send("POST", "/students", "{\"name\": \"Sin edad\"}").statusCode());
+        assertEquals(400, send("POST", "/students", "{no es json").statusCode());
+        assertEquals(405, send("PUT", "/students", "{}").statusCode());
+        assertEquals(400, send("DELETE", "/students", null).statusCode());
+        assertEquals("{\"deleted\":30}", send("DELETE", "/students?confirm=true", null).body());
+    }
+
+    @Test
+    public void testPatchAppliesLinesInChunks() throws Exception {
+        long id = firstId(send("GET", "/students?sort=id&limit=1", null).body());
+        String lines = "{\"id\":" + id + ",\"age\":60}\n\n{\"id\":" + (id + 1) + ",\"name\":\"Parcheado\"}\n"
+            + "{\"id\":-1,\"age\":1}\n";
+        assertEquals("{\"patches\":3,\"updated\":2,\"chunks\":[{\"patches\":3,\"updated\":2}]}",
+            send("PATCH", "/students", lines).body());
+        assertTrue(send("GET", "/students/" + id, null).body().contains("\"age\":60,\"version\":1"));
+        assertEquals("{\"count\":1}", send("GET", "/students/count?name=parcheado", null).body());
+
+        HttpResponse<String> invalid = send("PATCH", "/students", "{\"id\":" + id + ",\"age\":61}\n{\"id\":" + id + "}");
+        assertEquals(400, invalid.statusCode());
+        assertTrue(invalid.body(), invalid.body().startsWith("{\"error\":\"línea 2: Falta el campo name o age\""));
+    }
+
+    @Test
+    public void testManyConcurrentRequestsAreServed() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            responses.add(client.sendAsync(request("GET", "/students?limit=5", null), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+    }
+
+    @Test
+    public void testSlowUploadDoesNotHoldAdmission() throws Exception {
+        String body = "{\"name\": \"Lento\", \"age\": 30}";
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /students HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + body.length()
+                + "\r\n\r\n" + body.substring(0, 10)).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            // Mientras el cuerpo no llega, la petición no ocupa ningún hueco
+            Thread.sleep(300);
+            assertEquals(4, server.availableAdmissions());
+
+            out.write(body.substring(10).getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String status = new String(socket.getInputStream().readNBytes(12), StandardCharsets.US_ASCII);
+            assertEquals("HTTP/1.1 201", status);
+        }
+        assertEquals(4, server.availableAdmissions());
+    }
+
+    @Test
+    public void testParseObject() {
+        Map<String, Object> values = StudentServer.parseObject(
+            " {\"a\": \"x\\u00e1\\n\", \"b\": -3, \"c\": 1.5, \"d\": null, \"e\": true} ");
+        assertEquals("xá\n", values.get("a"));
+        assertEquals(-3L, values.get("b"));
+        assertEquals(1.5, values.get("c"));
+        assertNull(values.get("d"));
+        assertEquals(Boolean.TRUE, values.get("e"));
+        assertTrue(StudentServer.parseObject("{}").isEmpty());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    private static long firstId(String json) {
+        Matcher matcher = ID.matcher(json);
+        assertTrue(json, matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+}
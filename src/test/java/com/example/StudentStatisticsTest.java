@@ -0,0 +1,156 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de las estadísticas de edad
+ */
+public class StudentStatisticsTest {
+    private static SessionFactory sessionFactory;
+    private StudentService service;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+        sessionFactory.getStatistics().setStatisticsEnabled(true);
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < 20; i++) {
+                session.persist(new Student("Estudiante " + i, 18 + i % 5));
+            }
+            tx.commit();
+        }
+        service = new StudentService(() -> sessionFactory, new NameSearchIndex());
+    }
+
+    @Test
+    public void testSnapshotMatchesDatabase() {
+        StudentStatistics.Snapshot snapshot = service.statistics().snapshot();
+        assertEquals(20, snapshot.count());
+        assertEquals(18, snapshot.minAge());
+        assertEquals(22, snapshot.maxAge());
+        assertEquals(20.0, snapshot.averageAge(), 0.0001);
+        assertEquals(Map.of(18, 4L, 19, 4L, 20, 4L, 21, 4L, 22, 4L), snapshot.ages());
+        assertTrue(snapshot.toString().startsWith("20 estudiantes, edad mínima 18, máxima 22"));
+    }
+
+    @Test
+    public void testWritesAdjustWithoutQuerying() {
+        service.statistics().snapshot();
+        StudentRow created = service.create("Nuevo", 40);
+        service.update(created.id(), "Nuevo", 41, null);
+        service.update(firstIdWithAge(18), "Cambiado", 30, null);
+        service.delete(firstIdWithAge(19));
+
+        long queries = sessionFactory.getStatistics().getQueryExecutionCount();
+        StudentStatistics.Snapshot snapshot = service.statistics().snapshot();
+        assertEquals(queries, sessionFactory.getStatistics().getQueryExecutionCount());
+        assertEquals(20, snapshot.count());
+        assertEquals(41, snapshot.maxAge());
+        assertEquals(histogram(), snapshot.ages());
+    }
+
+    @Test
+    public void testBulkOperationsKeepStatisticsExact() {
+        service.statistics().snapshot();
+        service.incrementAges(3, false, progress -> { });
+        // Ajustadas con el recuento de cada bloque, sin recalcular
+        long queries = sessionFactory.getStatistics().getQueryExecutionCount();
+        StudentStatistics.Snapshot snapshot = service.statistics().snapshot();
+        assertEquals(queries, sessionFactory.getStatistics().getQueryExecutionCount());
+        assertEquals(histogram(), snapshot.ages());
+        assertEquals(21, snapshot.minAge());
+        assertEquals(23.0, snapshot.averageAge(), 0.0001);
+
+        service.deleteAll(false, progress -> { });
+        queries = sessionFactory.getStatistics().getQueryExecutionCount();
+        snapshot = service.statistics().snapshot();
+        assertEquals(queries, sessionFactory.getStatistics().getQueryExecutionCount());
+        assertEquals(0, snapshot.count());
+        assertTrue(snapshot.ages().isEmpty());
+        assertEquals("Sin estudiantes", snapshot.toString());
+    }
+
+    @Test
+    public void testInvalidateReloads() {
+        service.statistics().snapshot();
+        // Un cambio que el servicio no ve
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(new Student("Externo", 60));
+            tx.commit();
+        }
+        assertEquals(20, service.statistics().snapshot().count());
+
+        service.statistics().invalidate();
+        assertEquals(21, service.statistics().snapshot().count());
+        assertEquals(60, service.statistics().snapshot().maxAge());
+    }
+
+    @Test
+    public void testReloadDuringChangeIsNotKept() {
+        StudentStatistics statistics = service.statistics();
+        statistics.beginChange();
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(new Student("Entre commit y aviso", 60));
+            tx.commit();
+        }
+        // El recálculo ya ve el alta, pero aún no se ha avisado de ella
+        assertEquals(21, statistics.snapshot().count());
+        statistics.added(60);
+        statistics.endChange();
+
+        assertEquals(21, statistics.snapshot().count());
+        assertEquals(Long.valueOf(1), statistics.snapshot().ages().get(60));
+    }
+
+    @Test
+    public void testChangesBeforeFirstLoadAreNotCounted() {
+        // Sin cifras en memoria los avisos no se aplican: la siguiente consulta recalcula
+        service.statistics().added(99);
+        StudentStatistics.Snapshot snapshot = service.statistics().snapshot();
+        assertEquals(20, snapshot.count());
+        assertFalse(snapshot.ages().containsKey(99));
+    }
+
+    private long firstIdWithAge(int age) {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createSelectionQuery("SELECT MIN(s.id) FROM Student s WHERE s.age = :age", Long.class)
+                .setParameter("age", age).getSingleResult();
+        }
+    }
+
+    private TreeMap<Integer, Long> histogram() {
+        TreeMap<Integer, Long> ages = new TreeMap<>();
+        try (Session session = sessionFactory.openSession()) {
+            for (Object[] row : session.createNamedQuery(Student.AGE_HISTOGRAM, Object[].class).list()) {
+                ages.put((Integer) row[0], (Long) row[1]);
+            }
+        }
+        return ages;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jakarta.persistence.OptimisticLockException;
+
+/**
+ * Pruebas de la sincronización incremental y del bloqueo optimista
+ */
+public class StudentSyncTest {
+    private static SessionFactory sessionFactory;
+    private StudentSync sync;
+
+    @BeforeClass
+    public static void setupClass() {
+        sessionFactory = DatabaseProfile.current().configuration().buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            session.createMutationQuery("DELETE FROM StudentDeletion").executeUpdate();
+            for (int i = 0; i < 20; i++) {
+                session.persist(new Student("Estudiante " + i, 18 + i));
+            }
+            tx.commit();
+        }
+        sync = new StudentSync();
+        try (Session session = sessionFactory.openSession()) {
+            sync.reset(session);
+        }
+    }
+
+    @Test
+    public void testDeltaContainsOnlyChangesSinceWatermark() {
+        assertTrue(fetch().isEmpty());
+
+        Student created = persist(new Student("Nuevo", 30));
+        long updatedId = firstId();
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.get(Student.class, updatedId).setAge(50);
+            tx.commit();
+        }
+
+        StudentSync.Delta delta = fetch();
+        assertFalse(delta.reloadAll());
+        assertEquals(List.of(updatedId, created.getId()), delta.changed().stream().map(StudentRow::id).sorted().toList());
+        for (StudentRow row : delta.changed()) {
+            assertEquals(row.id() == updatedId ? 1 : 0, row.version());
+            assertTrue(sync.accept(row));
+        }
+
+        // El solape vuelve a leer las mismas filas, pero ya están aplicadas
+        assertTrue(fetch().isEmpty());
+    }
+
+    @Test
+    public void testChangeCommittedLateAfterResetIsSeen() {
+        // Marcada antes de la recarga (flush), confirmada después
+        Student late = persist(new Student("Tardío", 40));
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Instant latest = session.createNamedQuery(Student.LATEST_UPDATE, Instant.class).uniqueResult();
+            sync.reset(session);
+            session.createMutationQuery("UPDATE Student s SET s.updatedAt = :at WHERE s.id = :id")
+                .setParameter("at", latest.minusSeconds(5))
+                .setParameter("id", late.getId())
+                .executeUpdate();
+            tx.commit();
+        }
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.get(Student.class, late.getId()).setAge(41);
+            session.createMutationQuery("UPDATE Student s SET s.updatedAt = :at WHERE s.id = :id")
+                .setParameter("at", Instant.now().minusSeconds(5))
+                .setParameter("id", late.getId())
+                .executeUpdate();
+            tx.commit();
+        }
+        // La versión 0 estaba en la recarga; la 1 no
+        StudentSync.Delta delta = fetch();
+        assertEquals(1, delta.changed().size());
+        assertEquals(41, delta.changed().get(0).age());
+    }
+
+    @Test
+    public void testDeletionCommittedLateIsSeen() {
+        deleteStudent(firstId(), 0);
+        assertEquals(1, fetch().deleted().size());
+
+        // Empezó antes que la anterior (deleted_at menor) pero confirma después
+        StudentDeletion late = deleteStudent(firstId(), 5);
+        StudentSync.Delta delta = fetch();
+        assertEquals(List.of(late.getId()), delta.deleted().stream().map(StudentDeletion::getId).toList());
+        assertTrue(fetch().isEmpty());
+    }
+
+    @Test
+    public void testDeletionLogReportsRemovedRows() {
+        long id = firstId();
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Student student = session.get(Student.class, id);
+            session.remove(student);
+            session.persist(StudentDeletion.of(student));
+            tx.commit();
+        }
+
+        StudentSync.Delta delta = fetch();
+        assertEquals(1, delta.deleted().size());
+        StudentRow removed = delta.deleted().get(0).toRow();
+        assertEquals(id, removed.id());
+        assertEquals("Estudiante 0", removed.name());
+        assertEquals(18, removed.age());
+        assertTrue(sync.acceptDeletion(id));
+        assertTrue(fetch().isEmpty());
+
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(StudentDeletion.all());
+            tx.commit();
+        }
+        assertTrue(fetch().reloadAll());
+    }
+
+    @Test
+    public void testOwnChangeIsNotAppliedTwice() {
+        Student created = persist(new Student("Propio", 25));
+        // Se aplicó al modelo al confirmar, antes de que la sincronización lo vea
+        assertTrue(sync.accept(StudentRow.of(created)));
+        assertTrue(fetch().isEmpty());
+        assertFalse(sync.accept(StudentRow.of(created)));
+    }
+
+    @Test
+    public void testStaleVersionIsRejected() {
+        long id = firstId();
+        try (Session first = sessionFactory.openSession(); Session second = sessionFactory.openSession()) {
+            Transaction tx1 = first.beginTransaction();
+            Student mine = first.get(Student.class, id);
+            Transaction tx2 = second.beginTransaction();
+            second.get(Student.class, id).setName("Otro usuario");
+            tx2.commit();
+
+            mine.setName("Yo");
+            try {
+                tx1.commit();
+                fail("Debió detectar la modificación concurrente");
+            } catch (OptimisticLockException expected) {
+                // El UPDATE ... WHERE version = 0 no encuentra la fila
+            }
+        }
+        try (Session session = sessionFactory.openSession()) {
+            Student current = session.get(Student.class, id);
+            assertEquals("Otro usuario", current.getName());
+            assertEquals(1, current.getVersion());
+        }
+    }
+
+    @Test
+    public void testVersionedBulkUpdateIsSeenAsChanges() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("UPDATE VERSIONED Student SET age = age + 1, updatedAt = :now")
+                .setParameter("now", Instant.now())
+                .executeUpdate();
+            tx.commit();
+        }
+        StudentSync.Delta delta = fetch();
+        assertEquals(20, delta.changed().size());
+        for (StudentRow row : delta.changed()) {
+            assertEquals(1, row.version());
+        }
+    }
+
+    @Test
+    public void testPruneDeletionsKeepsRecentEntries() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(StudentDeletion.all());
+            session.persist(StudentDeletion.all());
+            tx.commit();
+            tx = session.beginTransaction();
+            session.createMutationQuery("UPDATE StudentDeletion d SET d.deletedAt = :old WHERE d.id = "
+                    + "(SELECT MIN(x.id) FROM StudentDeletion x)")
+                .setParameter("old", Instant.now().minus(30, ChronoUnit.DAYS))
+                .executeUpdate();
+            tx.commit();
+        }
+        assertEquals(1, StudentSync.pruneDeletions(sessionFactory));
+        try (Session session = sessionFactory.openSession()) {
+            assertEquals(1L, (long) session.createQuery("SELECT COUNT(d) FROM StudentDeletion d", Long.class)
+                .uniqueResult());
+        }
+    }
+
+    private StudentSync.Delta fetch() {
+        try (Session session = sessionFactory.openSession()) {
+            return sync.fetch(session);
+        }
+    }
+
+    private static long firstId() {
+        try (Session session = sessionFactory.openSession()) {
+            return session.createQuery("SELECT MIN(s.id) FROM Student s", Long.class).uniqueResult();
+        }
+    }
+
+    private static StudentDeletion deleteStudent(long id, int secondsEarlier) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Student student = session.get(Student.class, id);
+            session.remove(student);
+            StudentDeletion deletion = StudentDeletion.of(student);
+            session.persist(deletion);
+            tx.commit();
+            tx = session.beginTransaction();
+            session.createMutationQuery("UPDATE StudentDeletion d SET d.deletedAt = :at WHERE d.id = :id")
+                .setParameter("at", Instant.now().minusSeconds(secondsEarlier))
+                .setParameter("id", deletion.getId())
+                .executeUpdate();
+            tx.commit();
+            return deletion;
+        }
+    }
+
+    private static Student persist(Student student) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(student);
+            tx.commit();
+            return student;
+        }
+    }
+}
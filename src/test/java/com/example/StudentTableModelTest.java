@@ -0,0 +1,204 @@
+package com.example;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.swing.SwingUtilities;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Pruebas de los cambios por fila del modelo de tabla
+ */
+public class StudentTableModelTest {
+    private static final int ROWS = 450;
+
+    private static SessionFactory sessionFactory;
+    private StudentTableModel model;
+
+    @BeforeClass
+    public static void setupClass() {
+        // El modelo lee con HibernateUtil
+        sessionFactory = HibernateUtil.getSessionFactory();
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+        HibernateUtil.shutdown();
+    }
+
+    @Before
+    public void setup() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.createMutationQuery("DELETE FROM Student").executeUpdate();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist(new Student("Estudiante " + i, 18 + i % 30));
+            }
+            tx.commit();
+        }
+        model = new StudentTableModel();
+    }
+
+    @After
+    public void tearDown() {
+        model.shutdown();
+    }
+
+    @Test
+    public void testDeltasKeepSortedViewInDatabaseOrder() throws Exception {
+        StudentQuery query = StudentQuery.sorted(StudentQuery.Order.AGE_ASC);
+        show(query);
+
+        Student created = persist(new Student("Nuevo", 25));
+        StudentRow row = StudentRow.of(created);
+        onEdt(() -> model.rowInserted(row));
+        assertEquals(ROWS + 1, (int) onEdt(model::getRowCount));
+        assertEquals(databaseIds(query).indexOf(created.getId()), (int) onEdt(() -> model.rowOf(row.id())));
+
+        // Cambiar la edad la mueve a otra página
+        StudentRow moved = update(row.id(), "Nuevo", 45);
+        onEdt(() -> model.rowUpdated(row, moved));
+        awaitLoaded();
+        assertEquals(databaseIds(query).indexOf(created.getId()), (int) onEdt(() -> model.rowOf(row.id())));
+
+        // Cambiar solo el nombre la sustituye en su sitio
+        int position = onEdt(() -> model.rowOf(row.id()));
+        StudentRow renamed = update(row.id(), "Renombrado", 45);
+        onEdt(() -> model.rowUpdated(moved, renamed));
+        assertEquals(position, (int) onEdt(() -> model.rowOf(row.id())));
+        assertEquals("Renombrado", onEdt(() -> model.getValueAt(position, 1)));
+
+        delete(row.id());
+        onEdt(() -> model.rowRemoved(renamed));
+        assertEquals(ROWS, (int) onEdt(model::getRowCount));
+        assertEquals(-1, (int) onEdt(() -> model.rowOf(row.id())));
+
+        awaitLoaded();
+        assertEquals(databaseIds(query), modelIds());
+    }
+
+    @Test
+    public void testDeltasRespectFilter() throws Exception {
+        StudentQuery query = StudentQuery.ageGreaterThan(40);
+        show(query);
+
+        Student young = persist(new Student("Joven", 20));
+        onEdt(() -> model.rowInserted(StudentRow.of(young)));
+        assertEquals(-1, (int) onEdt(() -> model.rowOf(young.getId())));
+
+        // Al cumplir el filtro entra en la vista
+        StudentRow before = StudentRow.of(young);
+        StudentRow after = update(young.getId(), "Joven", 45);
+        onEdt(() -> model.rowUpdated(before, after));
+        awaitLoaded();
+        assertEquals(databaseIds(query), modelIds());
+    }
+
+    private void show(StudentQuery query) throws Exception {
+        long count = databaseIds(query).size();
+        onEdt(() -> {
+            model.setQuery(query, count);
+            model.setVisibleRows(0, 50);
+            return null;
+        });
+        awaitLoaded();
+    }
+
+    // Espera a que todas las filas de la vista estén cargadas (la vista cabe en la ventana de precarga)
+    private void awaitLoaded() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (onEdt(() -> {
+                for (int row = 0; row < model.getRowCount(); row++) {
+                    if (model.getIdAt(row) == null) {
+                        return false;
+                    }
+                }
+                return true;
+            })) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        fail("Las páginas no se cargaron a tiempo");
+    }
+
+    private List<Long> modelIds() throws Exception {
+        return onEdt(() -> {
+            List<Long> ids = new ArrayList<>();
+            for (int row = 0; row < model.getRowCount(); row++) {
+                ids.add(model.getIdAt(row));
+            }
+            return ids;
+        });
+    }
+
+    private static List<Long> databaseIds(StudentQuery query) {
+        try (Session session = sessionFactory.openSession()) {
+            return query.fetch(session, null, 0, Integer.MAX_VALUE).stream().map(StudentRow::id).toList();
+        }
+    }
+
+    private static Student persist(Student student) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.persist(student);
+            tx.commit();
+            return student;
+        }
+    }
+
+    private static StudentRow update(long id, String name, int age) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            Student student = session.get(Student.class, id);
+            student.setName(name);
+            student.setAge(age);
+            tx.commit();
+            return StudentRow.of(student);
+        }
+    }
+
+    private static void delete(long id) {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction tx = session.beginTransaction();
+            session.remove(session.get(Student.class, id));
+            tx.commit();
+        }
+    }
+
+    private static void onEdt(Runnable action) throws Exception {
+        onEdt(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T onEdt(Callable<T> action) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result.set(action.call());
+            } catch (Exception ex) {
+                error.set(ex);
+            }
+        });
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+}